@@ -8,6 +8,7 @@ import (
 	"time"
 
 	"google.golang.org/grpc"
+	"google.golang.org/grpc/keepalive"
 	"google.golang.org/grpc/metadata"
 
 	"pingpad-api-testing-engine/internal/models"
@@ -228,6 +229,16 @@ func (s *Server) Start(port int) error {
 	// Create gRPC server with unary interceptor for correlation ID
 	grpcServer := grpc.NewServer(
 		grpc.UnaryInterceptor(correlationIDInterceptor),
+		// Accept the backend's keepalive pings (the default policy rejects pings more often than every 5 minutes)
+		grpc.KeepaliveEnforcementPolicy(keepalive.EnforcementPolicy{
+			MinTime:             10 * time.Second,
+			PermitWithoutStream: true,
+		}),
+		// Recycle connections now and then so clients re-resolve and spread over new instances
+		grpc.KeepaliveParams(keepalive.ServerParameters{
+			MaxConnectionAge:      10 * time.Minute,
+			MaxConnectionAgeGrace: time.Minute,
+		}),
 	)
 
 	pb.RegisterApiTestingServiceServer(grpcServer, s)
@@ -51,8 +51,13 @@ func NewEngine(config *models.TestingConfig) *Engine {
 
 // ExecuteTest executes a single API test
 func (e *Engine) ExecuteTest(ctx context.Context, req *models.TestRequest) *models.TestResult {
-	// Apply rate limiting
+	e.metrics.inFlightTests.Add(1)
+	defer e.metrics.inFlightTests.Add(-1)
+
+	// Apply rate limiting (tests waiting here are reported so clients can back off)
+	e.metrics.waitingTests.Add(1)
 	e.rateLimiter.Wait()
+	e.metrics.waitingTests.Add(-1)
 	
 	// Create HTTP request
 	httpReq, err := e.createHTTPRequest(ctx, req)
@@ -2,6 +2,7 @@ package testing
 
 import (
 	"sync"
+	"sync/atomic"
 	"time"
 	"pingpad-api-testing-engine/internal/models"
 )
@@ -16,6 +17,9 @@ type Metrics struct {
 	minResponseTime   time.Duration
 	maxResponseTime   time.Duration
 	startTime         time.Time
+	// Tests currently executing, and those waiting for the rate limiter
+	inFlightTests atomic.Int64
+	waitingTests  atomic.Int64
 }
 
 // NewMetrics creates a new metrics tracker
@@ -73,6 +77,8 @@ func (m *Metrics) GetMetrics() map[string]int64 {
 		"min_response_time":   int64(m.minResponseTime),
 		"max_response_time":   int64(m.maxResponseTime),
 		"uptime_seconds":      int64(time.Since(m.startTime).Seconds()),
+		"in_flight_tests":     m.inFlightTests.Load(),
+		"waiting_tests":       m.waitingTests.Load(),
 	}
 }
 
@@ -0,0 +1,56 @@
+package com.pingpad.modules.api_testing.cache;
+
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.cache.codec.CacheCodec;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary cache codec for endpoint projections (cached as "endpoint:{id}" and in per-user lists).
+ */
+@Component
+public class ApiEndpointProjectionCodec implements CacheCodec<ApiEndpointProjection> {
+
+    @Override
+    public int typeId() {
+        return 32;
+    }
+
+    @Override
+    public Class<ApiEndpointProjection> type() {
+        return ApiEndpointProjection.class;
+    }
+
+    @Override
+    public void write(ApiEndpointProjection value, DataOutput out) throws IOException {
+        CacheCodec.writeUuid(out, value.getId());
+        CacheCodec.writeString(out, value.getName());
+        CacheCodec.writeString(out, value.getUrl());
+        CacheCodec.writeString(out, value.getMethod());
+        CacheCodec.writeString(out, value.getHeaders());
+        CacheCodec.writeString(out, value.getBody());
+        CacheCodec.writeLong(out, value.getUserId());
+        out.writeBoolean(Boolean.TRUE.equals(value.getRecurringEnabled()));
+        CacheCodec.writeString(out, value.getRecurringInterval());
+        CacheCodec.writeDateTime(out, value.getLastRunAt());
+    }
+
+    @Override
+    public ApiEndpointProjection read(DataInput in) throws IOException {
+        return ApiEndpointProjection.builder()
+            .id(CacheCodec.readUuid(in))
+            .name(CacheCodec.readString(in))
+            .url(CacheCodec.readString(in))
+            .method(CacheCodec.readString(in))
+            .headers(CacheCodec.readString(in))
+            .body(CacheCodec.readString(in))
+            .userId(CacheCodec.readLong(in))
+            .recurringEnabled(in.readBoolean())
+            .recurringInterval(CacheCodec.readString(in))
+            .lastRunAt(CacheCodec.readDateTime(in))
+            .build();
+    }
+}
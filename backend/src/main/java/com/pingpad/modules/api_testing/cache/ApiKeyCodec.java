@@ -0,0 +1,58 @@
+package com.pingpad.modules.api_testing.cache;
+
+import com.pingpad.modules.api_testing.models.ApiKey;
+import com.pingpad.modules.cache.codec.CacheCodec;
+import com.pingpad.modules.user_management.models.User;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Binary cache codec for API keys.
+ * Only the owner's ID is stored; the decoded key carries a detached {@link User} with just that ID,
+ * which is all the ownership checks in ApiKeyService need.
+ */
+@Component
+public class ApiKeyCodec implements CacheCodec<ApiKey> {
+
+    @Override
+    public int typeId() {
+        return 33;
+    }
+
+    @Override
+    public Class<ApiKey> type() {
+        return ApiKey.class;
+    }
+
+    @Override
+    public void write(ApiKey value, DataOutput out) throws IOException {
+        CacheCodec.writeLong(out, value.getId());
+        CacheCodec.writeLong(out, value.getUser() != null ? value.getUser().getId() : null);
+        CacheCodec.writeString(out, value.getName());
+        CacheCodec.writeString(out, value.getKeyValue());
+        CacheCodec.writeDateTime(out, value.getCreatedAt());
+        CacheCodec.writeDateTime(out, value.getUpdatedAt());
+    }
+
+    @Override
+    public ApiKey read(DataInput in) throws IOException {
+        Long id = CacheCodec.readLong(in);
+        Long userId = CacheCodec.readLong(in);
+        User user = null;
+        if (userId != null) {
+            user = new User();
+            user.setId(userId);
+        }
+        return ApiKey.builder()
+            .id(id)
+            .user(user)
+            .name(CacheCodec.readString(in))
+            .keyValue(CacheCodec.readString(in))
+            .createdAt(CacheCodec.readDateTime(in))
+            .updatedAt(CacheCodec.readDateTime(in))
+            .build();
+    }
+}
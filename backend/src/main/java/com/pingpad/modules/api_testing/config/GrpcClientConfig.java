@@ -1,5 +1,6 @@
 package com.pingpad.modules.api_testing.config;
 
+import com.pingpad.modules.api_testing.grpc.EngineChannelPool;
 import com.pingpad.modules.shared.interceptors.GrpcCorrelationIdInterceptor;
 import io.grpc.ManagedChannel;
 import io.grpc.ManagedChannelBuilder;
@@ -7,11 +8,35 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.unit.DataSize;
 
 import jakarta.annotation.PreDestroy;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Configuration for gRPC client to communicate with Go API Testing Engine
+ * Configuration for gRPC client to communicate with Go API Testing Engine.
+ *
+ * The engine is reached through a pool of channels over one or more targets
+ * (api.testing.engine.grpc.targets, defaulting to the single url:port). Each target is
+ * resolved here rather than by gRPC, and every address it resolves to (e.g. each pod
+ * behind a headless service name) gets its own channels. That way the pool balances over
+ * engine instances and its health checks see each instance on its own. Targets are
+ * re-resolved periodically as pods come and go; a target given with a scheme
+ * (e.g. dns:///host:port) is left to gRPC's own resolver and balancer.
  */
 @Configuration
 @Slf4j
@@ -25,7 +50,35 @@ public class GrpcClientConfig {
     @Value("${api.testing.engine.grpc.port:9090}")
     private int grpcPort;
 
-    private ManagedChannel channel;
+    // Comma-separated host:port targets; empty means url:port
+    @Value("${api.testing.engine.grpc.targets:}")
+    private String grpcTargets;
+
+    @Value("${api.testing.engine.grpc.channels-per-target:2}")
+    private int channelsPerTarget;
+
+    // round-robin or least-request
+    @Value("${api.testing.engine.grpc.load-balancing:round-robin}")
+    private String loadBalancing;
+
+    @Value("${api.testing.engine.grpc.keepalive-time:PT30S}")
+    private Duration keepAliveTime;
+
+    @Value("${api.testing.engine.grpc.keepalive-timeout:PT10S}")
+    private Duration keepAliveTimeout;
+
+    @Value("${api.testing.engine.grpc.max-inbound-message-size:16MB}")
+    private DataSize maxInboundMessageSize;
+
+    @Value("${api.testing.engine.grpc.health-check-timeout:PT2S}")
+    private Duration healthCheckTimeout;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private List<String> targets;
+    private EngineChannelPool channel;
+    private ExecutorService callbackExecutor;
 
     public GrpcClientConfig(GrpcCorrelationIdInterceptor correlationIdInterceptor) {
         this.correlationIdInterceptor = correlationIdInterceptor;
@@ -33,20 +86,128 @@ public class GrpcClientConfig {
 
     @Bean
     public ManagedChannel grpcChannel() {
-        String target = String.format("%s:%d", grpcHost, grpcPort);
-        log.info("Creating gRPC channel to {}", target);
-        channel = ManagedChannelBuilder.forTarget(target)
-                .intercept(correlationIdInterceptor)
-                .usePlaintext() // Use plaintext for now (can be changed to TLS in production)
-                .build();
+        targets = grpcTargets.isBlank()
+            ? List.of(String.format("%s:%d", grpcHost, grpcPort))
+            : Arrays.stream(grpcTargets.split(",")).map(String::trim).filter(target -> !target.isEmpty()).toList();
+        if (virtualThreads) {
+            // Run call callbacks on virtual threads instead of gRPC's cached platform thread pool
+            callbackExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        }
+
+        EngineChannelPool.Balancing balancing = EngineChannelPool.Balancing.valueOf(
+            loadBalancing.trim().toUpperCase().replace('-', '_'));
+        List<EngineChannelPool.Member> members = buildMembers(List.of());
+        log.info("Creating gRPC channel pool to {} ({} address(es), {} channel(s) each, {})",
+            targets, members.size() / Math.max(1, channelsPerTarget), channelsPerTarget, balancing);
+        channel = new EngineChannelPool(members, balancing);
         return channel;
     }
 
+    /**
+     * Re-resolve the engine targets and add or drop channels for addresses that appeared or went away.
+     */
+    @Scheduled(initialDelayString = "${api.testing.engine.grpc.resolve-interval:PT30S}",
+               fixedDelayString = "${api.testing.engine.grpc.resolve-interval:PT30S}")
+    public void refreshEngineAddresses() {
+        if (channel != null && !channel.isShutdown()) {
+            List<EngineChannelPool.Member> current = channel.getMembers();
+            List<EngineChannelPool.Member> members = buildMembers(current);
+            if (!members.equals(current)) {
+                channel.replaceMembers(members);
+            }
+        }
+    }
+
+    /**
+     * Channels for every address the targets resolve to, reusing the current ones for known addresses.
+     */
+    private List<EngineChannelPool.Member> buildMembers(List<EngineChannelPool.Member> current) {
+        Map<String, List<EngineChannelPool.Member>> existing = new HashMap<>();
+        for (EngineChannelPool.Member member : current) {
+            existing.computeIfAbsent(member.getAddress(), address -> new ArrayList<>()).add(member);
+        }
+
+        List<EngineChannelPool.Member> members = new ArrayList<>();
+        for (String target : targets) {
+            for (String address : resolve(target, current)) {
+                List<EngineChannelPool.Member> known = existing.remove(address);
+                if (known != null) {
+                    members.addAll(known);
+                    continue;
+                }
+                for (int i = 0; i < Math.max(1, channelsPerTarget); i++) {
+                    members.add(new EngineChannelPool.Member(target, address, buildChannel(address)));
+                }
+            }
+        }
+        return members;
+    }
+
+    /**
+     * Addresses (host:port) of a target. If it doesn't resolve, the addresses it had are kept,
+     * or the target itself is used so that gRPC keeps trying to resolve it.
+     */
+    private Set<String> resolve(String target, List<EngineChannelPool.Member> current) {
+        Set<String> addresses = new LinkedHashSet<>();
+        if (target.contains("://")) {
+            addresses.add(target);
+            return addresses;
+        }
+        int separator = target.lastIndexOf(':');
+        String host = separator > 0 ? target.substring(0, separator) : target;
+        String port = separator > 0 ? target.substring(separator + 1) : String.valueOf(grpcPort);
+        try {
+            for (InetAddress address : InetAddress.getAllByName(host)) {
+                String ip = address.getHostAddress();
+                addresses.add((address instanceof Inet6Address ? "[" + ip + "]" : ip) + ":" + port);
+            }
+        } catch (UnknownHostException e) {
+            log.warn("Could not resolve testing engine target {}: {}", target, e.getMessage());
+            current.stream()
+                .filter(member -> member.getTarget().equals(target))
+                .forEach(member -> addresses.add(member.getAddress()));
+            if (addresses.isEmpty()) {
+                addresses.add(target);
+            }
+        }
+        return addresses;
+    }
+
+    private ManagedChannel buildChannel(String address) {
+        String resolvedTarget = address.contains("://") ? address : "dns:///" + address;
+        ManagedChannelBuilder<?> builder = ManagedChannelBuilder.forTarget(resolvedTarget)
+                .intercept(correlationIdInterceptor)
+                .defaultLoadBalancingPolicy("round_robin")
+                .keepAliveTime(keepAliveTime.toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveTimeout(keepAliveTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .keepAliveWithoutCalls(true)
+                .maxInboundMessageSize((int) maxInboundMessageSize.toBytes())
+                .usePlaintext(); // Use plaintext for now (can be changed to TLS in production)
+        if (callbackExecutor != null) {
+            builder.executor(callbackExecutor);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Probe every pooled channel with GetHealth, so calls avoid engines that stopped answering.
+     */
+    @Scheduled(initialDelayString = "${api.testing.engine.grpc.health-check-interval:PT10S}",
+               fixedDelayString = "${api.testing.engine.grpc.health-check-interval:PT10S}")
+    public void checkEngineHealth() {
+        if (channel != null && !channel.isShutdown()) {
+            channel.checkHealth(healthCheckTimeout.toMillis());
+        }
+    }
+
     @PreDestroy
     public void shutdown() {
         if (channel != null && !channel.isShutdown()) {
             log.info("Shutting down gRPC channel");
             channel.shutdown();
         }
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdown();
+        }
     }
 }
@@ -1,6 +1,7 @@
 package com.pingpad.modules.api_testing.controllers;
 
 import com.pingpad.modules.api_testing.services.AlarmService;
+import com.pingpad.modules.auth.utils.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -8,8 +9,11 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 
 /**
  * REST controller for alarm management.
@@ -26,10 +30,8 @@ public class AlarmController {
      */
     @GetMapping
     public ResponseEntity<?> getUnacknowledgedAlarms(Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
             List<AlarmService.AlarmInfo> alarms = alarmService.getUnacknowledgedAlarms(userId);
             return ResponseEntity.ok(alarms);
         } catch (Exception e) {
@@ -40,15 +42,38 @@ public class AlarmController {
         }
     }
 
+    /**
+     * Get a page of unacknowledged alarms for the current user (newest first).
+     * Pass the nextCursor of the previous page as cursor to continue.
+     */
+    @GetMapping("/page")
+    public ResponseEntity<?> getUnacknowledgedAlarmPage(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            AlarmService.AlarmPage page = alarmService.getUnacknowledgedAlarmPage(userId, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for alarm page: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching alarm page", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
     /**
      * Get count of unacknowledged alarms for the current user.
      */
     @GetMapping("/count")
     public ResponseEntity<?> getUnacknowledgedAlarmCount(Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
             long count = alarmService.getUnacknowledgedAlarmCount(userId);
             return ResponseEntity.ok(Map.of("count", count));
         } catch (Exception e) {
@@ -66,10 +91,8 @@ public class AlarmController {
     public ResponseEntity<?> acknowledgeAlarm(
             @PathVariable Long testResultId,
             Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
             alarmService.acknowledgeAlarm(userId, testResultId);
             return ResponseEntity.ok(Map.of("message", "Alarm acknowledged successfully"));
         } catch (IllegalArgumentException e) {
@@ -83,4 +106,130 @@ public class AlarmController {
                 .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
         }
     }
+
+    /**
+     * Acknowledge a list of alarms in one request.
+     */
+    @PostMapping("/acknowledge")
+    public ResponseEntity<?> acknowledgeAlarms(
+            @RequestBody BulkAcknowledgeRequest request,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            if (request == null || request.testResultIds == null || request.testResultIds.isEmpty()) {
+                throw new IllegalArgumentException("testResultIds must not be empty");
+            }
+            long acknowledged = alarmService.acknowledgeAlarms(userId, request.testResultIds);
+            return ResponseEntity.ok(Map.of("message", "Alarms acknowledged successfully", "acknowledged", acknowledged));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request to acknowledge alarms: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error acknowledging alarms", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Acknowledge all open alarms of an endpoint.
+     */
+    @PostMapping("/endpoints/{endpointId}/acknowledge")
+    public ResponseEntity<?> acknowledgeEndpointAlarms(
+            @PathVariable String endpointId,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            long acknowledged = alarmService.acknowledgeEndpointAlarms(userId, UUID.fromString(endpointId));
+            return ResponseEntity.ok(Map.of("message", "Alarms acknowledged successfully", "acknowledged", acknowledged));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request to acknowledge endpoint alarms: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error acknowledging endpoint alarms", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Acknowledge all open alarms that occurred before the given time (ISO-8601, e.g. 2024-01-31T12:00:00).
+     */
+    @PostMapping("/acknowledge-before")
+    public ResponseEntity<?> acknowledgeAlarmsBefore(
+            @RequestParam String timestamp,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            LocalDateTime before;
+            try {
+                before = LocalDateTime.parse(timestamp);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid timestamp: " + timestamp);
+            }
+            long acknowledged = alarmService.acknowledgeAlarmsBefore(userId, before);
+            return ResponseEntity.ok(Map.of("message", "Alarms acknowledged successfully", "acknowledged", acknowledged));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request to acknowledge alarms: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error acknowledging alarms", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Get alarm incidents (consecutive failures grouped per endpoint) for the current user.
+     */
+    @GetMapping("/incidents")
+    public ResponseEntity<?> getIncidents(
+            @RequestParam(defaultValue = "true") boolean open,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            return ResponseEntity.ok(alarmService.getIncidents(userId, open, page, size));
+        } catch (Exception e) {
+            log.error("Error fetching alarm incidents", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Acknowledge an incident and all open alarms it covers.
+     */
+    @PostMapping("/incidents/{incidentId}/acknowledge")
+    public ResponseEntity<?> acknowledgeIncident(
+            @PathVariable Long incidentId,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            long acknowledged = alarmService.acknowledgeIncident(userId, incidentId);
+            return ResponseEntity.ok(Map.of("message", "Incident acknowledged successfully", "acknowledged", acknowledged));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request to acknowledge incident: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error acknowledging incident", e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    // Request DTOs
+    public static class BulkAcknowledgeRequest {
+        public List<Long> testResultIds;
+    }
 }
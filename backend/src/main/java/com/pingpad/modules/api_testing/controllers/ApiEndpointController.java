@@ -2,6 +2,8 @@ package com.pingpad.modules.api_testing.controllers;
 
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
 import com.pingpad.modules.api_testing.services.ApiEndpointService;
+import com.pingpad.modules.api_testing.services.LatencyRollupService;
+import com.pingpad.modules.auth.utils.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * REST controller for API endpoint management.
@@ -23,15 +26,15 @@ import java.util.UUID;
 public class ApiEndpointController {
     private final ApiEndpointService apiEndpointService;
     private final com.pingpad.modules.api_testing.services.ApiTestService apiTestService;
+    private final LatencyRollupService latencyRollupService;
 
     /**
      * Get all endpoints for the current user.
      */
     @GetMapping
     public ResponseEntity<List<ApiEndpointProjection>> getAllEndpoints(Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
             List<ApiEndpointProjection> endpoints = apiEndpointService.getEndpointsByUser(userId);
             return ResponseEntity.ok(endpoints);
         } catch (Exception e) {
@@ -64,10 +67,8 @@ public class ApiEndpointController {
     public ResponseEntity<?> createEndpoint(
             @RequestBody CreateEndpointRequest request,
             Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
             // Validate request
             if (request.name == null || request.name.trim().isEmpty()) {
                 return ResponseEntity.badRequest()
@@ -207,11 +208,10 @@ public class ApiEndpointController {
     public ResponseEntity<?> testEndpoint(
             @PathVariable String id,
             Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
             UUID endpointId = UUID.fromString(id);
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
+
             com.pingpad.modules.api_testing.models.ApiTestResult result = 
                 apiTestService.testEndpoint(endpointId, userId);
             
@@ -220,6 +220,10 @@ public class ApiEndpointController {
             log.error("Invalid request for testing endpoint: {}", e.getMessage());
             return ResponseEntity.badRequest()
                 .body(Map.of("error", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", e.getMessage()));
         } catch (Exception e) {
             log.error("Error testing endpoint: {}", e.getMessage(), e);
             String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
@@ -229,7 +233,9 @@ public class ApiEndpointController {
     }
 
     /**
-     * Get analytics/test results for an endpoint.
+     * Get analytics/test result summaries for an endpoint (newest first, unpaged).
+     * Only chart fields are returned; prefer /{id}/results for paging and
+     * /{id}/results/{resultId} for bodies and headers.
      * Supports optional time range query parameters: hours (default 24) or days.
      */
     @GetMapping("/{id}/analytics")
@@ -243,18 +249,9 @@ public class ApiEndpointController {
             
             // Calculate time range
             java.time.LocalDateTime endTime = java.time.LocalDateTime.now();
-            java.time.LocalDateTime startTime;
-            
-            if (days != null && days > 0) {
-                startTime = endTime.minusDays(days);
-            } else if (hours != null && hours > 0) {
-                startTime = endTime.minusHours(hours);
-            } else {
-                // Default to 24 hours
-                startTime = endTime.minusHours(24);
-            }
+            java.time.LocalDateTime startTime = resolveStartTime(endTime, hours, days);
             
-            List<com.pingpad.modules.api_testing.models.ApiTestResult> results = 
+            List<com.pingpad.modules.api_testing.models.ApiTestResultSummary> results = 
                 apiTestService.getTestResults(endpointId, startTime, endTime);
             
             return ResponseEntity.ok(results);
@@ -270,6 +267,138 @@ public class ApiEndpointController {
         }
     }
 
+    /**
+     * Get a page of test result summaries for an endpoint (newest first).
+     * Only chart fields are returned; fetch full results via /{id}/results/{resultId}.
+     * Supports optional time range query parameters: hours (default 24) or days,
+     * plus keyset pagination via cursor (nextCursor of the previous page) and limit.
+     */
+    @GetMapping("/{id}/results")
+    public ResponseEntity<?> getEndpointResults(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer hours,
+            @RequestParam(required = false) Integer days,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "500") int limit,
+            Authentication authentication) {
+        try {
+            UUID endpointId = UUID.fromString(id);
+            
+            java.time.LocalDateTime endTime = java.time.LocalDateTime.now();
+            java.time.LocalDateTime startTime = resolveStartTime(endTime, hours, days);
+            
+            com.pingpad.modules.api_testing.services.ApiTestService.ResultPage page =
+                apiTestService.getTestResultPage(endpointId, startTime, endTime, cursor, limit);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for endpoint results: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching endpoint results: {}", e.getMessage(), e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Get a single full test result, including response body and headers.
+     */
+    @GetMapping("/{id}/results/{resultId}")
+    public ResponseEntity<?> getEndpointResult(
+            @PathVariable String id,
+            @PathVariable Long resultId,
+            Authentication authentication) {
+        try {
+            UUID endpointId = UUID.fromString(id);
+            return ResponseEntity.ok(apiTestService.getTestResult(endpointId, resultId));
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for endpoint result: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching endpoint result: {}", e.getMessage(), e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Get latency percentiles (p50/p90/p99/p99.9) for an endpoint.
+     * Computed from hourly latency rollups, so long ranges don't scan raw results.
+     * Supports optional time range query parameters: hours (default 24) or days.
+     */
+    @GetMapping("/{id}/latency")
+    public ResponseEntity<?> getEndpointLatency(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer hours,
+            @RequestParam(required = false) Integer days,
+            Authentication authentication) {
+        try {
+            UUID endpointId = UUID.fromString(id);
+            
+            java.time.LocalDateTime endTime = java.time.LocalDateTime.now();
+            java.time.LocalDateTime startTime = resolveStartTime(endTime, hours, days);
+            
+            LatencyRollupService.LatencySummary summary =
+                latencyRollupService.getLatencySummary(List.of(endpointId), startTime, endTime);
+            return ResponseEntity.ok(summary);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid request for endpoint latency: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error fetching endpoint latency: {}", e.getMessage(), e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Get latency percentiles merged across all endpoints of the current user.
+     * Supports optional time range query parameters: hours (default 24) or days.
+     */
+    @GetMapping("/latency")
+    public ResponseEntity<?> getUserLatency(
+            @RequestParam(required = false) Integer hours,
+            @RequestParam(required = false) Integer days,
+            Authentication authentication) {
+        Long userId = CurrentUser.id();
+        try {
+            java.time.LocalDateTime endTime = java.time.LocalDateTime.now();
+            java.time.LocalDateTime startTime = resolveStartTime(endTime, hours, days);
+            
+            List<UUID> endpointIds = apiEndpointService.getEndpointsByUser(userId).stream()
+                .map(ApiEndpointProjection::getId)
+                .toList();
+            
+            LatencyRollupService.LatencySummary summary =
+                latencyRollupService.getLatencySummary(endpointIds, startTime, endTime);
+            return ResponseEntity.ok(summary);
+        } catch (Exception e) {
+            log.error("Error fetching latency: {}", e.getMessage(), e);
+            String errorMessage = e.getMessage() != null ? e.getMessage() : "Internal server error";
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", errorMessage, "details", e.getClass().getSimpleName()));
+        }
+    }
+
+    /**
+     * Resolve the start of a query time range from optional hours/days parameters.
+     * Defaults to the last 24 hours.
+     */
+    private java.time.LocalDateTime resolveStartTime(java.time.LocalDateTime endTime, Integer hours, Integer days) {
+        if (days != null && days > 0) {
+            return endTime.minusDays(days);
+        } else if (hours != null && hours > 0) {
+            return endTime.minusHours(hours);
+        }
+        return endTime.minusHours(24);
+    }
+
     // Request DTOs
     public static class CreateEndpointRequest {
         public String name;
@@ -2,6 +2,7 @@ package com.pingpad.modules.api_testing.controllers;
 
 import com.pingpad.modules.api_testing.models.ApiKey;
 import com.pingpad.modules.api_testing.services.ApiKeyService;
+import com.pingpad.modules.auth.utils.CurrentUser;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -26,9 +27,8 @@ public class ApiKeyController {
      */
     @GetMapping
     public ResponseEntity<List<ApiKey>> getUserApiKeys(Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
             List<ApiKey> apiKeys = apiKeyService.getUserApiKeys(userId);
             return ResponseEntity.ok(apiKeys);
         } catch (Exception e) {
@@ -42,9 +42,8 @@ public class ApiKeyController {
      */
     @GetMapping("/{id}")
     public ResponseEntity<ApiKey> getApiKey(@PathVariable Long id, Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
             return apiKeyService.getApiKey(userId, id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
@@ -61,10 +60,8 @@ public class ApiKeyController {
     public ResponseEntity<ApiKey> createApiKey(
             @RequestBody CreateApiKeyRequest request,
             Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
             if (request.name == null || request.name.trim().isEmpty()) {
                 return ResponseEntity.badRequest().build();
             }
@@ -91,10 +88,8 @@ public class ApiKeyController {
             @PathVariable Long id,
             @RequestBody UpdateApiKeyRequest request,
             Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
-            
             if (request.name == null || request.name.trim().isEmpty()) {
                 return ResponseEntity.badRequest().build();
             }
@@ -120,9 +115,8 @@ public class ApiKeyController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteApiKey(@PathVariable Long id, Authentication authentication) {
+        Long userId = CurrentUser.id();
         try {
-            // TODO: Get userId from authentication
-            Long userId = 1L; // Temporary - should get from JWT token
             apiKeyService.deleteApiKey(userId, id);
             return ResponseEntity.noContent().build();
         } catch (IllegalArgumentException e) {
@@ -0,0 +1,60 @@
+package com.pingpad.modules.api_testing.controllers;
+
+import com.pingpad.modules.api_testing.services.AlarmService;
+import com.pingpad.modules.api_testing.services.ResultStreamService;
+import com.pingpad.modules.auth.utils.CurrentUser;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.UUID;
+
+/**
+ * Server-Sent Events stream of new test results and alarm count changes.
+ * Replaces polling of the analytics and alarm count endpoints from open dashboards.
+ */
+@RestController
+@RequestMapping("/api/stream")
+@Slf4j
+@RequiredArgsConstructor
+public class ResultStreamController {
+    private final ResultStreamService resultStreamService;
+    private final AlarmService alarmService;
+
+    /**
+     * Open a result stream for the current user.
+     * Emits "alarms" with the current alarmCount first, then "result" and "alarms"
+     * (alarmDelta) events as they happen.
+     * A "resync" event means events were dropped and the client should refetch.
+     *
+     * @param endpointId Optional endpoint filter for result events
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> stream(
+            @RequestParam(required = false) String endpointId) {
+        Long userId = CurrentUser.id();
+
+        UUID endpointFilter;
+        try {
+            endpointFilter = endpointId != null && !endpointId.isBlank() ? UUID.fromString(endpointId) : null;
+        } catch (IllegalArgumentException e) {
+            // No JSON error body: the client only accepts an event stream
+            log.error("Invalid request for result stream: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        ResultStreamService.StreamEvent snapshot = ResultStreamService.StreamEvent.builder()
+            .type(ResultStreamService.EVENT_ALARMS)
+            .userId(userId)
+            .alarmCount(alarmService.getUnacknowledgedAlarmCount(userId))
+            .build();
+
+        return ResponseEntity.ok(resultStreamService.subscribe(userId, endpointFilter, snapshot));
+    }
+}
@@ -0,0 +1,264 @@
+package com.pingpad.modules.api_testing.grpc;
+
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ForwardingClientCall;
+import io.grpc.ForwardingClientCallListener;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+import lombok.extern.slf4j.Slf4j;
+import testing.ApiTestingServiceGrpc;
+import testing.Testing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of channels to the testing engine instances, usable as a single channel.
+ *
+ * Every engine address gets a few channels (each its own HTTP/2 connection), so traffic
+ * isn't funnelled through one connection and spreads over all engine instances. Calls
+ * go to the next channel in turn (round robin) or to the channel with the fewest calls
+ * in flight (least request). Channels whose engine failed the last health check are
+ * skipped as long as at least one healthy channel is left; the healthy ones are kept as
+ * a snapshot that only changes with health or membership, so picking allocates nothing.
+ *
+ * Members can be replaced while calls are running, e.g. when engine pods come and go;
+ * channels that leave the pool are shut down gracefully.
+ */
+@Slf4j
+public class EngineChannelPool extends ManagedChannel {
+
+    public enum Balancing { ROUND_ROBIN, LEAST_REQUEST }
+
+    private final Balancing balancing;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<Member> members;
+    private volatile List<Member> healthyMembers;
+    private volatile boolean shutdown;
+
+    public EngineChannelPool(List<Member> members, Balancing balancing) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("At least one engine channel is required");
+        }
+        this.balancing = balancing;
+        this.members = List.copyOf(members);
+        this.healthyMembers = this.members;
+    }
+
+    /**
+     * A pooled channel to one engine target.
+     */
+    public static class Member {
+        private final String target;
+        private final String address;
+        private final ManagedChannel channel;
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile boolean healthy = true;
+
+        public Member(String target, ManagedChannel channel) {
+            this(target, target, channel);
+        }
+
+        /**
+         * @param target Configured engine target
+         * @param address Address of the engine instance the target resolved to
+         */
+        public Member(String target, String address, ManagedChannel channel) {
+            this.target = target;
+            this.address = address;
+            this.channel = channel;
+        }
+
+        public String getTarget() { return target; }
+
+        public String getAddress() { return address; }
+
+        public int getInFlight() { return inFlight.get(); }
+
+        public boolean isHealthy() { return healthy; }
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    /**
+     * Replace the pooled channels, shutting down the ones that are no longer part of it.
+     * Members to keep must be passed as the same instances.
+     */
+    public synchronized void replaceMembers(List<Member> updated) {
+        if (updated.isEmpty()) {
+            throw new IllegalArgumentException("At least one engine channel is required");
+        }
+        List<Member> previous = members;
+        members = List.copyOf(updated);
+        refreshHealthyMembers();
+
+        Set<Member> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(members);
+        for (Member member : previous) {
+            if (!kept.contains(member)) {
+                log.info("Testing engine channel to {} ({}) left the pool", member.address, member.target);
+                member.channel.shutdown();
+            }
+        }
+        if (shutdown) {
+            members.forEach(member -> member.channel.shutdown());
+        }
+    }
+
+    /**
+     * Call GetHealth on every channel and mark the ones that don't answer as unhealthy.
+     */
+    public void checkHealth(long timeoutMillis) {
+        boolean changed = false;
+        for (Member member : members) {
+            boolean healthy;
+            try {
+                Testing.HealthResponse response = ApiTestingServiceGrpc.newBlockingStub(member.channel)
+                    .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .getHealth(Testing.HealthRequest.getDefaultInstance());
+                healthy = "healthy".equalsIgnoreCase(response.getStatus());
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy != member.healthy) {
+                log.info("Testing engine channel to {} ({}) is now {}",
+                    member.address, member.target, healthy ? "healthy" : "unhealthy");
+                member.healthy = healthy;
+                changed = true;
+            }
+        }
+        if (changed) {
+            synchronized (this) {
+                refreshHealthyMembers();
+            }
+        }
+    }
+
+    /**
+     * Call GetMetrics on one channel per engine instance, since a call through the pool
+     * only reaches whichever instance it is balanced to. Instances that don't answer are
+     * left out.
+     */
+    public List<Map<String, Long>> collectMetrics(long timeoutMillis) {
+        Set<String> polled = new HashSet<>();
+        List<Map<String, Long>> metrics = new ArrayList<>();
+        for (Member member : members) {
+            if (!polled.add(member.address)) {
+                continue;
+            }
+            try {
+                Testing.MetricsResponse response = ApiTestingServiceGrpc.newBlockingStub(member.channel)
+                    .withDeadlineAfter(timeoutMillis, TimeUnit.MILLISECONDS)
+                    .getMetrics(Testing.MetricsRequest.getDefaultInstance());
+                metrics.add(response.getMetricsMap());
+            } catch (Exception e) {
+                log.debug("Could not poll metrics of testing engine {} ({}): {}", member.address, member.target, e.getMessage());
+            }
+        }
+        return metrics;
+    }
+
+    private void refreshHealthyMembers() {
+        List<Member> healthy = members.stream().filter(member -> member.healthy).toList();
+        // Nothing known to be healthy: let the calls themselves find out
+        healthyMembers = healthy.isEmpty() ? members : healthy;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions) {
+        Member member = pick();
+        member.inFlight.incrementAndGet();
+        AtomicBoolean done = new AtomicBoolean();
+        Runnable finish = () -> {
+            if (done.compareAndSet(false, true)) {
+                member.inFlight.decrementAndGet();
+            }
+        };
+        return new ForwardingClientCall.SimpleForwardingClientCall<>(member.channel.newCall(method, callOptions)) {
+            @Override
+            public void start(Listener<RespT> responseListener, Metadata headers) {
+                super.start(new ForwardingClientCallListener.SimpleForwardingClientCallListener<>(responseListener) {
+                    @Override
+                    public void onClose(Status status, Metadata trailers) {
+                        finish.run();
+                        super.onClose(status, trailers);
+                    }
+                }, headers);
+            }
+
+            @Override
+            public void cancel(String message, Throwable cause) {
+                finish.run();
+                super.cancel(message, cause);
+            }
+        };
+    }
+
+    private Member pick() {
+        List<Member> candidates = healthyMembers;
+        if (balancing == Balancing.LEAST_REQUEST) {
+            Member least = candidates.get(0);
+            for (Member member : candidates) {
+                if (member.inFlight.get() < least.inFlight.get()) {
+                    least = member;
+                }
+            }
+            return least;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Override
+    public String authority() {
+        return members.get(0).channel.authority();
+    }
+
+    @Override
+    public synchronized ManagedChannel shutdown() {
+        shutdown = true;
+        members.forEach(member -> member.channel.shutdown());
+        return this;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return members.stream().allMatch(member -> member.channel.isShutdown());
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return members.stream().allMatch(member -> member.channel.isTerminated());
+    }
+
+    @Override
+    public synchronized ManagedChannel shutdownNow() {
+        shutdown = true;
+        members.forEach(member -> member.channel.shutdownNow());
+        return this;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Member member : members) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0 || !member.channel.awaitTermination(remaining, TimeUnit.NANOSECONDS)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -5,6 +5,11 @@ import com.pingpad.modules.api_testing.events.ApiEndpointDeletedEvent;
 import com.pingpad.modules.api_testing.events.ApiEndpointUpdatedEvent;
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjectionRepository;
+import com.pingpad.modules.api_testing.repositories.AlarmIncidentRepository;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmRepository;
+import com.pingpad.modules.api_testing.services.IncidentDetector;
+import com.pingpad.modules.api_testing.services.LatencyRollupService;
+import com.pingpad.modules.api_testing.services.RequestTemplateCache;
 import com.pingpad.modules.eventsourcing.core.Event;
 import com.pingpad.modules.cache.services.CacheService;
 import jakarta.transaction.Transactional;
@@ -25,6 +30,11 @@ public class ApiEndpointEventHandler {
 
     private final ApiEndpointProjectionRepository projectionRepository;
     private final CacheService cacheService;
+    private final OpenAlarmRepository openAlarmRepository;
+    private final AlarmIncidentRepository incidentRepository;
+    private final IncidentDetector incidentDetector;
+    private final RequestTemplateCache requestTemplates;
+    private final LatencyRollupService latencyRollupService;
 
     private static final String CACHE_KEY_PREFIX = "endpoint:";
     private static final String CACHE_KEY_USER_PREFIX = "endpoint:user:";
@@ -100,6 +110,7 @@ public class ApiEndpointEventHandler {
             // Write-Through: Update cache immediately after DB write
             // This ensures subsequent reads get the updated data from cache without a DB hit
             cacheService.put(CACHE_KEY_PREFIX + endpointId, projection);
+            requestTemplates.evict(endpointId);
             
             // Invalidate user's endpoint list cache since it's now stale
             cacheService.delete(CACHE_KEY_USER_PREFIX + projection.getUserId());
@@ -118,6 +129,13 @@ public class ApiEndpointEventHandler {
         projectionRepository.findById(endpointId).ifPresent(projection -> {
             Long userId = projection.getUserId();
             projectionRepository.deleteById(endpointId);
+
+            // Alarms of a deleted endpoint are no longer shown, so drop them from the open alarm index
+            openAlarmRepository.deleteByEndpointId(endpointId);
+            incidentRepository.deleteByEndpointId(endpointId);
+            incidentDetector.evict(endpointId);
+            requestTemplates.evict(endpointId);
+            latencyRollupService.evict(endpointId);
             
             // Delete from cache (Write-Through for deletes: remove from cache immediately)
             cacheService.delete(CACHE_KEY_PREFIX + endpointId);
@@ -0,0 +1,69 @@
+package com.pingpad.modules.api_testing.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A run of consecutive failures of one endpoint.
+ * Opened by the first failure, extended by each further failure and
+ * resolved by the next successful result.
+ */
+@Entity
+@Table(name = "alarm_incidents")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlarmIncident {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "endpoint_id", nullable = false)
+    private UUID endpointId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "first_seen", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime firstSeen;
+
+    @Column(name = "last_seen", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime lastSeen;
+
+    @Column(name = "failure_count", nullable = false)
+    private Long failureCount;
+
+    @Column(name = "first_result_id")
+    private Long firstResultId;
+
+    @Column(name = "last_result_id")
+    private Long lastResultId;
+
+    @Column(name = "last_status_code")
+    private Integer lastStatusCode;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(name = "resolved_at")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime resolvedAt;
+
+    @Column(name = "acknowledged_at")
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime acknowledgedAt;
+
+    public boolean isOpen() {
+        return resolvedAt == null;
+    }
+}
@@ -1,5 +1,6 @@
 package com.pingpad.modules.api_testing.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.pingpad.modules.user_management.models.User;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
@@ -28,6 +29,7 @@ public class ApiKey {
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
     private User user;
 
     @Column(nullable = false, length = 255)
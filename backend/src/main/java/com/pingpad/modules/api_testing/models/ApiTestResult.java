@@ -8,7 +8,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.UUID;
 
@@ -37,11 +41,31 @@ public class ApiTestResult {
     @Column(name = "response_time")
     private Long responseTime;
 
-    @Column(name = "response_body", columnDefinition = "TEXT")
+    // Legacy inline body column; new bodies live in response_bodies (see responseBodyHash).
+    // Still read so results written before the split remain visible.
+    @Column(name = "response_body", columnDefinition = "TEXT", insertable = false, updatable = false)
     private String responseBody;
 
-    @Column(name = "response_headers", columnDefinition = "TEXT")
-    private String responseHeaders;
+    @Column(name = "response_body_hash", length = 64)
+    @JsonIgnore
+    private String responseBodyHash;
+
+    @Column(name = "response_body_size")
+    private Integer responseBodySize;
+
+    @Column(name = "response_body_truncated")
+    private Boolean responseBodyTruncated;
+
+    // Response headers as a JSON map (jsonb on PostgreSQL), stored as received from the engine.
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "response_header_map")
+    private Map<String, String> responseHeaders;
+
+    // Legacy "Name: value" lines; V14 moved them into response_header_map.
+    // Still read so results written by older instances during a rollout keep their headers.
+    @Column(name = "response_headers", columnDefinition = "TEXT", insertable = false, updatable = false)
+    @JsonIgnore
+    private String legacyResponseHeaders;
 
     @Column(columnDefinition = "TEXT")
     private String error;
@@ -60,12 +84,20 @@ public class ApiTestResult {
         }
     }
 
-    // Helper method to set response headers from Map
-    public void setResponseHeaders(Map<String, String> headers) {
-        if (headers != null && !headers.isEmpty()) {
-            StringBuilder sb = new StringBuilder();
-            headers.forEach((key, value) -> sb.append(key).append(": ").append(value).append("\n"));
-            this.responseHeaders = sb.toString().trim();
+    /**
+     * Response headers by name; legacy header lines are only parsed when asked for.
+     */
+    public Map<String, String> getResponseHeaders() {
+        if (responseHeaders == null && legacyResponseHeaders != null) {
+            Map<String, String> parsed = new LinkedHashMap<>();
+            for (String line : legacyResponseHeaders.split("\n")) {
+                String[] parts = line.split(":", 2);
+                if (parts.length == 2) {
+                    parsed.put(parts[0].trim(), parts[1].trim());
+                }
+            }
+            responseHeaders = parsed;
         }
+        return responseHeaders;
     }
 }
@@ -0,0 +1,26 @@
+package com.pingpad.modules.api_testing.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Lightweight read model of a test result containing only the fields needed for charts.
+ * Loaded via a JPQL constructor expression so response bodies and headers are never fetched.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApiTestResultSummary {
+    private Long id;
+
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime timestamp;
+
+    private Integer statusCode;
+    private Long responseTime;
+    private Boolean success;
+}
@@ -0,0 +1,204 @@
+package com.pingpad.modules.api_testing.models;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Compact, mergeable latency histogram (HDR-style log-linear buckets).
+ *
+ * Values are recorded in milliseconds. Values below 128ms are tracked exactly;
+ * above that every power-of-two range is split into 64 linear sub-buckets, which
+ * keeps the relative error of any reported percentile below ~1.6%.
+ * Histograms from different rollup buckets or endpoints can be merged by adding counts.
+ */
+public class LatencyHistogram {
+    private static final byte FORMAT_VERSION = 1;
+    private static final int SUB_BUCKET_COUNT = 128;
+    private static final int SUB_BUCKET_HALF = SUB_BUCKET_COUNT / 2;
+    private static final int SUB_BUCKET_HALF_BITS = 6;
+
+    // Latencies above one hour are clamped; the engine times out long before that
+    public static final long MAX_TRACKABLE_VALUE = 3_600_000L;
+
+    private long[] counts = new long[SUB_BUCKET_COUNT];
+    private long totalCount;
+    private long sum;
+    private long min = Long.MAX_VALUE;
+    private long max;
+
+    /**
+     * Record a single latency value (in milliseconds).
+     */
+    public void record(long valueMs) {
+        recordCount(valueMs, 1);
+    }
+
+    private void recordCount(long valueMs, long count) {
+        long value = Math.max(0, Math.min(valueMs, MAX_TRACKABLE_VALUE));
+        int index = indexFor(value);
+        ensureCapacity(index + 1);
+        counts[index] += count;
+        totalCount += count;
+        sum += value * count;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Merge another histogram into this one.
+     */
+    public void merge(LatencyHistogram other) {
+        if (other == null || other.totalCount == 0) {
+            return;
+        }
+        ensureCapacity(other.counts.length);
+        for (int i = 0; i < other.counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Get the value at the given percentile (0-100).
+     * Returns the highest value equivalent to the bucket the percentile falls into,
+     * so tail latencies are never under-reported.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        double clamped = Math.max(0.0, Math.min(percentile, 100.0));
+        long target = Math.max(1, (long) Math.ceil((clamped / 100.0) * totalCount));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), max);
+            }
+        }
+        return max;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public long getMin() {
+        return totalCount == 0 ? 0 : min;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public double getMean() {
+        return totalCount == 0 ? 0.0 : (double) sum / totalCount;
+    }
+
+    public boolean isEmpty() {
+        return totalCount == 0;
+    }
+
+    /**
+     * Serialise to a compact byte array: only non-zero buckets are written,
+     * as (index delta, count) varint pairs.
+     */
+    public byte[] toBytes() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(32);
+        out.write(FORMAT_VERSION);
+        writeVarLong(out, totalCount);
+        if (totalCount == 0) {
+            return out.toByteArray();
+        }
+        writeVarLong(out, sum);
+        writeVarLong(out, min);
+        writeVarLong(out, max);
+        int previousIndex = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] != 0) {
+                writeVarLong(out, i - previousIndex);
+                writeVarLong(out, counts[i]);
+                previousIndex = i;
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Deserialise a histogram previously produced by {@link #toBytes()}.
+     */
+    public static LatencyHistogram fromBytes(byte[] bytes) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        if (bytes == null || bytes.length == 0) {
+            return histogram;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported latency histogram format: " + version);
+        }
+        long total = readVarLong(buffer);
+        if (total == 0) {
+            return histogram;
+        }
+        histogram.sum = readVarLong(buffer);
+        histogram.min = readVarLong(buffer);
+        histogram.max = readVarLong(buffer);
+        int index = 0;
+        while (buffer.hasRemaining()) {
+            index += (int) readVarLong(buffer);
+            long count = readVarLong(buffer);
+            histogram.ensureCapacity(index + 1);
+            histogram.counts[index] += count;
+        }
+        histogram.totalCount = total;
+        return histogram;
+    }
+
+    static int indexFor(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_HALF_BITS;
+        return SUB_BUCKET_HALF * (shift + 1) + (int) ((value >> shift) - SUB_BUCKET_HALF);
+    }
+
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF - 1;
+        long subBucket = (index % SUB_BUCKET_HALF) + SUB_BUCKET_HALF;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    private void ensureCapacity(int length) {
+        if (counts.length < length) {
+            counts = Arrays.copyOf(counts, Math.max(length, counts.length + SUB_BUCKET_HALF));
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long result = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            result |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return result;
+    }
+}
@@ -0,0 +1,41 @@
+package com.pingpad.modules.api_testing.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Hourly latency rollup for an endpoint.
+ * Stores a serialised {@link LatencyHistogram} so percentiles can be computed
+ * over long ranges without scanning raw test results.
+ */
+@Entity
+@Table(name = "latency_rollups", uniqueConstraints = {
+    @UniqueConstraint(columnNames = {"endpoint_id", "bucket_start"})
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LatencyRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "endpoint_id", nullable = false)
+    private UUID endpointId;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "sample_count", nullable = false)
+    private Long sampleCount;
+
+    @Column(name = "histogram", nullable = false, columnDefinition = "BYTEA")
+    private byte[] histogram;
+}
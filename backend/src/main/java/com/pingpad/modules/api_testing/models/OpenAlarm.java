@@ -0,0 +1,44 @@
+package com.pingpad.modules.api_testing.models;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * An unacknowledged alarm (failed test result) for the endpoint owner.
+ * Maintained incrementally as results are written and alarms acknowledged,
+ * with the fields needed to render the alarm list denormalised from the result.
+ */
+@Entity
+@Table(name = "open_alarms")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenAlarm {
+    @Id
+    @Column(name = "test_result_id")
+    private Long testResultId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "endpoint_id", nullable = false)
+    private UUID endpointId;
+
+    @Column(name = "status_code")
+    private Integer statusCode;
+
+    @Column(columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "occurred_at", nullable = false)
+    @JsonFormat(pattern = "yyyy-MM-dd'T'HH:mm:ss")
+    private LocalDateTime occurredAt;
+}
@@ -0,0 +1,25 @@
+package com.pingpad.modules.api_testing.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-user count of open alarms, kept in step with open_alarms.
+ */
+@Entity
+@Table(name = "open_alarm_counts")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OpenAlarmCount {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "open_count", nullable = false)
+    private Long openCount;
+}
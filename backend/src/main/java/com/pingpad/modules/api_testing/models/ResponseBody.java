@@ -0,0 +1,47 @@
+package com.pingpad.modules.api_testing.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed, compressed response body.
+ * Test results reference bodies by hash so identical payloads are stored once.
+ */
+@Entity
+@Table(name = "response_bodies")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResponseBody {
+    public static final String ENCODING_IDENTITY = "identity";
+    public static final String ENCODING_DEFLATE = "deflate";
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, length = 16)
+    private String encoding;
+
+    @Column(name = "original_size", nullable = false)
+    private Integer originalSize;
+
+    @Column(nullable = false, columnDefinition = "BYTEA")
+    private byte[] content;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+}
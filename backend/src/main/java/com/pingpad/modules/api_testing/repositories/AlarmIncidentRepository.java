@@ -0,0 +1,52 @@
+package com.pingpad.modules.api_testing.repositories;
+
+import com.pingpad.modules.api_testing.models.AlarmIncident;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AlarmIncidentRepository extends JpaRepository<AlarmIncident, Long> {
+    @Query("SELECT i FROM AlarmIncident i WHERE i.endpointId = :endpointId AND i.resolvedAt IS NULL")
+    Optional<AlarmIncident> findOpenByEndpointId(@Param("endpointId") UUID endpointId);
+
+    @Modifying
+    @Query("UPDATE AlarmIncident i SET i.failureCount = i.failureCount + 1, i.lastSeen = :timestamp, " +
+           "i.lastResultId = :resultId, i.lastStatusCode = :statusCode, i.lastError = :error " +
+           "WHERE i.id = :id AND i.resolvedAt IS NULL")
+    int recordFailure(
+        @Param("id") Long id,
+        @Param("timestamp") LocalDateTime timestamp,
+        @Param("resultId") Long resultId,
+        @Param("statusCode") Integer statusCode,
+        @Param("error") String error
+    );
+
+    @Modifying
+    @Query("UPDATE AlarmIncident i SET i.resolvedAt = :timestamp WHERE i.endpointId = :endpointId AND i.resolvedAt IS NULL")
+    int resolveOpen(@Param("endpointId") UUID endpointId, @Param("timestamp") LocalDateTime timestamp);
+
+    @Query("SELECT i FROM AlarmIncident i WHERE i.userId = :userId ORDER BY i.lastSeen DESC, i.id DESC")
+    List<AlarmIncident> findByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT i FROM AlarmIncident i WHERE i.userId = :userId AND i.resolvedAt IS NULL ORDER BY i.lastSeen DESC, i.id DESC")
+    List<AlarmIncident> findOpenByUser(@Param("userId") Long userId, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE AlarmIncident i SET i.acknowledgedAt = :timestamp WHERE i.id = :id AND i.acknowledgedAt IS NULL")
+    int markAcknowledged(@Param("id") Long id, @Param("timestamp") LocalDateTime timestamp);
+
+    @Modifying
+    @Query("DELETE FROM AlarmIncident i WHERE i.endpointId = :endpointId")
+    int deleteByEndpointId(@Param("endpointId") UUID endpointId);
+
+    @Modifying
+    @Query("DELETE FROM AlarmIncident i WHERE i.resolvedAt IS NOT NULL AND i.resolvedAt < :cutoff")
+    int deleteResolvedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,6 +1,8 @@
 package com.pingpad.modules.api_testing.repositories;
 
 import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.models.ApiTestResultSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -31,4 +33,26 @@ public interface ApiTestResultRepository extends JpaRepository<ApiTestResult, Lo
         @Param("endpointIds") Set<UUID> endpointIds,
         @Param("startTime") LocalDateTime startTime
     );
+
+    @Query("SELECT new com.pingpad.modules.api_testing.models.ApiTestResultSummary(r.id, r.timestamp, r.statusCode, r.responseTime, r.success) " +
+           "FROM ApiTestResult r WHERE r.endpointId = :endpointId AND r.timestamp >= :startTime AND r.timestamp <= :endTime " +
+           "ORDER BY r.timestamp DESC, r.id DESC")
+    List<ApiTestResultSummary> findSummaries(
+        @Param("endpointId") UUID endpointId,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime,
+        Pageable pageable
+    );
+
+    @Query("SELECT new com.pingpad.modules.api_testing.models.ApiTestResultSummary(r.id, r.timestamp, r.statusCode, r.responseTime, r.success) " +
+           "FROM ApiTestResult r WHERE r.endpointId = :endpointId AND r.timestamp >= :startTime " +
+           "AND (r.timestamp < :cursorTimestamp OR (r.timestamp = :cursorTimestamp AND r.id < :cursorId)) " +
+           "ORDER BY r.timestamp DESC, r.id DESC")
+    List<ApiTestResultSummary> findSummariesBefore(
+        @Param("endpointId") UUID endpointId,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
 }
@@ -0,0 +1,43 @@
+package com.pingpad.modules.api_testing.repositories;
+
+import com.pingpad.modules.api_testing.models.LatencyRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface LatencyRollupRepository extends JpaRepository<LatencyRollup, Long> {
+    @Modifying
+    @Query(value = "INSERT INTO latency_rollups (endpoint_id, bucket_start, sample_count, histogram) " +
+                   "VALUES (:endpointId, :bucketStart, 0, :histogram) " +
+                   "ON CONFLICT (endpoint_id, bucket_start) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(
+        @Param("endpointId") UUID endpointId,
+        @Param("bucketStart") LocalDateTime bucketStart,
+        @Param("histogram") byte[] histogram
+    );
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM LatencyRollup r WHERE r.endpointId = :endpointId AND r.bucketStart = :bucketStart")
+    Optional<LatencyRollup> findForUpdate(
+        @Param("endpointId") UUID endpointId,
+        @Param("bucketStart") LocalDateTime bucketStart
+    );
+
+    @Query("SELECT r FROM LatencyRollup r WHERE r.endpointId IN :endpointIds " +
+           "AND r.bucketStart >= :startTime AND r.bucketStart <= :endTime")
+    List<LatencyRollup> findByEndpointIdInAndBucketStartBetween(
+        @Param("endpointIds") Collection<UUID> endpointIds,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+}
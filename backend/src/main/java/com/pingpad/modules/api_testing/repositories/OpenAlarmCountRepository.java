@@ -0,0 +1,24 @@
+package com.pingpad.modules.api_testing.repositories;
+
+import com.pingpad.modules.api_testing.models.OpenAlarmCount;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OpenAlarmCountRepository extends JpaRepository<OpenAlarmCount, Long> {
+    @Modifying
+    @Query(value = "INSERT INTO open_alarm_counts (user_id, open_count) VALUES (:userId, GREATEST(:delta, 0)) " +
+                   "ON CONFLICT (user_id) DO UPDATE SET open_count = GREATEST(open_alarm_counts.open_count + :delta, 0)",
+           nativeQuery = true)
+    int increment(@Param("userId") Long userId, @Param("delta") long delta);
+
+    /**
+     * Recompute every user's count from open_alarms (self-heals any drift, e.g. from cascaded deletes).
+     */
+    @Modifying
+    @Query(value = "UPDATE open_alarm_counts c SET open_count = " +
+                   "(SELECT COUNT(*) FROM open_alarms a WHERE a.user_id = c.user_id)",
+           nativeQuery = true)
+    int recomputeAll();
+}
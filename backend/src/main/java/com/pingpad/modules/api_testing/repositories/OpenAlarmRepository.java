@@ -0,0 +1,107 @@
+package com.pingpad.modules.api_testing.repositories;
+
+import com.pingpad.modules.api_testing.models.OpenAlarm;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OpenAlarmRepository extends JpaRepository<OpenAlarm, Long> {
+    @Modifying
+    @Query(value = "INSERT INTO open_alarms (test_result_id, user_id, endpoint_id, status_code, error, occurred_at) " +
+                   "VALUES (:testResultId, :userId, :endpointId, :statusCode, :error, :occurredAt) " +
+                   "ON CONFLICT (test_result_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(
+        @Param("testResultId") Long testResultId,
+        @Param("userId") Long userId,
+        @Param("endpointId") UUID endpointId,
+        @Param("statusCode") Integer statusCode,
+        @Param("error") String error,
+        @Param("occurredAt") LocalDateTime occurredAt
+    );
+
+    @Query("SELECT a FROM OpenAlarm a WHERE a.userId = :userId ORDER BY a.occurredAt DESC, a.testResultId DESC")
+    List<OpenAlarm> findPage(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("SELECT a FROM OpenAlarm a WHERE a.userId = :userId " +
+           "AND (a.occurredAt < :cursorTimestamp OR (a.occurredAt = :cursorTimestamp AND a.testResultId < :cursorId)) " +
+           "ORDER BY a.occurredAt DESC, a.testResultId DESC")
+    List<OpenAlarm> findPageBefore(
+        @Param("userId") Long userId,
+        @Param("cursorTimestamp") LocalDateTime cursorTimestamp,
+        @Param("cursorId") Long cursorId,
+        Pageable pageable
+    );
+
+    /**
+     * Remove all open alarms of an endpoint and decrement the owners' counts in one statement.
+     */
+    @Modifying
+    @Query(value = "WITH removed AS (DELETE FROM open_alarms WHERE endpoint_id = :endpointId RETURNING user_id) " +
+                   "UPDATE open_alarm_counts c SET open_count = GREATEST(c.open_count - r.removed_count, 0) " +
+                   "FROM (SELECT user_id, COUNT(*) AS removed_count FROM removed GROUP BY user_id) r " +
+                   "WHERE c.user_id = r.user_id",
+           nativeQuery = true)
+    int deleteByEndpointId(@Param("endpointId") UUID endpointId);
+
+    /*
+     * Bulk acknowledgement runs as a single statement: the selected open alarms are locked,
+     * recorded in acknowledged_alarms, subtracted from the user's count and deleted. The
+     * statement ends in the DELETE so its update count is the number of acknowledged alarms.
+     * Each query only supplies the "acked" selection.
+     */
+    String ACKNOWLEDGE_SELECTED = "    FOR UPDATE" +
+        "), inserted AS (" +
+        "    INSERT INTO acknowledged_alarms (endpoint_id, test_result_id, user_id, acknowledged_at) " +
+        "    SELECT endpoint_id, test_result_id, user_id, CURRENT_TIMESTAMP FROM acked " +
+        "    ON CONFLICT DO NOTHING" +
+        "), counted AS (" +
+        "    UPDATE open_alarm_counts SET open_count = GREATEST(open_count - (SELECT COUNT(*) FROM acked), 0) " +
+        "    WHERE user_id = :userId" +
+        ") DELETE FROM open_alarms WHERE test_result_id IN (SELECT test_result_id FROM acked)";
+
+    @Modifying
+    @Query(value = "WITH acked AS (" +
+                   "    SELECT test_result_id, endpoint_id, user_id FROM open_alarms WHERE user_id = :userId AND test_result_id IN (:testResultIds) " +
+                   ACKNOWLEDGE_SELECTED,
+           nativeQuery = true)
+    int acknowledgeByIds(@Param("userId") Long userId, @Param("testResultIds") Collection<Long> testResultIds);
+
+    @Modifying
+    @Query(value = "WITH acked AS (" +
+                   "    SELECT test_result_id, endpoint_id, user_id FROM open_alarms WHERE user_id = :userId AND endpoint_id = :endpointId " +
+                   ACKNOWLEDGE_SELECTED,
+           nativeQuery = true)
+    int acknowledgeByEndpoint(@Param("userId") Long userId, @Param("endpointId") UUID endpointId);
+
+    @Modifying
+    @Query(value = "WITH acked AS (" +
+                   "    SELECT test_result_id, endpoint_id, user_id FROM open_alarms WHERE user_id = :userId AND occurred_at < :before " +
+                   ACKNOWLEDGE_SELECTED,
+           nativeQuery = true)
+    int acknowledgeBefore(@Param("userId") Long userId, @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query(value = "WITH acked AS (" +
+                   "    SELECT test_result_id, endpoint_id, user_id FROM open_alarms WHERE user_id = :userId AND endpoint_id = :endpointId " +
+                   "    AND occurred_at >= :fromTime AND occurred_at <= :toTime " +
+                   ACKNOWLEDGE_SELECTED,
+           nativeQuery = true)
+    int acknowledgeEndpointRange(
+        @Param("userId") Long userId,
+        @Param("endpointId") UUID endpointId,
+        @Param("fromTime") LocalDateTime fromTime,
+        @Param("toTime") LocalDateTime toTime
+    );
+
+    @Modifying
+    @Query("DELETE FROM OpenAlarm a WHERE a.occurredAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
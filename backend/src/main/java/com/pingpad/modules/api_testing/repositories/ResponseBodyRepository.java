@@ -0,0 +1,23 @@
+package com.pingpad.modules.api_testing.repositories;
+
+import com.pingpad.modules.api_testing.models.ResponseBody;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface ResponseBodyRepository extends JpaRepository<ResponseBody, String> {
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO response_bodies (hash, encoding, original_size, content, created_at) " +
+                   "VALUES (:hash, :encoding, :originalSize, :content, CURRENT_TIMESTAMP) " +
+                   "ON CONFLICT (hash) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(
+        @Param("hash") String hash,
+        @Param("encoding") String encoding,
+        @Param("originalSize") int originalSize,
+        @Param("content") byte[] content
+    );
+}
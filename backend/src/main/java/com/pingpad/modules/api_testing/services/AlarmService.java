@@ -1,84 +1,118 @@
 package com.pingpad.modules.api_testing.services;
 
 import com.pingpad.modules.api_testing.models.AcknowledgedAlarm;
+import com.pingpad.modules.api_testing.models.AlarmIncident;
 import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.models.OpenAlarm;
+import com.pingpad.modules.api_testing.models.OpenAlarmCount;
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
 import com.pingpad.modules.api_testing.repositories.AcknowledgedAlarmRepository;
+import com.pingpad.modules.api_testing.repositories.AlarmIncidentRepository;
 import com.pingpad.modules.api_testing.repositories.ApiTestResultRepository;
-import com.pingpad.modules.api_testing.services.ApiEndpointService;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmCountRepository;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmRepository;
 import com.pingpad.modules.user_management.models.User;
 import com.pingpad.modules.user_management.repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Service for managing alarms (errors from endpoint tests).
+ *
+ * Unacknowledged alarms are kept in the open_alarms table, which is updated when
+ * failed results are written and when alarms are acknowledged, so listing is a
+ * single index range scan and counting is a primary key lookup. Only the failure
+ * that opens an incident is recorded; later failures of the same outage extend the
+ * incident instead (see IncidentDetector).
  */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class AlarmService {
-    
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int BULK_ACKNOWLEDGE_BATCH_SIZE = 1000;
+
     private final ApiTestResultRepository testResultRepository;
     private final AcknowledgedAlarmRepository acknowledgedAlarmRepository;
+    private final OpenAlarmRepository openAlarmRepository;
+    private final OpenAlarmCountRepository openAlarmCountRepository;
+    private final AlarmIncidentRepository incidentRepository;
     private final ApiEndpointService apiEndpointService;
     private final UserRepository userRepository;
+    private final ResultStreamService resultStreamService;
+
+    @Value("${api.testing.alarms.retention:P7D}")
+    private Duration alarmRetention = Duration.ofDays(7);
 
     /**
-     * Get all unacknowledged alarms (errors) for the current user.
-     * Returns test results that have success=false and haven't been acknowledged.
+     * Record a failed test result as an open alarm for the endpoint owner.
+     * Called for the failure that opens an incident.
+     */
+    @Transactional
+    public void recordFailure(ApiTestResult result, Long ownerId) {
+        if (result == null || result.getId() == null || ownerId == null || Boolean.TRUE.equals(result.getSuccess())) {
+            return;
+        }
+        int inserted = openAlarmRepository.insertIfAbsent(result.getId(), ownerId, result.getEndpointId(),
+            result.getStatusCode(), result.getError(), result.getTimestamp());
+        if (inserted > 0) {
+            openAlarmCountRepository.increment(ownerId, 1);
+            publishAfterCommit(ownerId, 1);
+        }
+    }
+
+    /**
+     * Get all unacknowledged alarms (errors) for the current user, newest first.
      */
     public List<AlarmInfo> getUnacknowledgedAlarms(Long userId) {
-        // Get all endpoints for the user
-        List<ApiEndpointProjection> endpoints = apiEndpointService.getEndpointsByUser(userId);
-        Set<UUID> endpointIds = endpoints.stream()
-            .map(ApiEndpointProjection::getId)
-            .collect(Collectors.toSet());
-
-        if (endpointIds.isEmpty()) {
-            return List.of();
+        return toAlarmInfos(openAlarmRepository.findPage(userId, Pageable.unpaged()));
+    }
+
+    /**
+     * Get a page of unacknowledged alarms, newest first.
+     * Pass the nextCursor of the previous page to continue.
+     */
+    public AlarmPage getUnacknowledgedAlarmPage(Long userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        PageRequest pageRequest = PageRequest.ofSize(pageSize + 1);
+
+        List<OpenAlarm> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = openAlarmRepository.findPage(userId, pageRequest);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            rows = openAlarmRepository.findPageBefore(userId, pageCursor.timestamp(), pageCursor.id(), pageRequest);
         }
 
-        // Get all failed test results for user's endpoints (last 7 days)
-        LocalDateTime sevenDaysAgo = LocalDateTime.now().minusDays(7);
-        List<ApiTestResult> failedResults = testResultRepository.findByEndpointIdInAndSuccessFalseAndTimestampAfter(
-            endpointIds, sevenDaysAgo
-        );
-
-        // Get all acknowledged test result IDs for this user
-        Set<Long> acknowledgedTestResultIds = acknowledgedAlarmRepository.findByUserId(userId)
-            .stream()
-            .map(AcknowledgedAlarm::getTestResultId)
-            .collect(Collectors.toSet());
-
-        // Filter out acknowledged alarms and map to AlarmInfo
-        Map<UUID, ApiEndpointProjection> endpointMap = endpoints.stream()
-            .collect(Collectors.toMap(ApiEndpointProjection::getId, e -> e));
-
-        return failedResults.stream()
-            .filter(result -> !acknowledgedTestResultIds.contains(result.getId()))
-            .map(result -> {
-                ApiEndpointProjection endpoint = endpointMap.get(result.getEndpointId());
-                return AlarmInfo.builder()
-                    .testResultId(result.getId())
-                    .endpointId(result.getEndpointId())
-                    .endpointName(endpoint != null ? endpoint.getName() : "Unknown")
-                    .endpointUrl(endpoint != null ? endpoint.getUrl() : "")
-                    .error(result.getError())
-                    .statusCode(result.getStatusCode())
-                    .timestamp(result.getTimestamp())
-                    .build();
-            })
-            .collect(Collectors.toList());
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            OpenAlarm last = rows.get(rows.size() - 1);
+            nextCursor = new PageCursor(last.getOccurredAt(), last.getTestResultId()).encode();
+        }
+
+        return AlarmPage.builder()
+            .items(toAlarmInfos(rows))
+            .nextCursor(nextCursor)
+            .build();
     }
 
     /**
@@ -86,7 +120,13 @@ public class AlarmService {
      */
     @Transactional
     public void acknowledgeAlarm(Long userId, Long testResultId) {
-        // Check if already acknowledged
+        // Open alarms (the common case) are acknowledged in a single statement
+        if (acknowledgeAlarms(userId, List.of(testResultId)) > 0) {
+            log.info("Alarm {} acknowledged by user {}", testResultId, userId);
+            return;
+        }
+
+        // Not an open alarm: already acknowledged, or a result outside the open alarm window
         if (acknowledgedAlarmRepository.existsByUserIdAndTestResultId(userId, testResultId)) {
             log.debug("Alarm {} already acknowledged by user {}", testResultId, userId);
             return;
@@ -111,11 +151,150 @@ public class AlarmService {
         log.info("Alarm {} acknowledged by user {}", testResultId, userId);
     }
 
+    /**
+     * Acknowledge a list of open alarms.
+     *
+     * @return Number of alarms acknowledged
+     */
+    @Transactional
+    public long acknowledgeAlarms(Long userId, Collection<Long> testResultIds) {
+        if (testResultIds == null || testResultIds.isEmpty()) {
+            return 0;
+        }
+        // Keep the IN list well within the bind parameter limit
+        List<Long> ids = List.copyOf(new LinkedHashSet<>(testResultIds));
+        long acknowledged = 0;
+        for (int from = 0; from < ids.size(); from += BULK_ACKNOWLEDGE_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + BULK_ACKNOWLEDGE_BATCH_SIZE, ids.size()));
+            acknowledged += openAlarmRepository.acknowledgeByIds(userId, batch);
+        }
+        return published(userId, acknowledged);
+    }
+
+    /**
+     * Acknowledge all open alarms of an endpoint.
+     *
+     * @return Number of alarms acknowledged
+     */
+    @Transactional
+    public long acknowledgeEndpointAlarms(Long userId, UUID endpointId) {
+        return published(userId, openAlarmRepository.acknowledgeByEndpoint(userId, endpointId));
+    }
+
+    /**
+     * Acknowledge all open alarms that occurred before a point in time.
+     *
+     * @return Number of alarms acknowledged
+     */
+    @Transactional
+    public long acknowledgeAlarmsBefore(Long userId, LocalDateTime before) {
+        return published(userId, openAlarmRepository.acknowledgeBefore(userId, before));
+    }
+
+    /**
+     * Get a page of alarm incidents for the user, most recently active first.
+     *
+     * @param openOnly Only return incidents that haven't been resolved yet
+     */
+    public List<AlarmIncident> getIncidents(Long userId, boolean openOnly, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(0, page), Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+        return openOnly
+            ? incidentRepository.findOpenByUser(userId, pageRequest)
+            : incidentRepository.findByUser(userId, pageRequest);
+    }
+
+    /**
+     * Acknowledge an incident, and with it every open alarm it covers.
+     *
+     * @return Number of alarms acknowledged
+     */
+    @Transactional
+    public long acknowledgeIncident(Long userId, Long incidentId) {
+        AlarmIncident incident = incidentRepository.findById(incidentId)
+            .filter(i -> userId.equals(i.getUserId()))
+            .orElseThrow(() -> new IllegalArgumentException("Incident not found: " + incidentId));
+
+        LocalDateTime now = LocalDateTime.now();
+        incidentRepository.markAcknowledged(incidentId, now);
+
+        // An incident that is still open covers everything up to now
+        LocalDateTime until = incident.isOpen() ? now : incident.getLastSeen();
+        long acknowledged = published(userId, openAlarmRepository.acknowledgeEndpointRange(
+            userId, incident.getEndpointId(), incident.getFirstSeen(), until));
+        log.info("Incident {} acknowledged by user {} ({} alarm(s))", incidentId, userId, acknowledged);
+        return acknowledged;
+    }
+
     /**
      * Get count of unacknowledged alarms for the user.
      */
     public long getUnacknowledgedAlarmCount(Long userId) {
-        return getUnacknowledgedAlarms(userId).size();
+        return openAlarmCountRepository.findById(userId)
+            .map(OpenAlarmCount::getOpenCount)
+            .orElse(0L);
+    }
+
+    /**
+     * Drop open alarms and resolved incidents older than the retention window
+     * and re-sync the per-user counts.
+     * Runs hourly by default (configurable).
+     */
+    @Scheduled(initialDelayString = "${api.testing.alarms.prune-interval:PT1H}",
+               fixedDelayString = "${api.testing.alarms.prune-interval:PT1H}")
+    @Transactional
+    public void pruneExpiredAlarms() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(alarmRetention);
+        int pruned = openAlarmRepository.deleteOlderThan(cutoff);
+        openAlarmCountRepository.recomputeAll();
+        incidentRepository.deleteResolvedBefore(cutoff);
+        if (pruned > 0) {
+            log.info("Pruned {} expired open alarm(s)", pruned);
+        }
+    }
+
+    private long published(Long userId, long acknowledged) {
+        if (acknowledged > 0) {
+            publishAfterCommit(userId, -acknowledged);
+        }
+        return acknowledged;
+    }
+
+    /**
+     * Push an alarm count change once the surrounding transaction commits, so clients
+     * that refetch on it see the new count and rolled back changes are never announced.
+     */
+    private void publishAfterCommit(Long userId, long delta) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            resultStreamService.publishAlarmDelta(userId, delta);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                resultStreamService.publishAlarmDelta(userId, delta);
+            }
+        });
+    }
+
+    private List<AlarmInfo> toAlarmInfos(List<OpenAlarm> alarms) {
+        // Resolve all distinct endpoints in one batch
+        Map<UUID, ApiEndpointProjection> endpointMap = apiEndpointService.getEndpoints(
+            alarms.stream().map(OpenAlarm::getEndpointId).collect(Collectors.toSet()));
+
+        return alarms.stream()
+            .map(alarm -> {
+                ApiEndpointProjection endpoint = endpointMap.get(alarm.getEndpointId());
+                return AlarmInfo.builder()
+                    .testResultId(alarm.getTestResultId())
+                    .endpointId(alarm.getEndpointId())
+                    .endpointName(endpoint != null ? endpoint.getName() : "Unknown")
+                    .endpointUrl(endpoint != null ? endpoint.getUrl() : "")
+                    .error(alarm.getError())
+                    .statusCode(alarm.getStatusCode())
+                    .timestamp(alarm.getOccurredAt())
+                    .build();
+            })
+            .collect(Collectors.toList());
     }
 
     /**
@@ -132,4 +311,14 @@ public class AlarmService {
         private Integer statusCode;
         private LocalDateTime timestamp;
     }
+
+    /**
+     * DTO for a page of alarms.
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class AlarmPage {
+        private List<AlarmInfo> items;
+        private String nextCursor;
+    }
 }
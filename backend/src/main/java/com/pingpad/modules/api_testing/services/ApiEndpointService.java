@@ -15,7 +15,11 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -93,40 +97,54 @@ public class ApiEndpointService {
     /**
      * Get an API endpoint by ID (from read model).
      * Uses Cache-Aside pattern: checks cache first, then database.
+     * Concurrent misses for the same endpoint share a single database load.
      */
     public ApiEndpointProjection getEndpoint(UUID endpointId) {
         String cacheKey = CACHE_KEY_PREFIX + endpointId;
-        
-        // Try cache first
-        return cacheService.get(cacheKey, ApiEndpointProjection.class)
-            .orElseGet(() -> {
-                // Cache miss - load from database
-                ApiEndpointProjection endpoint = projectionRepository.findById(endpointId)
-                    .orElseThrow(() -> new IllegalArgumentException("API endpoint not found: " + endpointId));
-                
-                // Populate cache for future reads
-                cacheService.put(cacheKey, endpoint);
-                return endpoint;
-            });
+
+        return cacheService.getOrLoad(cacheKey, ApiEndpointProjection.class,
+            () -> projectionRepository.findById(endpointId)
+                .orElseThrow(() -> new IllegalArgumentException("API endpoint not found: " + endpointId)));
+    }
+
+    /**
+     * Get several API endpoints by ID (from read model).
+     * Cached endpoints are fetched in one round trip; only the misses are loaded from
+     * the database, in one query, and written back to the cache in one pipeline.
+     * IDs that don't exist are left out of the result.
+     */
+    public Map<UUID, ApiEndpointProjection> getEndpoints(Collection<UUID> endpointIds) {
+        Map<String, UUID> idsByKey = new LinkedHashMap<>();
+        endpointIds.forEach(id -> idsByKey.put(CACHE_KEY_PREFIX + id, id));
+
+        CacheService.MultiGetResult<ApiEndpointProjection> cached =
+            cacheService.getAll(idsByKey.keySet(), ApiEndpointProjection.class);
+
+        Map<UUID, ApiEndpointProjection> endpoints = new HashMap<>();
+        cached.getHits().forEach((key, endpoint) -> endpoints.put(idsByKey.get(key), endpoint));
+
+        if (!cached.getMisses().isEmpty()) {
+            List<UUID> missingIds = cached.getMisses().stream().map(idsByKey::get).toList();
+            Map<String, ApiEndpointProjection> loaded = new HashMap<>();
+            for (ApiEndpointProjection endpoint : projectionRepository.findAllById(missingIds)) {
+                endpoints.put(endpoint.getId(), endpoint);
+                loaded.put(CACHE_KEY_PREFIX + endpoint.getId(), endpoint);
+            }
+            cacheService.putAll(loaded);
+        }
+        return endpoints;
     }
 
     /**
      * Get all API endpoints for a user (from read model).
      * Uses Cache-Aside pattern: checks cache first, then database.
+     * The list is dropped on every edit, so concurrent misses share a single database load.
      */
     public List<ApiEndpointProjection> getEndpointsByUser(Long userId) {
         String cacheKey = CACHE_KEY_USER_PREFIX + userId;
-        
-        // Try cache first
-        return cacheService.getList(cacheKey, ApiEndpointProjection.class)
-            .orElseGet(() -> {
-                // Cache miss - load from database
-                List<ApiEndpointProjection> endpoints = projectionRepository.findByUserId(userId);
-                
-                // Populate cache for future reads
-                cacheService.putList(cacheKey, endpoints);
-                return endpoints;
-            });
+
+        return cacheService.getOrLoadList(cacheKey, ApiEndpointProjection.class,
+            () -> projectionRepository.findByUserId(userId));
     }
 
     /**
@@ -31,20 +31,13 @@ public class ApiKeyService {
     /**
      * Get all API keys for a user.
      * Uses Cache-Aside pattern: checks cache first, then database.
+     * Concurrent misses share a single database load.
      */
     public List<ApiKey> getUserApiKeys(Long userId) {
         String cacheKey = CACHE_KEY_USER_PREFIX + userId;
-        
-        // Try cache first
-        return cacheService.getList(cacheKey, ApiKey.class)
-            .orElseGet(() -> {
-                // Cache miss - load from database
-                List<ApiKey> apiKeys = apiKeyRepository.findByUserId(userId);
-                
-                // Populate cache for future reads
-                cacheService.putList(cacheKey, apiKeys);
-                return apiKeys;
-            });
+
+        return cacheService.getOrLoadList(cacheKey, ApiKey.class,
+            () -> apiKeyRepository.findByUserId(userId));
     }
 
     /**
@@ -1,7 +1,7 @@
 package com.pingpad.modules.api_testing.services;
 
 import com.pingpad.modules.api_testing.models.ApiTestResult;
-import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.api_testing.models.ApiTestResultSummary;
 import com.pingpad.modules.api_testing.repositories.ApiTestResultRepository;
 import com.pingpad.modules.user_management.models.User;
 import com.pingpad.modules.user_management.repositories.UserRepository;
@@ -11,14 +11,14 @@ import io.grpc.Status;
 import io.grpc.StatusRuntimeException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import testing.ApiTestingServiceGrpc;
 import testing.Testing;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -32,58 +32,54 @@ public class ApiTestService {
     private final ApiEndpointService apiEndpointService;
     private final ApiTestResultRepository testResultRepository;
     private final UserRepository userRepository;
+    private final LatencyRollupService latencyRollupService;
+    private final ResponseBodyStore responseBodyStore;
+    private final ResultStreamService resultStreamService;
+    private final AlarmService alarmService;
+    private final IncidentDetector incidentDetector;
+    private final EngineAdmissionController admissionController;
+    private final RequestTemplateCache requestTemplates;
+    private final ResultPersistenceLimiter persistenceLimiter;
+
+    private static final int MAX_PAGE_SIZE = 1000;
 
     /**
-     * Test an API endpoint and save the result using gRPC.
+     * Test an API endpoint on behalf of a user and save the result using gRPC.
      */
     public ApiTestResult testEndpoint(UUID endpointId, Long userId) {
-        // Get endpoint from projection
-        ApiEndpointProjection endpoint = apiEndpointService.getEndpoint(endpointId);
-        
-        // Get user
-        User user = userRepository.findById(userId)
-            .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
-
-        // Parse headers from string
-        Map<String, String> headersMap = new HashMap<>();
-        if (endpoint.getHeaders() != null && !endpoint.getHeaders().isEmpty()) {
-            String[] headerLines = endpoint.getHeaders().split("\n");
-            for (String line : headerLines) {
-                String[] parts = line.split(":", 2);
-                if (parts.length == 2) {
-                    headersMap.put(parts[0].trim(), parts[1].trim());
-                }
-            }
-        }
+        return testEndpoint(endpointId, userId, EngineAdmissionController.Priority.INTERACTIVE);
+    }
 
-        // Prepare gRPC request
-        Testing.TestRequest.Builder requestBuilder = Testing.TestRequest.newBuilder()
-            .setId(UUID.randomUUID().toString())
-            .setEndpointId(endpointId.toString())
-            .setMethod(endpoint.getMethod())
-            .setUrl(endpoint.getUrl())
-            .putAllHeaders(headersMap)
-            .setTimeout("30s")
-            .setFollowRedirects(true)
-            .setMaxRetries(3)
-            .setUserId(userId.toString())
-            .setCreatedAt(Instant.now().toString());
-
-        // For GET/DELETE requests, don't include body. For other methods, include body if present
-        String method = endpoint.getMethod().toUpperCase();
-        if (endpoint.getBody() != null && !endpoint.getBody().isEmpty() && 
-            !"GET".equals(method) && !"DELETE".equals(method)) {
-            requestBuilder.setBody(ByteString.copyFrom(
-                endpoint.getBody().getBytes(java.nio.charset.StandardCharsets.UTF_8)));
+    /**
+     * Test an API endpoint and save the result using gRPC.
+     * Background tests are turned away first when the engine is under pressure.
+     */
+    public ApiTestResult testEndpoint(UUID endpointId, Long userId, EngineAdmissionController.Priority priority) {
+        // Compiled request for the endpoint, loaded from the projection on a miss
+        RequestTemplateCache.RequestTemplate template = requestTemplates.get(endpointId, apiEndpointService::getEndpoint);
+
+        // Get user; an owner that was already found only needs a reference for the result
+        User user;
+        if (template.isVerifiedOwner(userId)) {
+            user = userRepository.getReferenceById(userId);
+        } else {
+            user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found: " + userId));
+            template.ownerFound(userId);
         }
 
-        Testing.TestRequest testRequest = requestBuilder.build();
+        // Prepare gRPC request
+        Testing.TestRequest testRequest = template.stamp(userId, Instant.now().toString());
 
         // Call Go testing engine via gRPC
-        ApiTestResult testResult;
+        EngineAdmissionController.Permit permit = admissionController.acquire(priority);
+        long engineOverheadNanos = 0;
+        boolean engineOverloaded = false;
+        Testing.TestResult grpcResult = null;
+        ApiTestResult testResult = null;
         try {
             log.info("Sending gRPC test request to Go engine for endpoint {} ({} {})", 
-                endpointId, endpoint.getMethod(), endpoint.getUrl());
+                endpointId, testRequest.getMethod(), testRequest.getUrl());
             
             long requestStartTime = System.currentTimeMillis();
             
@@ -92,39 +88,15 @@ public class ApiTestService {
                 ApiTestingServiceGrpc.newBlockingStub(grpcChannel);
             
             // Call gRPC service
-            Testing.TestResult grpcResult = stub.testEndpoint(testRequest);
+            grpcResult = stub.testEndpoint(testRequest);
             
             long requestDuration = System.currentTimeMillis() - requestStartTime;
             log.info("Received gRPC response from Go engine for endpoint {} in {}ms", endpointId, requestDuration);
-
-            // Convert response time from nanoseconds to milliseconds
-            Long responseTimeMs = null;
-            if (grpcResult.getResponseTimeNanos() > 0) {
-                responseTimeMs = grpcResult.getResponseTimeNanos() / 1_000_000;
-            }
-
-            // Convert response body from bytes to string
-            String responseBodyStr = null;
-            if (grpcResult.getResponseBody() != null && grpcResult.getResponseBody().size() > 0) {
-                responseBodyStr = new String(grpcResult.getResponseBody().toByteArray(), 
-                    java.nio.charset.StandardCharsets.UTF_8);
-            }
-
-            // Create test result entity
-            testResult = ApiTestResult.builder()
-                .endpointId(endpointId)
-                .user(user)
-                .statusCode(grpcResult.getStatusCode())
-                .responseTime(responseTimeMs)
-                .responseBody(responseBodyStr)
-                .responseHeaders(formatHeaders(grpcResult.getResponseHeadersMap()))
-                .error(grpcResult.getError().isEmpty() ? null : grpcResult.getError())
-                .success(grpcResult.getSuccess())
-                .timestamp(LocalDateTime.now())
-                .build();
+            engineOverheadNanos = System.nanoTime() - permit.startNanos() - grpcResult.getResponseTimeNanos();
 
         } catch (StatusRuntimeException e) {
             Status status = e.getStatus();
+            engineOverloaded = EngineAdmissionController.isOverload(status.getCode());
             log.error("gRPC error testing endpoint {}: Status {} - {}", 
                 endpointId, status.getCode(), status.getDescription(), e);
             
@@ -165,27 +137,160 @@ public class ApiTestService {
                 .success(false)
                 .timestamp(LocalDateTime.now())
                 .build();
+        } finally {
+            // Hand the engine slot back before touching the database, so waiting on a
+            // connection never holds up engine calls
+            admissionController.release(permit, engineOverheadNanos, engineOverloaded);
+        }
+
+        ResponseBodyStore.StoredBody storedBody = null;
+        if (grpcResult != null) {
+            // Convert response time from nanoseconds to milliseconds
+            Long responseTimeMs = null;
+            if (grpcResult.getResponseTimeNanos() > 0) {
+                responseTimeMs = grpcResult.getResponseTimeNanos() / 1_000_000;
+            }
+
+            // Store the response body out of line (compressed, deduplicated by hash)
+            if (!grpcResult.getResponseBody().isEmpty()) {
+                storedBody = storeResponseBody(endpointId, grpcResult.getResponseBody());
+            }
+
+            // Create test result entity
+            testResult = ApiTestResult.builder()
+                .endpointId(endpointId)
+                .user(user)
+                .statusCode(grpcResult.getStatusCode())
+                .responseTime(responseTimeMs)
+                .responseBodyHash(storedBody != null ? storedBody.hash() : null)
+                .responseBodySize(storedBody != null ? storedBody.size() : null)
+                .responseBodyTruncated(storedBody != null ? storedBody.truncated() : null)
+                .responseHeaders(grpcResult.getResponseHeadersCount() > 0 ? grpcResult.getResponseHeadersMap() : null)
+                .error(grpcResult.getError().isEmpty() ? null : grpcResult.getError())
+                .success(grpcResult.getSuccess())
+                .timestamp(LocalDateTime.now())
+                .build();
         }
         
-        return testResultRepository.save(testResult);
-    }
+        // Far more tests can be in flight than there are connections; queue for the database here
+        ApiTestResult result = testResult;
+        ApiTestResult saved = persistenceLimiter.call(() -> saveResult(result, template.getOwnerId()));
 
+        // Feed the latency rollups used for percentile analytics
+        latencyRollupService.record(endpointId, testResult.getTimestamp(), testResult.getResponseTime());
+
+        // The body column is read-only; hand the captured body back to interactive callers directly.
+        // Background probes discard the result, so they skip decoding it
+        if (saved != null && storedBody != null && priority == EngineAdmissionController.Priority.INTERACTIVE) {
+            saved.setResponseBody(storedBody.asString());
+        }
+
+        // Push to open dashboards instead of making them poll
+        resultStreamService.publishResult(saved, template.getOwnerId());
+
+        return saved;
+    }
 
     /**
-     * Get test results for an endpoint within a time range.
+     * Save a result, fold failures into incidents and maintain the open alarm index.
+     * Only the failure that opens an incident becomes an open alarm, so an outage
+     * counts once however many runs fail during it.
      */
-    public java.util.List<ApiTestResult> getTestResults(UUID endpointId, LocalDateTime startTime, LocalDateTime endTime) {
-        return testResultRepository.findByEndpointIdAndTimestampBetweenOrderByTimestampDesc(
-            endpointId, startTime, endTime
-        );
+    private ApiTestResult saveResult(ApiTestResult testResult, Long ownerId) {
+        ApiTestResult saved = testResultRepository.save(testResult);
+        if (saved == null) {
+            return null;
+        }
+
+        // If the incident can't be updated, rather count the failure twice than lose the alarm
+        boolean openedIncident = true;
+        try {
+            openedIncident = incidentDetector.onResult(saved, ownerId);
+        } catch (Exception e) {
+            log.error("Failed to update incident for test result {}: {}", saved.getId(), e.getMessage(), e);
+        }
+
+        if (openedIncident && !Boolean.TRUE.equals(saved.getSuccess())) {
+            try {
+                alarmService.recordFailure(saved, ownerId);
+            } catch (Exception e) {
+                log.error("Failed to record alarm for test result {}: {}", saved.getId(), e.getMessage(), e);
+            }
+        }
+        return saved;
     }
 
-    private String formatHeaders(Map<String, String> headers) {
-        if (headers == null || headers.isEmpty()) {
+    private ResponseBodyStore.StoredBody storeResponseBody(UUID endpointId, ByteString body) {
+        try {
+            return persistenceLimiter.call(() -> responseBodyStore.store(body).orElse(null));
+        } catch (Exception e) {
+            // Never fail a test run because the body couldn't be persisted
+            log.warn("Failed to store response body for endpoint {}: {}", endpointId, e.getMessage());
             return null;
         }
-        StringBuilder sb = new StringBuilder();
-        headers.forEach((key, value) -> sb.append(key).append(": ").append(value).append("\n"));
-        return sb.toString().trim();
+    }
+
+
+    /**
+     * Get test result summaries for an endpoint within a time range, newest first.
+     * Bodies and headers are left out; fetch a full result with getTestResult.
+     */
+    public java.util.List<ApiTestResultSummary> getTestResults(UUID endpointId, LocalDateTime startTime, LocalDateTime endTime) {
+        return testResultRepository.findSummaries(endpointId, startTime, endTime, Pageable.unpaged());
+    }
+
+    /**
+     * Get a page of lightweight test result summaries for an endpoint, newest first.
+     * Uses keyset pagination on (timestamp, id): pass the nextCursor of the previous page
+     * to continue, which keeps every page an index range scan regardless of depth.
+     */
+    public ResultPage getTestResultPage(UUID endpointId, LocalDateTime startTime, LocalDateTime endTime, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // Fetch one extra row to know whether another page exists
+        PageRequest pageRequest = PageRequest.ofSize(pageSize + 1);
+
+        java.util.List<ApiTestResultSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = testResultRepository.findSummaries(endpointId, startTime, endTime, pageRequest);
+        } else {
+            PageCursor pageCursor = PageCursor.decode(cursor);
+            rows = testResultRepository.findSummariesBefore(
+                endpointId, startTime, pageCursor.timestamp(), pageCursor.id(), pageRequest);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ApiTestResultSummary last = rows.get(rows.size() - 1);
+            nextCursor = new PageCursor(last.getTimestamp(), last.getId()).encode();
+        }
+
+        return ResultPage.builder()
+            .items(rows)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    /**
+     * Get a single full test result (including response body and headers).
+     */
+    public ApiTestResult getTestResult(UUID endpointId, Long resultId) {
+        ApiTestResult result = testResultRepository.findById(resultId)
+            .filter(r -> endpointId.equals(r.getEndpointId()))
+            .orElseThrow(() -> new IllegalArgumentException("Test result not found: " + resultId));
+        if (result.getResponseBody() == null && result.getResponseBodyHash() != null) {
+            responseBodyStore.load(result.getResponseBodyHash()).ifPresent(result::setResponseBody);
+        }
+        return result;
+    }
+
+    /**
+     * DTO for a page of test result summaries.
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class ResultPage {
+        private java.util.List<ApiTestResultSummary> items;
+        private String nextCursor;
     }
 }
@@ -0,0 +1,256 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.pingpad.modules.api_testing.grpc.EngineChannelPool;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import testing.ApiTestingServiceGrpc;
+import testing.Testing;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive limit on the number of tests in flight to the testing engine.
+ *
+ * The limit follows AIMD: it grows by about one per limit's worth of calls that complete
+ * normally, and shrinks by a factor when the engine shows it is saturated - a call fails
+ * with UNAVAILABLE, DEADLINE_EXCEEDED or RESOURCE_EXHAUSTED, the time a call spends in the
+ * engine beyond the target's own response time exceeds a threshold, or GetMetrics of
+ * any engine instance reports tests queued behind its rate limiter.
+ *
+ * Interactive tests may use the whole limit and wait briefly for a slot. Background tests
+ * (recurring probes) only get a share of it and are shed right away when that share is
+ * used up, so under pressure user-triggered tests go first.
+ */
+@Service
+@Slf4j
+public class EngineAdmissionController {
+
+    public enum Priority { INTERACTIVE, BACKGROUND }
+
+    private static final String WAITING_TESTS = "waiting_tests";
+
+    /**
+     * A slot taken by one engine call, to be handed back through {@link #release}.
+     */
+    public record Permit(Priority priority, long startNanos) {}
+
+    private final ManagedChannel grpcChannel;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backgroundShare;
+    private final double decreaseFactor;
+    private final long queueTimeoutNanos;
+    private final long overheadThresholdNanos;
+    private final long decreaseCooldownNanos;
+    private final long metricsTimeoutMillis;
+    private final Map<Priority, Counter> rejected = new EnumMap<>(Priority.class);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private long lastDecreaseNanos;
+
+    public EngineAdmissionController(ManagedChannel grpcChannel,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${api.testing.engine.admission.initial-limit:50}") int initialLimit,
+                                     @Value("${api.testing.engine.admission.min-limit:4}") int minLimit,
+                                     @Value("${api.testing.engine.max-concurrent-tests:1000}") int maxLimit,
+                                     @Value("${api.testing.engine.admission.background-share:0.75}") double backgroundShare,
+                                     @Value("${api.testing.engine.admission.decrease-factor:0.9}") double decreaseFactor,
+                                     @Value("${api.testing.engine.admission.queue-timeout:PT2S}") Duration queueTimeout,
+                                     @Value("${api.testing.engine.admission.overhead-threshold:PT1S}") Duration overheadThreshold,
+                                     @Value("${api.testing.engine.admission.decrease-cooldown:PT1S}") Duration decreaseCooldown,
+                                     @Value("${api.testing.engine.admission.metrics-timeout:PT2S}") Duration metricsTimeout) {
+        if (minLimit < 1 || minLimit > maxLimit) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= min-limit <= max-concurrent-tests");
+        }
+        this.grpcChannel = grpcChannel;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backgroundShare = backgroundShare;
+        this.decreaseFactor = decreaseFactor;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.overheadThresholdNanos = overheadThreshold.toNanos();
+        this.decreaseCooldownNanos = decreaseCooldown.toNanos();
+        this.metricsTimeoutMillis = metricsTimeout.toMillis();
+        this.limit = Math.clamp(initialLimit, minLimit, maxLimit);
+        this.lastDecreaseNanos = System.nanoTime() - decreaseCooldownNanos;
+
+        Gauge.builder("engine.admission.limit", this, EngineAdmissionController::getLimit)
+            .description("Current limit on testing engine calls in flight")
+            .register(meterRegistry);
+        Gauge.builder("engine.admission.in_flight", this, EngineAdmissionController::getInFlight)
+            .description("Testing engine calls in flight")
+            .register(meterRegistry);
+        for (Priority priority : Priority.values()) {
+            rejected.put(priority, Counter.builder("engine.admission.rejected")
+                .description("Tests turned away because the testing engine is at its limit")
+                .tag("priority", priority.name().toLowerCase())
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Take a slot for an engine call.
+     *
+     * @throws RejectedExecutionException if no slot is available for the priority
+     */
+    public Permit acquire(Priority priority) {
+        lock.lock();
+        try {
+            if (priority == Priority.BACKGROUND) {
+                if (inFlight >= backgroundLimit()) {
+                    throw reject(priority);
+                }
+            } else {
+                long remaining = queueTimeoutNanos;
+                while (inFlight >= (int) limit) {
+                    if (remaining <= 0) {
+                        throw reject(priority);
+                    }
+                    remaining = released.awaitNanos(remaining);
+                }
+            }
+            inFlight++;
+            return new Permit(priority, System.nanoTime());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject(priority);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Hand back a slot and adjust the limit by how the call went.
+     *
+     * @param engineOverheadNanos Time the call took beyond the target's own response time
+     * @param overloaded Whether the call failed in a way that points at an overloaded engine
+     */
+    public void release(Permit permit, long engineOverheadNanos, boolean overloaded) {
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= limit / 2;
+            inFlight--;
+            if (overloaded || engineOverheadNanos > overheadThresholdNanos) {
+                decrease();
+            } else if (saturated) {
+                // Only grow while the limit is actually being used
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            released.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a failed call's status means the engine is overloaded, rather than the target failing.
+     */
+    public static boolean isOverload(Status.Code code) {
+        return code == Status.Code.UNAVAILABLE
+            || code == Status.Code.DEADLINE_EXCEEDED
+            || code == Status.Code.RESOURCE_EXHAUSTED;
+    }
+
+    /**
+     * Back off when any engine instance reports tests waiting behind its own rate limiter.
+     */
+    @Scheduled(initialDelayString = "${api.testing.engine.admission.metrics-poll-interval:PT5S}",
+               fixedDelayString = "${api.testing.engine.admission.metrics-poll-interval:PT5S}")
+    public void pollEngineMetrics() {
+        if (grpcChannel == null || grpcChannel.isShutdown()) {
+            return;
+        }
+        if (grpcChannel instanceof EngineChannelPool pool) {
+            onEngineMetrics(pool.collectMetrics(metricsTimeoutMillis));
+            return;
+        }
+        try {
+            Testing.MetricsResponse response = ApiTestingServiceGrpc.newBlockingStub(grpcChannel)
+                .withDeadlineAfter(metricsTimeoutMillis, TimeUnit.MILLISECONDS)
+                .getMetrics(Testing.MetricsRequest.getDefaultInstance());
+            onEngineMetrics(response.getMetricsMap());
+        } catch (Exception e) {
+            log.debug("Could not poll testing engine metrics: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Act on the metrics of the most backed up engine instance. Calls are spread over all
+     * instances, so one saturated instance slows down a share of every batch.
+     */
+    public void onEngineMetrics(List<Map<String, Long>> perEngine) {
+        perEngine.stream()
+            .max(Comparator.comparingLong(metrics -> metrics.getOrDefault(WAITING_TESTS, 0L)))
+            .ifPresent(this::onEngineMetrics);
+    }
+
+    /**
+     * Shrink the limit if the engine's metrics show tests queueing up inside it.
+     */
+    public void onEngineMetrics(Map<String, Long> metrics) {
+        long waiting = metrics.getOrDefault(WAITING_TESTS, 0L);
+        if (waiting > 0) {
+            lock.lock();
+            try {
+                decrease();
+            } finally {
+                lock.unlock();
+            }
+            log.debug("Testing engine has {} test(s) waiting, admission limit now {}", waiting, getLimit());
+        }
+    }
+
+    public int getLimit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getInFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void decrease() {
+        // Calls already in flight when the engine saturated report it too; count that as one signal
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos >= decreaseCooldownNanos) {
+            limit = Math.max(minLimit, limit * decreaseFactor);
+            lastDecreaseNanos = now;
+        }
+    }
+
+    private int backgroundLimit() {
+        return Math.max(1, (int) (limit * backgroundShare));
+    }
+
+    private RejectedExecutionException reject(Priority priority) {
+        rejected.get(priority).increment();
+        return new RejectedExecutionException("Too many endpoint tests in progress. Please try again shortly.");
+    }
+}
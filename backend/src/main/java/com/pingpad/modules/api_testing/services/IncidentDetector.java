@@ -0,0 +1,163 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.pingpad.modules.api_testing.models.AlarmIncident;
+import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.repositories.AlarmIncidentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Folds consecutive failures of an endpoint into a single alarm incident.
+ *
+ * Results are processed as they are written: a failure opens an incident or extends
+ * the open one, a success resolves it. The open incident per endpoint is remembered
+ * in memory, so the common cases (healthy endpoint, ongoing outage) cost at most one
+ * UPDATE. A remembered "no open incident" is only trusted for a short time, since
+ * another replica may have opened one in the meantime; the partial unique index on
+ * open incidents keeps replicas from opening two.
+ */
+@Service
+@Slf4j
+public class IncidentDetector {
+    private static final int LOCK_STRIPES = 64;
+
+    private final AlarmIncidentRepository incidentRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long stateTtlMillis;
+
+    // Last known open incident per endpoint (incidentId null = none open)
+    private final Map<UUID, OpenState> openIncidents = new ConcurrentHashMap<>();
+    // Locks rather than monitors: the critical section does JDBC work, which would pin a virtual thread
+    private final ReentrantLock[] locks = new ReentrantLock[LOCK_STRIPES];
+
+    public IncidentDetector(AlarmIncidentRepository incidentRepository,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${api.testing.incidents.state-ttl:PT1M}") Duration stateTtl) {
+        this.incidentRepository = incidentRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stateTtlMillis = stateTtl.toMillis();
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Process a freshly written test result for the endpoint owner.
+     *
+     * @return true if the result is a failure that opened a new incident, false if it
+     *         extended an open one or is a success
+     */
+    public boolean onResult(ApiTestResult result, Long ownerId) {
+        if (result == null || result.getEndpointId() == null || ownerId == null) {
+            return false;
+        }
+        // Results of one endpoint are processed in order on this node
+        ReentrantLock lock = locks[Math.floorMod(result.getEndpointId().hashCode(), LOCK_STRIPES)];
+        lock.lock();
+        try {
+            if (Boolean.TRUE.equals(result.getSuccess())) {
+                recordRecovery(result);
+                return false;
+            }
+            return recordFailure(result, ownerId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget the remembered state of an endpoint (e.g. after it was deleted).
+     */
+    public void evict(UUID endpointId) {
+        openIncidents.remove(endpointId);
+    }
+
+    private boolean recordFailure(ApiTestResult result, Long ownerId) {
+        UUID endpointId = result.getEndpointId();
+        OpenState state = openIncidents.get(endpointId);
+
+        Long incidentId = null;
+        if (state != null && state.incidentId() != null) {
+            incidentId = state.incidentId();
+        } else if (state == null || !isFresh(state)) {
+            incidentId = incidentRepository.findOpenByEndpointId(endpointId).map(AlarmIncident::getId).orElse(null);
+        }
+
+        if (incidentId != null && extend(incidentId, result)) {
+            openIncidents.put(endpointId, OpenState.open(incidentId));
+            return false;
+        }
+
+        try {
+            AlarmIncident incident = transactionTemplate.execute(status -> incidentRepository.save(AlarmIncident.builder()
+                .endpointId(endpointId)
+                .userId(ownerId)
+                .firstSeen(result.getTimestamp())
+                .lastSeen(result.getTimestamp())
+                .failureCount(1L)
+                .firstResultId(result.getId())
+                .lastResultId(result.getId())
+                .lastStatusCode(result.getStatusCode())
+                .lastError(result.getError())
+                .build()));
+            openIncidents.put(endpointId, OpenState.open(incident.getId()));
+            log.info("Opened alarm incident {} for endpoint {}", incident.getId(), endpointId);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another replica opened the incident first; extend theirs
+            incidentRepository.findOpenByEndpointId(endpointId).ifPresent(existing -> {
+                extend(existing.getId(), result);
+                openIncidents.put(endpointId, OpenState.open(existing.getId()));
+            });
+            return false;
+        }
+    }
+
+    private void recordRecovery(ApiTestResult result) {
+        UUID endpointId = result.getEndpointId();
+        OpenState state = openIncidents.get(endpointId);
+        if (state != null && state.incidentId() == null && isFresh(state)) {
+            return;
+        }
+
+        Integer resolved = transactionTemplate.execute(status ->
+            incidentRepository.resolveOpen(endpointId, result.getTimestamp()));
+        openIncidents.put(endpointId, OpenState.none());
+        if (resolved != null && resolved > 0) {
+            log.info("Resolved alarm incident for endpoint {}", endpointId);
+        }
+    }
+
+    private boolean extend(Long incidentId, ApiTestResult result) {
+        Integer updated = transactionTemplate.execute(status -> incidentRepository.recordFailure(
+            incidentId, result.getTimestamp(), result.getId(), result.getStatusCode(), result.getError()));
+        return updated != null && updated > 0;
+    }
+
+    private boolean isFresh(OpenState state) {
+        return System.currentTimeMillis() - state.checkedAtMillis() < stateTtlMillis;
+    }
+
+    private record OpenState(Long incidentId, long checkedAtMillis) {
+        static OpenState open(Long incidentId) {
+            return new OpenState(incidentId, System.currentTimeMillis());
+        }
+
+        static OpenState none() {
+            return new OpenState(null, System.currentTimeMillis());
+        }
+    }
+}
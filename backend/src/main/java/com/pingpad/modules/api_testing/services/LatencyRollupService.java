@@ -0,0 +1,201 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.pingpad.modules.api_testing.models.LatencyHistogram;
+import com.pingpad.modules.api_testing.models.LatencyRollup;
+import com.pingpad.modules.api_testing.repositories.LatencyRollupRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maintains hourly latency histograms per endpoint.
+ *
+ * Samples are accumulated in memory and merged into the latency_rollups table
+ * periodically. Because histograms are mergeable, every replica can flush its own
+ * partial histogram into the same bucket row.
+ */
+@Service
+@Slf4j
+public class LatencyRollupService {
+    private final LatencyRollupRepository rollupRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    // Pending (not yet flushed) histograms keyed by endpoint + hourly bucket
+    private final Map<RollupKey, LatencyHistogram> pending = new ConcurrentHashMap<>();
+
+    public LatencyRollupService(LatencyRollupRepository rollupRepository,
+                                PlatformTransactionManager transactionManager) {
+        this.rollupRepository = rollupRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Record a response time sample for an endpoint.
+     */
+    public void record(UUID endpointId, LocalDateTime timestamp, Long responseTimeMs) {
+        if (endpointId == null || timestamp == null || responseTimeMs == null) {
+            return;
+        }
+        RollupKey key = new RollupKey(endpointId, bucketStart(timestamp));
+        pending.compute(key, (k, histogram) -> {
+            LatencyHistogram target = histogram != null ? histogram : new LatencyHistogram();
+            target.record(responseTimeMs);
+            return target;
+        });
+    }
+
+    /**
+     * Merge pending histograms into their rollup rows.
+     * Runs every 30 seconds by default (configurable).
+     */
+    @Scheduled(initialDelayString = "${api.testing.latency-rollups.flush-interval:PT30S}",
+               fixedDelayString = "${api.testing.latency-rollups.flush-interval:PT30S}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        // Drain in a deterministic order so concurrent replicas lock rows consistently
+        SortedMap<RollupKey, LatencyHistogram> drained = new TreeMap<>();
+        for (RollupKey key : new ArrayList<>(pending.keySet())) {
+            LatencyHistogram histogram = pending.remove(key);
+            if (histogram != null) {
+                drained.put(key, histogram);
+            }
+        }
+
+        // One transaction per bucket, so a bucket that can't be written doesn't hold back the others
+        int failed = 0;
+        for (Map.Entry<RollupKey, LatencyHistogram> entry : drained.entrySet()) {
+            RollupKey key = entry.getKey();
+            LatencyHistogram histogram = entry.getValue();
+            try {
+                transactionTemplate.executeWithoutResult(status -> mergeIntoRollup(key, histogram));
+            } catch (DataIntegrityViolationException e) {
+                // The endpoint was deleted after the samples were recorded; retrying can't succeed
+                log.debug("Dropping latency rollup for {}: {}", key, e.getMessage());
+            } catch (Exception e) {
+                failed++;
+                // Put the samples back so they are not lost
+                pending.merge(key, histogram, (current, unflushed) -> {
+                    current.merge(unflushed);
+                    return current;
+                });
+            }
+        }
+        if (failed > 0) {
+            log.warn("Error flushing {} of {} latency rollup bucket(s), will retry on next flush", failed, drained.size());
+        } else {
+            log.debug("Flushed {} latency rollup bucket(s)", drained.size());
+        }
+    }
+
+    /**
+     * Drop unflushed samples of a deleted endpoint.
+     */
+    public void evict(UUID endpointId) {
+        pending.keySet().removeIf(key -> key.endpointId().equals(endpointId));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Get latency percentiles for one or more endpoints within a time range.
+     * The range is aligned to hourly buckets.
+     */
+    public LatencySummary getLatencySummary(Collection<UUID> endpointIds, LocalDateTime startTime, LocalDateTime endTime) {
+        LatencyHistogram merged = new LatencyHistogram();
+        if (endpointIds == null || endpointIds.isEmpty()) {
+            return LatencySummary.from(merged, startTime, endTime);
+        }
+
+        LocalDateTime alignedStart = bucketStart(startTime);
+        for (LatencyRollup rollup : rollupRepository.findByEndpointIdInAndBucketStartBetween(endpointIds, alignedStart, endTime)) {
+            merged.merge(LatencyHistogram.fromBytes(rollup.getHistogram()));
+        }
+
+        // Include samples recorded on this node that haven't been flushed yet
+        for (RollupKey key : pending.keySet()) {
+            if (endpointIds.contains(key.endpointId())
+                    && !key.bucketStart().isBefore(alignedStart)
+                    && !key.bucketStart().isAfter(endTime)) {
+                // computeIfPresent holds the same lock as record(), so we never read a half-updated histogram
+                pending.computeIfPresent(key, (k, histogram) -> {
+                    merged.merge(histogram);
+                    return histogram;
+                });
+            }
+        }
+
+        return LatencySummary.from(merged, alignedStart, endTime);
+    }
+
+    private void mergeIntoRollup(RollupKey key, LatencyHistogram histogram) {
+        rollupRepository.insertIfAbsent(key.endpointId(), key.bucketStart(), new LatencyHistogram().toBytes());
+        LatencyRollup rollup = rollupRepository.findForUpdate(key.endpointId(), key.bucketStart())
+            .orElseThrow(() -> new IllegalStateException("Latency rollup row missing for " + key));
+
+        LatencyHistogram stored = LatencyHistogram.fromBytes(rollup.getHistogram());
+        stored.merge(histogram);
+        rollup.setHistogram(stored.toBytes());
+        rollup.setSampleCount(stored.getTotalCount());
+        rollupRepository.save(rollup);
+    }
+
+    private static LocalDateTime bucketStart(LocalDateTime timestamp) {
+        return timestamp.truncatedTo(ChronoUnit.HOURS);
+    }
+
+    private record RollupKey(UUID endpointId, LocalDateTime bucketStart) implements Comparable<RollupKey> {
+        @Override
+        public int compareTo(RollupKey other) {
+            int cmp = endpointId.compareTo(other.endpointId);
+            return cmp != 0 ? cmp : bucketStart.compareTo(other.bucketStart);
+        }
+    }
+
+    /**
+     * DTO for latency percentile information.
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class LatencySummary {
+        private LocalDateTime from;
+        private LocalDateTime to;
+        private long count;
+        private long min;
+        private long max;
+        private double mean;
+        private long p50;
+        private long p90;
+        private long p99;
+        private long p999;
+
+        static LatencySummary from(LatencyHistogram histogram, LocalDateTime from, LocalDateTime to) {
+            return LatencySummary.builder()
+                .from(from)
+                .to(to)
+                .count(histogram.getTotalCount())
+                .min(histogram.getMin())
+                .max(histogram.getMax())
+                .mean(histogram.getMean())
+                .p50(histogram.getValueAtPercentile(50))
+                .p90(histogram.getValueAtPercentile(90))
+                .p99(histogram.getValueAtPercentile(99))
+                .p999(histogram.getValueAtPercentile(99.9))
+                .build();
+        }
+    }
+}
@@ -12,6 +12,7 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
  * Scheduled service that automatically tests endpoints with recurring enabled.
@@ -44,6 +45,7 @@ public class RecurringEndpointScheduler {
             
             LocalDateTime now = LocalDateTime.now();
             int testedCount = 0;
+            int shedCount = 0;
             
             for (ApiEndpointProjection endpoint : recurringEndpoints) {
                 try {
@@ -52,8 +54,9 @@ public class RecurringEndpointScheduler {
                         log.debug("Testing recurring endpoint: {} ({}) with interval: {}", 
                             endpoint.getName(), endpoint.getId(), endpoint.getRecurringInterval());
                         
-                        // Use the endpoint's userId for testing
-                        apiTestService.testEndpoint(endpoint.getId(), endpoint.getUserId());
+                        // Use the endpoint's userId for testing; probes yield to user-triggered tests
+                        apiTestService.testEndpoint(endpoint.getId(), endpoint.getUserId(),
+                            EngineAdmissionController.Priority.BACKGROUND);
                         
                         // Update last_run_at timestamp
                         updateLastRunAt(endpoint.getId(), now);
@@ -61,6 +64,9 @@ public class RecurringEndpointScheduler {
                         testedCount++;
                         log.debug("Successfully tested recurring endpoint: {}", endpoint.getId());
                     }
+                } catch (RejectedExecutionException e) {
+                    // Engine is under pressure; last_run_at is left alone so the next run retries
+                    shedCount++;
                 } catch (Exception e) {
                     log.error("Error testing recurring endpoint {} ({}): {}", 
                         endpoint.getId(), endpoint.getName(), e.getMessage(), e);
@@ -71,6 +77,9 @@ public class RecurringEndpointScheduler {
             if (testedCount > 0) {
                 log.info("Completed scheduled test for {} recurring endpoint(s)", testedCount);
             }
+            if (shedCount > 0) {
+                log.warn("Deferred {} recurring endpoint test(s) while the testing engine is under pressure", shedCount);
+            }
         } catch (Exception e) {
             log.error("Error in scheduled recurring endpoint test: {}", e.getMessage(), e);
         }
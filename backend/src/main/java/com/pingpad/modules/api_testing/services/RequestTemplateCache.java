@@ -0,0 +1,184 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.protobuf.ByteString;
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.cache.services.CacheService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import testing.Testing;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * In-process cache of compiled engine requests, one per endpoint.
+ *
+ * Compiling an endpoint parses its header lines, normalizes the method and encodes the
+ * body once; every test after that only stamps the request ID, user and timestamp onto
+ * the template. Each lookup checks the template against the endpoint as currently loaded
+ * (normally an in-process hit in the endpoint cache) and recompiles it if the endpoint
+ * changed, so a template never outlives an edit even when an eviction is missed.
+ * Templates are also evicted by the endpoint event handler when an endpoint is updated
+ * or deleted on this node, and through the cache's invalidation broadcasts when that
+ * happens on another node, so dead ones don't linger until the TTL.
+ */
+@Service
+@Slf4j
+public class RequestTemplateCache {
+
+    private static final String ENDPOINT_KEY_PREFIX = "endpoint:";
+    private static final String USER_KEY_PREFIX = "endpoint:user:";
+
+    private final Cache<UUID, RequestTemplate> templates;
+
+    public RequestTemplateCache(CacheService cacheService,
+                                @Value("${api.testing.request-templates.maximum-size:10000}") long maximumSize,
+                                @Value("${api.testing.request-templates.ttl:PT5M}") Duration ttl) {
+        this.templates = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl)
+            .build();
+        cacheService.addInvalidationListener(this::onInvalidation);
+    }
+
+    /**
+     * A compiled request for one endpoint.
+     */
+    public static class RequestTemplate {
+        private final Testing.TestRequest request;
+        private final Long ownerId;
+        // Endpoint fields the request was compiled from
+        private final String url;
+        private final String method;
+        private final String headers;
+        private final String body;
+        // Set once the owner was found, so recurring tests can skip the user lookup
+        private volatile boolean ownerVerified;
+
+        RequestTemplate(Testing.TestRequest request, ApiEndpointProjection endpoint) {
+            this.request = request;
+            this.ownerId = endpoint.getUserId();
+            this.url = endpoint.getUrl();
+            this.method = endpoint.getMethod();
+            this.headers = endpoint.getHeaders();
+            this.body = endpoint.getBody();
+        }
+
+        public Testing.TestRequest getRequest() { return request; }
+
+        public Long getOwnerId() { return ownerId; }
+
+        public boolean isVerifiedOwner(Long userId) {
+            return ownerVerified && ownerId.equals(userId);
+        }
+
+        public void ownerFound(Long userId) {
+            if (ownerId.equals(userId)) {
+                ownerVerified = true;
+            }
+        }
+
+        /**
+         * Whether the template is still what compiling the endpoint would produce.
+         */
+        boolean compiledFrom(ApiEndpointProjection endpoint) {
+            return Objects.equals(url, endpoint.getUrl())
+                && Objects.equals(method, endpoint.getMethod())
+                && Objects.equals(headers, endpoint.getHeaders())
+                && Objects.equals(body, endpoint.getBody())
+                && Objects.equals(ownerId, endpoint.getUserId());
+        }
+
+        /**
+         * The request to send for one test run.
+         */
+        public Testing.TestRequest stamp(Long userId, String createdAt) {
+            return request.toBuilder()
+                .setId(UUID.randomUUID().toString())
+                .setUserId(userId.toString())
+                .setCreatedAt(createdAt)
+                .build();
+        }
+    }
+
+    /**
+     * Get the template for an endpoint, compiling it from the loaded endpoint on a miss
+     * or when the endpoint changed since the template was compiled.
+     */
+    public RequestTemplate get(UUID endpointId, Function<UUID, ApiEndpointProjection> loader) {
+        ApiEndpointProjection endpoint = loader.apply(endpointId);
+        RequestTemplate template = templates.getIfPresent(endpointId);
+        if (template == null || !template.compiledFrom(endpoint)) {
+            template = compile(endpoint);
+            templates.put(endpointId, template);
+        }
+        return template;
+    }
+
+    public void evict(UUID endpointId) {
+        templates.invalidate(endpointId);
+    }
+
+    /**
+     * Build the request fields that only change when the endpoint does.
+     */
+    static RequestTemplate compile(ApiEndpointProjection endpoint) {
+        // Parse headers from string
+        Map<String, String> headersMap = new HashMap<>();
+        if (endpoint.getHeaders() != null && !endpoint.getHeaders().isEmpty()) {
+            String[] headerLines = endpoint.getHeaders().split("\n");
+            for (String line : headerLines) {
+                String[] parts = line.split(":", 2);
+                if (parts.length == 2) {
+                    headersMap.put(parts[0].trim(), parts[1].trim());
+                }
+            }
+        }
+
+        Testing.TestRequest.Builder requestBuilder = Testing.TestRequest.newBuilder()
+            .setEndpointId(endpoint.getId().toString())
+            .setMethod(endpoint.getMethod())
+            .setUrl(endpoint.getUrl())
+            .putAllHeaders(headersMap)
+            .setTimeout("30s")
+            .setFollowRedirects(true)
+            .setMaxRetries(3);
+
+        // For GET/DELETE requests, don't include body. For other methods, include body if present
+        String method = endpoint.getMethod().toUpperCase();
+        if (endpoint.getBody() != null && !endpoint.getBody().isEmpty() &&
+            !"GET".equals(method) && !"DELETE".equals(method)) {
+            requestBuilder.setBody(ByteString.copyFrom(endpoint.getBody(), StandardCharsets.UTF_8));
+        }
+
+        return new RequestTemplate(requestBuilder.build(), endpoint);
+    }
+
+    private void onInvalidation(CacheService.InvalidationMessage invalidation) {
+        if (invalidation.getPattern() != null) {
+            // Rare, and a pattern can't be mapped to endpoint IDs cheaply
+            templates.invalidateAll();
+            return;
+        }
+        if (invalidation.getKeys() == null) {
+            return;
+        }
+        for (String key : invalidation.getKeys()) {
+            if (key.startsWith(ENDPOINT_KEY_PREFIX) && !key.startsWith(USER_KEY_PREFIX)) {
+                try {
+                    templates.invalidate(UUID.fromString(key.substring(ENDPOINT_KEY_PREFIX.length())));
+                } catch (IllegalArgumentException e) {
+                    log.debug("Ignoring invalidation of unexpected endpoint key {}", key);
+                }
+            }
+        }
+    }
+}
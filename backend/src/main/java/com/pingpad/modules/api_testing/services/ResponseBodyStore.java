@@ -0,0 +1,202 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.pingpad.modules.api_testing.models.ResponseBody;
+import com.pingpad.modules.api_testing.repositories.ResponseBodyRepository;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.UnsafeByteOperations;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed store for test result response bodies.
+ *
+ * Bodies are truncated to a configurable capture limit, hashed (SHA-256),
+ * deflate-compressed and written once per distinct payload. Recurring probes of
+ * the same endpoint usually return identical bodies, so most writes are skipped
+ * entirely via a small in-memory set of recently stored hashes.
+ *
+ * Bodies arrive as protobuf ByteStrings and are truncated, hashed and compressed from
+ * the ByteString's own buffers, so a large response isn't copied onto the heap before
+ * it is cut down to the capture limit. Only the stored content is materialized.
+ */
+@Service
+@Slf4j
+public class ResponseBodyStore {
+    private static final int RECENT_HASHES_CAPACITY = 10_000;
+
+    private final ResponseBodyRepository responseBodyRepository;
+    private final int maxCaptureBytes;
+    private final int compressionThreshold;
+    private final int compressionLevel;
+
+    // Hashes known to already exist in the store (bounded LRU)
+    private final Map<String, Boolean> recentHashes = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > RECENT_HASHES_CAPACITY;
+            }
+        });
+
+    public ResponseBodyStore(ResponseBodyRepository responseBodyRepository,
+                             @Value("${api.testing.results.body.max-capture-bytes:262144}") int maxCaptureBytes,
+                             @Value("${api.testing.results.body.compression-threshold:256}") int compressionThreshold,
+                             @Value("${api.testing.results.body.compression-level:1}") int compressionLevel) {
+        this.responseBodyRepository = responseBodyRepository;
+        this.maxCaptureBytes = maxCaptureBytes;
+        this.compressionThreshold = compressionThreshold;
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Store a response body and return its reference.
+     *
+     * @param body Raw response body bytes
+     * @return Reference to the stored body, or empty if there was no body
+     */
+    public Optional<StoredBody> store(byte[] body) {
+        return store(body == null ? null : UnsafeByteOperations.unsafeWrap(body));
+    }
+
+    /**
+     * Store a response body and return its reference, without copying more than the captured part.
+     *
+     * @param body Raw response body, e.g. straight from the gRPC result
+     * @return Reference to the stored body, or empty if there was no body
+     */
+    public Optional<StoredBody> store(ByteString body) {
+        if (body == null || body.isEmpty()) {
+            return Optional.empty();
+        }
+
+        boolean truncated = body.size() > maxCaptureBytes;
+        // substring shares the underlying buffer
+        ByteString captured = truncated ? body.substring(0, maxCaptureBytes) : body;
+        String hash = sha256(captured);
+
+        if (!recentHashes.containsKey(hash)) {
+            byte[] content = null;
+            String encoding = ResponseBody.ENCODING_DEFLATE;
+            if (captured.size() >= compressionThreshold) {
+                content = deflate(captured);
+            }
+            if (content == null) {
+                content = captured.toByteArray();
+                encoding = ResponseBody.ENCODING_IDENTITY;
+            }
+            responseBodyRepository.insertIfAbsent(hash, encoding, captured.size(), content);
+            recentHashes.put(hash, Boolean.TRUE);
+        }
+
+        return Optional.of(new StoredBody(hash, captured, truncated));
+    }
+
+    /**
+     * Load a stored body by hash as a UTF-8 string.
+     */
+    public Optional<String> load(String hash) {
+        if (hash == null) {
+            return Optional.empty();
+        }
+        return responseBodyRepository.findById(hash).map(this::decode);
+    }
+
+    private String decode(ResponseBody body) {
+        byte[] bytes = ResponseBody.ENCODING_DEFLATE.equals(body.getEncoding())
+            ? inflate(body.getContent(), body.getOriginalSize())
+            : body.getContent();
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Deflate the input, or return null if that wouldn't make it smaller.
+     */
+    private byte[] deflate(ByteString input) {
+        Deflater deflater = new Deflater(compressionLevel);
+        try {
+            // Output larger than the input isn't worth keeping, so it never needs to grow
+            byte[] output = new byte[input.size()];
+            int length = 0;
+            for (ByteBuffer chunk : input.asReadOnlyByteBufferList()) {
+                deflater.setInput(chunk);
+                while (!deflater.needsInput()) {
+                    length += deflater.deflate(output, length, output.length - length);
+                    if (length == output.length) {
+                        return null;
+                    }
+                }
+            }
+            deflater.finish();
+            while (!deflater.finished()) {
+                length += deflater.deflate(output, length, output.length - length);
+                if (length == output.length && !deflater.finished()) {
+                    return null;
+                }
+            }
+            return length < output.length ? Arrays.copyOf(output, length) : null;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private byte[] inflate(byte[] input, int originalSize) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            byte[] output = new byte[originalSize];
+            int offset = 0;
+            while (!inflater.finished() && offset < originalSize) {
+                int length = inflater.inflate(output, offset, originalSize - offset);
+                if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                offset += length;
+            }
+            return offset == originalSize ? output : Arrays.copyOf(output, offset);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt stored response body", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static String sha256(ByteString bytes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (ByteBuffer chunk : bytes.asReadOnlyByteBufferList()) {
+                digest.update(chunk);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Reference to a stored body, plus the captured bytes for the caller's immediate use.
+     */
+    public record StoredBody(String hash, ByteString captured, boolean truncated) {
+        public int size() {
+            return captured.size();
+        }
+
+        public String asString() {
+            return captured.toStringUtf8();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Limit on the number of test runs writing to the database at once.
+ *
+ * Up to max-concurrent-tests engine calls can be in flight, far more than the connection
+ * pool holds. Without a bound, results finishing together would all wait on Hikari for a
+ * connection and time out there, taking dashboard and API requests down with them. Test
+ * runs instead queue here, and leave a few connections free for everything else.
+ */
+@Service
+@Slf4j
+public class ResultPersistenceLimiter {
+
+    // Hikari's own default, for data sources that don't report a pool size
+    private static final int DEFAULT_POOL_SIZE = 10;
+
+    private final Semaphore permits;
+    private final int limit;
+
+    @Autowired
+    public ResultPersistenceLimiter(DataSource dataSource,
+                                    @Value("${api.testing.persistence.reserved-connections:4}") int reservedConnections) {
+        this(Math.max(1, poolSize(dataSource) - reservedConnections));
+        log.info("Test result persistence limited to {} concurrent test run(s), {} connection(s) kept free",
+            limit, reservedConnections);
+    }
+
+    public ResultPersistenceLimiter(int limit) {
+        this.limit = limit;
+        this.permits = new Semaphore(limit, true);
+    }
+
+    /**
+     * Run database work for a test run once a slot is free.
+     */
+    public <T> T call(Supplier<T> work) {
+        permits.acquireUninterruptibly();
+        try {
+            return work.get();
+        } finally {
+            permits.release();
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getAvailable() {
+        return permits.availablePermits();
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read connection pool size: {}", e.getMessage());
+        }
+        return DEFAULT_POOL_SIZE;
+    }
+}
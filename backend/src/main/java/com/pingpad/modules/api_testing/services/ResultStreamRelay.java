@@ -0,0 +1,108 @@
+package com.pingpad.modules.api_testing.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fans result stream events out to the other replicas over Redis pub/sub,
+ * so a dashboard sees results no matter which node ran the test.
+ *
+ * Publishing happens off the persistence path on a single thread with a bounded
+ * queue; if Redis is slow or down, the oldest pending events are discarded.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "cache.redis.pubsub.enabled", havingValue = "true", matchIfMissing = true)
+public class ResultStreamRelay implements MessageListener {
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ResultStreamService resultStreamService;
+    private final String channel;
+
+    // Identifies this replica so it ignores its own messages
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final ThreadPoolExecutor publisher = new ThreadPoolExecutor(
+        1, 1, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(1000),
+        runnable -> {
+            Thread thread = new Thread(runnable, "result-stream-relay");
+            thread.setDaemon(true);
+            return thread;
+        },
+        new ThreadPoolExecutor.DiscardOldestPolicy());
+
+    public ResultStreamRelay(RedisTemplate<String, Object> redisTemplate,
+                             RedisMessageListenerContainer listenerContainer,
+                             ResultStreamService resultStreamService,
+                             @Value("${api.testing.stream.redis-channel:pingpad:result-stream}") String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.resultStreamService = resultStreamService;
+        this.channel = channel;
+    }
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(channel));
+    }
+
+    /**
+     * Publish an event to the other replicas.
+     */
+    public void publish(ResultStreamService.StreamEvent event) {
+        RelayMessage message = new RelayMessage(instanceId, event);
+        publisher.execute(() -> {
+            try {
+                redisTemplate.convertAndSend(channel, message);
+            } catch (Exception e) {
+                log.warn("Error relaying result stream event: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload instanceof RelayMessage relayMessage
+                    && !instanceId.equals(relayMessage.getOrigin())
+                    && relayMessage.getEvent() != null) {
+                resultStreamService.deliverLocally(relayMessage.getEvent());
+            }
+        } catch (Exception e) {
+            log.warn("Error handling relayed result stream event: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listenerContainer.removeMessageListener(this);
+        publisher.shutdown();
+    }
+
+    /**
+     * Envelope for relayed events, tagged with the publishing replica.
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class RelayMessage {
+        private String origin;
+        private ResultStreamService.StreamEvent event;
+    }
+}
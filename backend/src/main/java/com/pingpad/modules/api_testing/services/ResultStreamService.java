@@ -0,0 +1,285 @@
+package com.pingpad.modules.api_testing.services;
+
+import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.models.ApiTestResultSummary;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes new test results and alarm count changes to dashboards over Server-Sent Events.
+ *
+ * Events are fed in-process from the result persistence path and routed to the owner of
+ * the endpoint. Each connection has a bounded buffer drained by its own virtual thread,
+ * so a slow client never blocks the publisher or other clients: when its buffer is full
+ * the oldest events are dropped and the client is told to resync, and a send that stalls
+ * past the send timeout closes the connection. Events are also relayed to other replicas
+ * via {@link ResultStreamRelay} when Redis pub/sub is enabled.
+ */
+@Service
+@Slf4j
+public class ResultStreamService {
+    public static final String EVENT_RESULT = "result";
+    public static final String EVENT_ALARMS = "alarms";
+    public static final String EVENT_RESYNC = "resync";
+
+    private final ObjectProvider<ResultStreamRelay> relayProvider;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+    private final long sendTimeoutNanos;
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Open connections per user
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+
+    public ResultStreamService(ObjectProvider<ResultStreamRelay> relayProvider,
+                               @Value("${api.testing.stream.buffer-size:256}") int bufferSize,
+                               @Value("${api.testing.stream.timeout:PT30M}") Duration emitterTimeout,
+                               @Value("${api.testing.stream.send-timeout:PT30S}") Duration sendTimeout) {
+        this.relayProvider = relayProvider;
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMs = emitterTimeout.toMillis();
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+    }
+
+    /**
+     * Open a stream for a user, optionally limited to a single endpoint.
+     *
+     * @param snapshot Optional first event for this connection only (e.g. the current alarm count)
+     */
+    public SseEmitter subscribe(Long userId, UUID endpointId, StreamEvent snapshot) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscription subscription = new Subscription(userId, endpointId, emitter);
+        subscriptions.computeIfAbsent(userId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(error -> unsubscribe(subscription));
+
+        if (snapshot != null) {
+            subscription.offer(snapshot);
+        }
+        log.debug("Opened result stream for user {} (endpoint filter: {})", userId, endpointId);
+        return emitter;
+    }
+
+    /**
+     * Publish a freshly persisted test result to the owner of its endpoint.
+     */
+    public void publishResult(ApiTestResult result, Long ownerId) {
+        if (result == null || ownerId == null) {
+            return;
+        }
+        publish(StreamEvent.builder()
+            .type(EVENT_RESULT)
+            .userId(ownerId)
+            .endpointId(result.getEndpointId())
+            .result(new ApiTestResultSummary(result.getId(), result.getTimestamp(),
+                result.getStatusCode(), result.getResponseTime(), result.getSuccess()))
+            .error(result.getError())
+            .build());
+    }
+
+    /**
+     * Publish a change in a user's unacknowledged alarm count.
+     */
+    public void publishAlarmDelta(Long userId, long delta) {
+        if (userId == null || delta == 0) {
+            return;
+        }
+        publish(StreamEvent.builder()
+            .type(EVENT_ALARMS)
+            .userId(userId)
+            .alarmDelta(delta)
+            .build());
+    }
+
+    private void publish(StreamEvent event) {
+        deliverLocally(event);
+        ResultStreamRelay relay = relayProvider.getIfAvailable();
+        if (relay != null) {
+            relay.publish(event);
+        }
+    }
+
+    /**
+     * Deliver an event to connections on this node.
+     */
+    public void deliverLocally(StreamEvent event) {
+        Set<Subscription> userSubscriptions = subscriptions.get(event.getUserId());
+        if (userSubscriptions == null) {
+            return;
+        }
+        for (Subscription subscription : userSubscriptions) {
+            if (subscription.accepts(event)) {
+                subscription.offer(event);
+            }
+        }
+    }
+
+    /**
+     * Send a heartbeat comment so proxies keep idle connections open and dead ones are detected,
+     * and close connections whose client stopped reading.
+     */
+    @Scheduled(fixedDelayString = "${api.testing.stream.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        long now = System.nanoTime();
+        for (Set<Subscription> userSubscriptions : subscriptions.values()) {
+            for (Subscription subscription : userSubscriptions) {
+                if (subscription.isStalled(now)) {
+                    subscription.close();
+                } else {
+                    subscription.offer(Subscription.HEARTBEAT);
+                }
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return subscriptions.values().stream().mapToInt(Set::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(userSubscriptions ->
+            userSubscriptions.forEach(subscription -> subscription.emitter.complete()));
+        subscriptions.clear();
+        senders.shutdownNow();
+    }
+
+    private void unsubscribe(Subscription subscription) {
+        subscriptions.computeIfPresent(subscription.userId, (id, userSubscriptions) -> {
+            userSubscriptions.remove(subscription);
+            return userSubscriptions.isEmpty() ? null : userSubscriptions;
+        });
+    }
+
+    /**
+     * A single SSE connection with its bounded outgoing buffer.
+     */
+    private final class Subscription {
+        private static final Object HEARTBEAT = new Object();
+
+        private final Long userId;
+        private final UUID endpointId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Object> buffer = new ArrayDeque<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private int dropped;
+        // When the send in progress started, or 0 while no send is blocked
+        private volatile long sendingSinceNanos;
+
+        Subscription(Long userId, UUID endpointId, SseEmitter emitter) {
+            this.userId = userId;
+            this.endpointId = endpointId;
+            this.emitter = emitter;
+        }
+
+        boolean accepts(StreamEvent event) {
+            return endpointId == null || event.getEndpointId() == null || endpointId.equals(event.getEndpointId());
+        }
+
+        void offer(Object item) {
+            synchronized (buffer) {
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(item);
+            }
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        boolean isStalled(long now) {
+            long since = sendingSinceNanos;
+            return since != 0 && now - since > sendTimeoutNanos;
+        }
+
+        /**
+         * Drop a connection whose sender is stuck writing to it.
+         */
+        void close() {
+            log.debug("Result stream for user {} stalled, closing it", userId);
+            unsubscribe(this);
+            // Completing may wait for the stuck send, so don't hold up the caller
+            senders.execute(() -> emitter.completeWithError(new IOException("Result stream send timed out")));
+        }
+
+        private void drain() {
+            try {
+                while (true) {
+                    Object next;
+                    int droppedSinceLastSend;
+                    synchronized (buffer) {
+                        next = buffer.pollFirst();
+                        droppedSinceLastSend = dropped;
+                        dropped = 0;
+                        if (next == null) {
+                            draining.set(false);
+                            return;
+                        }
+                    }
+                    sendingSinceNanos = System.nanoTime();
+                    if (droppedSinceLastSend > 0) {
+                        emitter.send(SseEmitter.event()
+                            .name(EVENT_RESYNC)
+                            .data(Map.of("dropped", droppedSinceLastSend)));
+                    }
+                    if (next == HEARTBEAT) {
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        StreamEvent event = (StreamEvent) next;
+                        emitter.send(SseEmitter.event().name(event.getType()).data(event));
+                    }
+                    sendingSinceNanos = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                sendingSinceNanos = 0;
+                // Client went away; the emitter callbacks remove the subscription
+                log.debug("Result stream for user {} closed: {}", userId, e.getMessage());
+                draining.set(false);
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    /**
+     * Event pushed to dashboards (and relayed between replicas).
+     */
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class StreamEvent {
+        private String type;
+        private Long userId;
+        private UUID endpointId;
+        private ApiTestResultSummary result;
+        private String error;
+        private Long alarmDelta;
+        private Long alarmCount;
+    }
+}
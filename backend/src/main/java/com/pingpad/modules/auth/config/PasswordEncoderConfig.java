@@ -1,5 +1,8 @@
 package com.pingpad.modules.auth.config;
 
+import com.pingpad.modules.auth.services.HashingExecutorPasswordEncoder;
+import com.pingpad.modules.auth.services.PasswordHashingExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -8,8 +11,13 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Configuration
 public class PasswordEncoderConfig {
 
+    /**
+     * Raising the strength upgrades existing hashes on each user's next successful login.
+     * Hashing runs on the password hashing executor, whichever thread asks for it.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${auth.password-hashing.bcrypt-strength:10}") int strength,
+                                           PasswordHashingExecutor passwordHashing) {
+        return new HashingExecutorPasswordEncoder(new BCryptPasswordEncoder(strength), passwordHashing);
     }
 }
@@ -2,7 +2,10 @@ package com.pingpad.modules.auth.controllers;
 
 import com.pingpad.modules.auth.services.CustomUserDetailsService;
 import com.pingpad.modules.auth.services.LoginRateLimiter;
+import com.pingpad.modules.auth.services.PasswordHashingExecutor;
+import com.pingpad.modules.auth.services.TokenRevocationList;
 import com.pingpad.modules.auth.utils.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
 import com.pingpad.modules.user_management.models.User;
 import com.pingpad.modules.user_management.repositories.UserRepository;
 import jakarta.servlet.http.HttpServletRequest;
@@ -11,12 +14,16 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -28,58 +35,71 @@ public class AuthController {
     private final JwtTokenUtil jwtTokenUtil;
     private final CustomUserDetailsService userDetailsService;
     private final LoginRateLimiter rateLimiter;
+    private final TokenRevocationList revocationList;
+    private final PasswordHashingExecutor passwordHashing;
 
     public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder,
                          AuthenticationManager authenticationManager, JwtTokenUtil jwtTokenUtil,
-                         CustomUserDetailsService userDetailsService, LoginRateLimiter rateLimiter) {
+                         CustomUserDetailsService userDetailsService, LoginRateLimiter rateLimiter,
+                         TokenRevocationList revocationList, PasswordHashingExecutor passwordHashing) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.authenticationManager = authenticationManager;
         this.jwtTokenUtil = jwtTokenUtil;
         this.userDetailsService = userDetailsService;
         this.rateLimiter = rateLimiter;
+        this.revocationList = revocationList;
+        this.passwordHashing = passwordHashing;
     }
 
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegisterRequest request) {
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegisterRequest request) {
         // Validate input
         if (request.email == null || request.email.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Email is required"));
+            return done(ResponseEntity.badRequest().body(Map.of("error", "Email is required")));
         }
         if (request.name == null || request.name.trim().isEmpty()) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Name is required"));
+            return done(ResponseEntity.badRequest().body(Map.of("error", "Name is required")));
         }
         if (request.password == null || request.password.length() < 6) {
-            return ResponseEntity.badRequest().body(Map.of("error", "Password must be at least 6 characters"));
+            return done(ResponseEntity.badRequest().body(Map.of("error", "Password must be at least 6 characters")));
         }
 
         // Check if user already exists
         if (userRepository.findByEmail(request.email).isPresent()) {
-            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Email already registered"));
+            return done(ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", "Email already registered")));
         }
 
-        // Create new user
-        User user = new User();
-        user.setEmail(request.email.trim().toLowerCase());
-        user.setName(request.name.trim());
-        user.setPassword(passwordEncoder.encode(request.password));
-        user = userRepository.save(user);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("message", "User registered successfully");
-        response.put("user", Map.of(
-            "id", user.getId(),
-            "email", user.getEmail(),
-            "name", user.getName()
-        ));
-
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        // Hash on the hashing executor, then save on a virtual thread rather than a hashing thread
+        return passwordHashing.submit(() -> passwordEncoder.encode(request.password))
+            .handleAsync((encodedPassword, error) -> {
+                if (error != null) {
+                    return failure(error);
+                }
+
+                // Create new user
+                User user = new User();
+                user.setEmail(request.email.trim().toLowerCase());
+                user.setName(request.name.trim());
+                user.setPassword(encodedPassword);
+                user = userRepository.save(user);
+
+                Map<String, Object> response = new HashMap<>();
+                response.put("message", "User registered successfully");
+                response.put("user", Map.of(
+                    "id", user.getId(),
+                    "email", user.getEmail(),
+                    "name", user.getName()
+                ));
+
+                return ResponseEntity.status(HttpStatus.CREATED).body(response);
+            }, passwordHashing.blockingExecutor());
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
-        // Get client IP address
-        String clientIp = getClientIpAddress(httpRequest);
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        // Client IP as resolved by the container (X-Forwarded-For only from trusted proxies)
+        String clientIp = httpRequest.getRemoteAddr();
         
         // Check rate limit before processing
         if (rateLimiter.isRateLimited(clientIp)) {
@@ -87,37 +107,71 @@ public class AuthController {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Too many login attempts. Please try again later.");
             errorResponse.put("retryAfter", secondsUntilReset);
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse);
+            return done(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(errorResponse));
         }
 
-        try {
-            authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(request.email, request.password)
-            );
-            
-            // Successful login - clear rate limit for this IP
-            rateLimiter.clearAttempts(clientIp);
-            
-        } catch (BadCredentialsException e) {
-            // Record failed attempt
-            rateLimiter.recordAttempt(clientIp);
-            
-            int remainingAttempts = rateLimiter.getRemainingAttempts(clientIp);
-            Map<String, Object> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Invalid email or password");
-            if (remainingAttempts > 0) {
-                errorResponse.put("remainingAttempts", remainingAttempts);
-            } else {
-                long secondsUntilReset = rateLimiter.getSecondsUntilReset(clientIp);
-                errorResponse.put("retryAfter", secondsUntilReset);
-            }
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
-        }
+        // The request thread is released meanwhile
+        return authenticate(request.email, request.password)
+            .handle((authentication, error) -> {
+                if (unwrap(error) instanceof BadCredentialsException) {
+                    // Record failed attempt
+                    rateLimiter.recordAttempt(clientIp);
+
+                    int remainingAttempts = rateLimiter.getRemainingAttempts(clientIp);
+                    Map<String, Object> errorResponse = new HashMap<>();
+                    errorResponse.put("error", "Invalid email or password");
+                    if (remainingAttempts > 0) {
+                        errorResponse.put("remainingAttempts", remainingAttempts);
+                    } else {
+                        long secondsUntilReset = rateLimiter.getSecondsUntilReset(clientIp);
+                        errorResponse.put("retryAfter", secondsUntilReset);
+                    }
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
+                }
+                if (error != null) {
+                    return failure(error);
+                }
+
+                // Successful login - clear rate limit for this IP
+                rateLimiter.clearAttempts(clientIp);
+                return tokenResponse(authentication, request.email);
+            });
+    }
+
+    @PostMapping("/login-as-test")
+    public CompletableFuture<ResponseEntity<?>> loginAsTest() {
+        // Authenticate test user
+        return authenticate("test-user@pingpad.local", "test-password")
+            .handle((authentication, error) -> {
+                if (unwrap(error) instanceof BadCredentialsException) {
+                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                        .body(Map.of("error", "Test user authentication failed"));
+                }
+                if (error != null) {
+                    return failure(error);
+                }
+                return tokenResponse(authentication, "test-user@pingpad.local");
+            });
+    }
+
+    /**
+     * Authenticate on a virtual thread. Loading the user and upgrading an outdated hash are
+     * blocking I/O and stay there; only the password check goes to the hashing executor,
+     * through the password encoder.
+     */
+    private CompletableFuture<Authentication> authenticate(String email, String password) {
+        return CompletableFuture.supplyAsync(() -> authenticationManager.authenticate(
+            new UsernamePasswordAuthenticationToken(email, password)), passwordHashing.blockingExecutor());
+    }
 
-        final UserDetails userDetails = userDetailsService.loadUserByUsername(request.email);
+    private ResponseEntity<?> tokenResponse(Authentication authentication, String email) {
+        // The authenticated principal already carries what the token needs
+        final UserDetails userDetails = authentication.getPrincipal() instanceof UserDetails principal
+            ? principal
+            : userDetailsService.loadUserByUsername(email);
         final String token = jwtTokenUtil.generateToken(userDetails);
 
-        User user = userRepository.findByEmail(request.email).orElse(null);
+        User user = userRepository.findByEmail(email).orElse(null);
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -132,63 +186,37 @@ public class AuthController {
     }
 
     /**
-     * Extract client IP address from request, handling proxies
+     * Response for failures other than bad credentials: 503 if the hashing executor is saturated.
      */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("X-Real-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("WL-Proxy-Client-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        // Handle multiple IPs in X-Forwarded-For header
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
+    private ResponseEntity<?> failure(Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(Map.of("error", "Too many concurrent logins. Please try again shortly."));
         }
-        return ip != null ? ip : "unknown";
+        throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
     }
 
-    @PostMapping("/login-as-test")
-    public ResponseEntity<?> loginAsTest() {
-        try {
-            // Authenticate test user
-            authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken("test-user@pingpad.local", "test-password")
-            );
-
-            final UserDetails userDetails = userDetailsService.loadUserByUsername("test-user@pingpad.local");
-            final String token = jwtTokenUtil.generateToken(userDetails);
-
-            User testUser = userRepository.findByEmail("test-user@pingpad.local")
-                .orElseThrow(() -> new RuntimeException("Test user not found"));
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
-            response.put("type", "Bearer");
-            response.put("user", Map.of(
-                "email", testUser.getEmail(),
-                "name", testUser.getName(),
-                "id", testUser.getId()
-            ));
-
-            return ResponseEntity.ok(response);
-        } catch (BadCredentialsException e) {
-            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
-                .body(Map.of("error", "Test user authentication failed"));
-        }
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static CompletableFuture<ResponseEntity<?>> done(ResponseEntity<?> response) {
+        return CompletableFuture.completedFuture(response);
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<?> logout() {
-        // With JWT, logout is handled client-side by removing the token
-        // This endpoint is just for consistency
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authorization) {
+        // The client drops the token; revoke it as well so it can't be replayed until it expires
+        if (authorization != null && authorization.startsWith("Bearer ")) {
+            try {
+                Claims claims = jwtTokenUtil.getAllClaimsFromToken(authorization.substring(7));
+                revocationList.revoke(claims.getId(), claims.getExpiration());
+            } catch (Exception e) {
+                // Invalid or expired tokens don't need revoking
+            }
+        }
         return ResponseEntity.ok(Map.of("message", "Logged out successfully"));
     }
 
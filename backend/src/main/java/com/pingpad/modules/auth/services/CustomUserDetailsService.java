@@ -1,32 +1,71 @@
 package com.pingpad.modules.auth.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pingpad.modules.auth.models.AuthenticatedUser;
 import com.pingpad.modules.user_management.models.User;
 import com.pingpad.modules.user_management.repositories.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
-import java.util.Collections;
+import java.time.Duration;
+import java.util.List;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
+
+    public static final List<String> DEFAULT_ROLES = List.of("ROLE_USER");
 
     private final UserRepository userRepository;
 
-    public CustomUserDetailsService(UserRepository userRepository) {
+    // Principals (without password) for tokens issued before the user ID was embedded as a claim
+    private final Cache<String, AuthenticatedUser> principals;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${jwt.principal-cache.ttl:PT5M}") Duration principalCacheTtl) {
         this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfterWrite(principalCacheTtl)
+            .build();
     }
 
     @Override
-    public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+    public AuthenticatedUser loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email)
             .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + email));
 
-        return org.springframework.security.core.userdetails.User.builder()
-            .username(user.getEmail())
-            .password(user.getPassword())
-            .authorities(Collections.singletonList(() -> "ROLE_USER"))
-            .build();
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(), DEFAULT_ROLES);
+    }
+
+    /**
+     * Principal for an already authenticated user, cached for a short while.
+     * Only needed for tokens that don't carry the user ID themselves.
+     */
+    public AuthenticatedUser loadPrincipal(String email) throws UsernameNotFoundException {
+        return principals.get(email, key -> {
+            AuthenticatedUser user = loadUserByUsername(key);
+            return new AuthenticatedUser(user.getId(), user.getUsername(), null, user.getRoles());
+        });
+    }
+
+    /**
+     * Store a password re-hashed with the current encoder parameters.
+     * Called by the authentication provider after a successful login with an outdated hash.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByEmail(userDetails.getUsername())
+            .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        userRepository.save(user);
+        log.info("Upgraded password hash for user {}", user.getId());
+        return new AuthenticatedUser(user.getId(), user.getEmail(), newPassword, DEFAULT_ROLES);
     }
 }
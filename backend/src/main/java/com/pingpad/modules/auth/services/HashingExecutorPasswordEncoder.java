@@ -0,0 +1,37 @@
+package com.pingpad.modules.auth.services;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder that runs the hashing of its delegate on the {@link PasswordHashingExecutor}.
+ *
+ * Lets code that hashes as part of a larger blocking call, such as the authentication
+ * provider between loading the user and upgrading the stored hash, run that call on any
+ * thread while the CPU work stays on the bounded hashing threads.
+ */
+public class HashingExecutorPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor hashing;
+
+    public HashingExecutorPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor hashing) {
+        this.delegate = delegate;
+        this.hashing = hashing;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return hashing.run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return hashing.run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only parses the stored hash
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,102 @@
+package com.pingpad.modules.auth.services;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Dedicated executor for password hashing and verification.
+ *
+ * BCrypt costs tens of milliseconds of CPU per call. Running it on request threads lets a
+ * burst of logins occupy every Tomcat thread, so it runs here instead: one thread per core
+ * at most and a bounded queue. When the queue is full, work is rejected right away rather
+ * than piling up, and the caller answers with 503.
+ *
+ * Only the hashing itself belongs on these threads. The database and Redis work around it
+ * (user lookups, saves, issuing tokens) runs on {@link #blockingExecutor()}, which starts a
+ * virtual thread per task, so slow I/O never holds up a hashing thread.
+ */
+@Service
+@Slf4j
+public class PasswordHashingExecutor {
+
+    private static final ThreadLocal<Boolean> HASHING_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService blockingWork = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PasswordHashingExecutor(@Value("${auth.password-hashing.threads:0}") int threads,
+                                   @Value("${auth.password-hashing.queue-capacity:200}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(() -> {
+                    HASHING_THREAD.set(true);
+                    runnable.run();
+                }, "password-hashing-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Run a task on the hashing threads.
+     * The future fails with a RejectedExecutionException if the queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Password hashing queue full ({} queued), rejecting request", executor.getQueue().size());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Run a task on the hashing threads and wait for its result, or run it in place when
+     * already on one. Throws RejectedExecutionException if the queue is full.
+     */
+    public <T> T run(Supplier<T> task) {
+        if (HASHING_THREAD.get()) {
+            return task.get();
+        }
+        try {
+            return submit(task).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Executor for the blocking work before and after hashing.
+     */
+    public Executor blockingExecutor() {
+        return blockingWork;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        blockingWork.shutdownNow();
+    }
+}
@@ -0,0 +1,85 @@
+package com.pingpad.modules.auth.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked JWTs (by token ID) that must be rejected before they expire.
+ *
+ * Since tokens are verified without a database lookup, revocation is the only way
+ * to invalidate one early (e.g. on logout). The list lives in a Redis sorted set
+ * scored by token expiry, plus a version counter. Every node keeps a local copy and
+ * only reloads it when the version changes, so checking a token is a map lookup.
+ */
+@Service
+@Slf4j
+public class TokenRevocationList {
+    private static final String REVOKED_KEY = "auth:revoked-tokens";
+    private static final String VERSION_KEY = "auth:revoked-tokens:version";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    // Revoked token ID -> expiry (epoch millis)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile Object loadedVersion;
+
+    public TokenRevocationList(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public boolean isRevoked(String tokenId) {
+        return tokenId != null && revoked.containsKey(tokenId);
+    }
+
+    /**
+     * Revoke a token until it expires.
+     */
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt.getTime());
+        try {
+            redisTemplate.opsForZSet().add(REVOKED_KEY, tokenId, expiresAt.getTime());
+            redisTemplate.opsForValue().increment(VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("Could not share token revocation with other nodes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Pick up revocations made on other nodes and forget expired ones.
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval:PT10S}")
+    public void refresh() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt < now);
+        try {
+            Object version = redisTemplate.opsForValue().get(VERSION_KEY);
+            if (version == null || Objects.equals(version, loadedVersion)) {
+                return;
+            }
+            redisTemplate.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, now);
+            Set<Object> tokenIds = redisTemplate.opsForZSet().rangeByScore(REVOKED_KEY, now, Double.MAX_VALUE);
+            if (tokenIds != null) {
+                for (Object tokenId : tokenIds) {
+                    Double expiresAt = redisTemplate.opsForZSet().score(REVOKED_KEY, tokenId);
+                    if (expiresAt != null) {
+                        revoked.putIfAbsent(String.valueOf(tokenId), expiresAt.longValue());
+                    }
+                }
+            }
+            loadedVersion = version;
+        } catch (Exception e) {
+            log.debug("Could not refresh token revocation list: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.pingpad.modules.auth.utils;
+
+import com.pingpad.modules.auth.models.AuthenticatedUser;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Access to the user of the current request.
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {}
+
+    /**
+     * ID of the authenticated user, taken from the JWT principal.
+     *
+     * @throws AuthenticationCredentialsNotFoundException if the request isn't authenticated as a user
+     */
+    public static Long id() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return user.getId();
+        }
+        throw new AuthenticationCredentialsNotFoundException("No authenticated user for this request");
+    }
+}
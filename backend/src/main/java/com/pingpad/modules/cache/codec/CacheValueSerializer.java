@@ -0,0 +1,255 @@
+package com.pingpad.modules.cache.codec;
+
+import com.pingpad.modules.cache.services.CacheService;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Redis value serializer using compact, type-registered binary encodings.
+ *
+ * Layout: a magic byte, a flags byte and the encoded value, deflated when it is larger
+ * than the compression threshold. Strings, numbers, lists and cache entries are built in;
+ * other types are handled by their {@link CacheCodec}, and anything without a codec falls
+ * back to the JSON serializer. Values without the magic byte are read as JSON, so entries
+ * written before this format keep working until they expire.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+    public static final int FIRST_CUSTOM_TYPE_ID = 32;
+
+    // Never a valid first byte of UTF-8 JSON
+    private static final byte MAGIC = (byte) 0xC1;
+    private static final byte FLAG_DEFLATED = 0x01;
+
+    private static final int TYPE_NULL = 0;
+    private static final int TYPE_JSON = 1;
+    private static final int TYPE_STRING = 2;
+    private static final int TYPE_LONG = 3;
+    private static final int TYPE_INTEGER = 4;
+    private static final int TYPE_BOOLEAN = 5;
+    private static final int TYPE_LIST = 6;
+    private static final int TYPE_CACHE_ENTRY = 7;
+
+    private final Map<Class<?>, CacheCodec<Object>> codecsByType = new HashMap<>();
+    private final Map<Integer, CacheCodec<Object>> codecsById = new HashMap<>();
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+
+    @SuppressWarnings("unchecked")
+    public CacheValueSerializer(Collection<CacheCodec<?>> codecs, RedisSerializer<Object> fallback,
+                                int compressionThreshold) {
+        for (CacheCodec<?> codec : codecs) {
+            if (codec.typeId() < FIRST_CUSTOM_TYPE_ID || codec.typeId() > 255) {
+                throw new IllegalStateException("Cache codec type ID out of range: " + codec.typeId());
+            }
+            CacheCodec<Object> previous = codecsById.put(codec.typeId(), (CacheCodec<Object>) codec);
+            if (previous != null) {
+                throw new IllegalStateException("Duplicate cache codec type ID " + codec.typeId()
+                    + " for " + previous.type().getName() + " and " + codec.type().getName());
+            }
+            codecsByType.put(codec.type(), (CacheCodec<Object>) codec);
+        }
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            writeValue(new DataOutputStream(buffer), value);
+            byte[] encoded = buffer.toByteArray();
+
+            if (encoded.length >= compressionThreshold) {
+                byte[] deflated = deflate(encoded);
+                if (deflated.length + Integer.BYTES < encoded.length) {
+                    ByteArrayOutputStream framed = new ByteArrayOutputStream(deflated.length + 6);
+                    DataOutputStream out = new DataOutputStream(framed);
+                    out.writeByte(MAGIC);
+                    out.writeByte(FLAG_DEFLATED);
+                    out.writeInt(encoded.length);
+                    out.write(deflated);
+                    return framed.toByteArray();
+                }
+            }
+
+            byte[] framed = new byte[encoded.length + 2];
+            framed[0] = MAGIC;
+            framed[1] = 0;
+            System.arraycopy(encoded, 0, framed, 2, encoded.length);
+            return framed;
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value of type " + value.getClass().getName(), e);
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2));
+            if ((bytes[1] & FLAG_DEFLATED) != 0) {
+                int length = in.readInt();
+                byte[] inflated = inflate(bytes, 6, bytes.length - 6, length);
+                in = new DataInputStream(new ByteArrayInputStream(inflated));
+            }
+            return readValue(in);
+        } catch (IOException | DataFormatException e) {
+            throw new SerializationException("Could not decode cache value", e);
+        }
+    }
+
+    private void writeValue(DataOutput out, Object value) throws IOException {
+        if (value == null) {
+            out.writeByte(TYPE_NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(TYPE_STRING);
+            CacheCodec.writeString(out, string);
+        } else if (value instanceof Long number) {
+            out.writeByte(TYPE_LONG);
+            out.writeLong(number);
+        } else if (value instanceof Integer number) {
+            out.writeByte(TYPE_INTEGER);
+            out.writeInt(number);
+        } else if (value instanceof Boolean bool) {
+            out.writeByte(TYPE_BOOLEAN);
+            out.writeBoolean(bool);
+        } else if (value instanceof List<?> list) {
+            out.writeByte(TYPE_LIST);
+            out.writeInt(list.size());
+            for (Object element : list) {
+                writeValue(out, element);
+            }
+        } else if (value instanceof CacheService.CacheEntry entry) {
+            out.writeByte(TYPE_CACHE_ENTRY);
+            out.writeLong(entry.getSoftExpiresAt());
+            out.writeLong(entry.getLoadMillis());
+            writeValue(out, entry.getValue());
+        } else {
+            CacheCodec<Object> codec = codecFor(value.getClass());
+            if (codec != null) {
+                out.writeByte(codec.typeId());
+                codec.write(value, out);
+            } else {
+                byte[] json = fallback.serialize(value);
+                out.writeByte(TYPE_JSON);
+                out.writeInt(json.length);
+                out.write(json);
+            }
+        }
+    }
+
+    private Object readValue(DataInput in) throws IOException {
+        int type = in.readUnsignedByte();
+        switch (type) {
+            case TYPE_NULL:
+                return null;
+            case TYPE_STRING:
+                return CacheCodec.readString(in);
+            case TYPE_LONG:
+                return in.readLong();
+            case TYPE_INTEGER:
+                return in.readInt();
+            case TYPE_BOOLEAN:
+                return in.readBoolean();
+            case TYPE_LIST: {
+                int size = in.readInt();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    list.add(readValue(in));
+                }
+                return list;
+            }
+            case TYPE_CACHE_ENTRY: {
+                long softExpiresAt = in.readLong();
+                long loadMillis = in.readLong();
+                return new CacheService.CacheEntry(readValue(in), softExpiresAt, loadMillis);
+            }
+            case TYPE_JSON: {
+                byte[] json = new byte[in.readInt()];
+                in.readFully(json);
+                return fallback.deserialize(json);
+            }
+            default: {
+                CacheCodec<Object> codec = codecsById.get(type);
+                if (codec == null) {
+                    throw new IOException("Unknown cache value type ID: " + type);
+                }
+                return codec.read(in);
+            }
+        }
+    }
+
+    private CacheCodec<Object> codecFor(Class<?> type) {
+        CacheCodec<Object> codec = codecsByType.get(type);
+        if (codec != null) {
+            return codec;
+        }
+        // Subclasses such as Hibernate proxies use their entity's codec
+        for (CacheCodec<Object> candidate : codecsById.values()) {
+            if (candidate.type().isAssignableFrom(type)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(data);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 2);
+            byte[] chunk = new byte[4096];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(chunk);
+                out.write(chunk, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int offset, int length, int originalLength) throws DataFormatException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] out = new byte[originalLength];
+            int written = 0;
+            while (written < originalLength && !inflater.finished()) {
+                int n = inflater.inflate(out, written, originalLength - written);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated cache value");
+                }
+                written += n;
+            }
+            return out;
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -1,22 +1,31 @@
 package com.pingpad.modules.cache.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
 import com.fasterxml.jackson.databind.jsontype.PolymorphicTypeValidator;
-import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pingpad.modules.cache.codec.CacheCodec;
+import com.pingpad.modules.cache.codec.CacheValueSerializer;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.time.Duration;
+
 /**
  * Configuration for Redis cache.
- * Uses Jackson for JSON serialization to support complex objects.
+ * Values use a compact binary format with per-type codecs ({@link CacheCodec});
+ * types without a codec fall back to Jackson JSON.
  */
 @Configuration
 public class RedisConfig {
@@ -27,16 +36,27 @@ public class RedisConfig {
     @Value("${spring.data.redis.port:6379}")
     private int redisPort;
 
+    // Cache calls fall back to the database, so don't wait long on a hanging Redis
+    @Value("${cache.redis.command-timeout:PT0.5S}")
+    private Duration commandTimeout;
+
+    @Value("${cache.codec.compression-threshold:1024}")
+    private int compressionThreshold;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
         RedisStandaloneConfiguration config = new RedisStandaloneConfiguration();
         config.setHostName(redisHost);
         config.setPort(redisPort);
-        return new LettuceConnectionFactory(config);
+        LettuceClientConfiguration clientConfig = LettuceClientConfiguration.builder()
+            .commandTimeout(commandTimeout)
+            .build();
+        return new LettuceConnectionFactory(config, clientConfig);
     }
 
     @Bean
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       ObjectProvider<CacheCodec<?>> codecs) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
 
@@ -44,19 +64,41 @@ public class RedisConfig {
         template.setKeySerializer(new StringRedisSerializer());
         template.setHashKeySerializer(new StringRedisSerializer());
 
-        // Use JSON serializer for values
+        // JSON serializer for values without a binary codec (and for values written before the binary format)
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
-        PolymorphicTypeValidator typeValidator = LaissezFaireSubTypeValidator.instance;
+        // Only our own types and JDK value types may be named in cached JSON
+        PolymorphicTypeValidator typeValidator = BasicPolymorphicTypeValidator.builder()
+            .allowIfSubType("com.pingpad.")
+            .allowIfSubType("java.util.")
+            .allowIfSubType("java.time.")
+            .allowIfSubType("java.lang.")
+            .allowIfSubTypeIsArray()
+            .build();
         objectMapper.activateDefaultTyping(
             typeValidator,
             ObjectMapper.DefaultTyping.NON_FINAL
         );
-        GenericJackson2JsonRedisSerializer valueSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+
+        CacheValueSerializer valueSerializer = new CacheValueSerializer(
+            codecs.orderedStream().toList(), jsonSerializer, compressionThreshold);
         template.setValueSerializer(valueSerializer);
         template.setHashValueSerializer(valueSerializer);
 
         template.afterPropertiesSet();
         return template;
     }
+
+    /**
+     * Shared listener container for Redis pub/sub (cross-replica fan-out).
+     * Disabled with cache.redis.pubsub.enabled=false, e.g. when no Redis is available.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "cache.redis.pubsub.enabled", havingValue = "true", matchIfMissing = true)
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
 }
@@ -0,0 +1,41 @@
+package com.pingpad.modules.cache.endpoints;
+
+import com.pingpad.modules.cache.services.CacheMetrics;
+import com.pingpad.modules.cache.services.CacheService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint (/actuator/cachestats) summarising cache effectiveness per key prefix.
+ * The same numbers are available as Micrometer meters under /actuator/metrics/cache.*.
+ */
+@Component
+@Endpoint(id = "cachestats")
+@RequiredArgsConstructor
+public class CacheStatsEndpoint {
+
+    private final CacheMetrics cacheMetrics;
+    private final CacheService cacheService;
+
+    @ReadOperation
+    public CacheStats cacheStats() {
+        return CacheStats.builder()
+            .localCacheSize(cacheService.localCacheSize())
+            .prefixes(cacheMetrics.snapshot())
+            .build();
+    }
+
+    /**
+     * DTO for the cache statistics response.
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class CacheStats {
+        private long localCacheSize;
+        private List<CacheMetrics.PrefixStats> prefixes;
+    }
+}
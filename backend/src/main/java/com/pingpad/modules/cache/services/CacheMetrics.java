@@ -0,0 +1,208 @@
+package com.pingpad.modules.cache.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Micrometer meters for the cache, broken down by key prefix.
+ *
+ * The prefix is the leading run of non-ID segments of a key ("endpoint:user:42" belongs
+ * to "endpoint:user", "endpoint:{uuid}" to "endpoint"), so the number of tag values
+ * stays small. Meters are published as cache.requests, cache.load, cache.value.size,
+ * cache.errors and cache.evictions, each tagged with "prefix"; Redis command latency
+ * is published as cache.redis, tagged with the operation.
+ */
+@Component
+public class CacheMetrics {
+    private static final int MAX_PREFIXES = 100;
+    private static final int MAX_PREFIX_SEGMENTS = 3;
+    private static final String OTHER_PREFIX = "other";
+    private static final Pattern NAME_SEGMENT = Pattern.compile("[A-Za-z_]+");
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, PrefixMeters> meters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> redisTimers = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public MeterRegistry registry() {
+        return meterRegistry;
+    }
+
+    public void hit(String key, String tier) {
+        PrefixMeters prefix = forKey(key);
+        ("l1".equals(tier) ? prefix.l1Hits : prefix.l2Hits).increment();
+    }
+
+    public void miss(String key, String tier) {
+        PrefixMeters prefix = forKey(key);
+        ("l1".equals(tier) ? prefix.l1Misses : prefix.l2Misses).increment();
+    }
+
+    public void load(String key, long nanos) {
+        forKey(key).loads.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void valueSize(String key, int bytes) {
+        forKey(key).valueSize.record(bytes);
+    }
+
+    public void error(String key, String operation) {
+        PrefixMeters prefix = forKey(key);
+        prefix.errors.computeIfAbsent(operation, op -> Counter.builder("cache.errors")
+            .description("Failed cache operations")
+            .tag("prefix", prefix.prefix)
+            .tag("operation", op)
+            .register(meterRegistry)).increment();
+    }
+
+    public void redisCall(String operation, long nanos) {
+        redisTimers.computeIfAbsent(operation, op -> Timer.builder("cache.redis")
+            .description("Latency of Redis cache commands")
+            .tag("operation", op)
+            .register(meterRegistry)).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void eviction(String key) {
+        forKey(key).evictions.increment();
+    }
+
+    /**
+     * Current values of all prefix meters, busiest prefix first.
+     */
+    public List<PrefixStats> snapshot() {
+        return meters.values().stream()
+            .map(PrefixMeters::toStats)
+            .sorted(Comparator.comparingLong((PrefixStats stats) -> stats.getL1Hits() + stats.getL1Misses()).reversed())
+            .toList();
+    }
+
+    /**
+     * Key namespace used as the "prefix" tag.
+     */
+    public static String prefixOf(String key) {
+        if (key == null || key.isEmpty()) {
+            return OTHER_PREFIX;
+        }
+        StringBuilder prefix = new StringBuilder();
+        int segments = 0;
+        for (String segment : key.split(":", MAX_PREFIX_SEGMENTS + 1)) {
+            if (segments == MAX_PREFIX_SEGMENTS || !NAME_SEGMENT.matcher(segment).matches()) {
+                break;
+            }
+            if (segments > 0) {
+                prefix.append(':');
+            }
+            prefix.append(segment);
+            segments++;
+        }
+        return segments == 0 ? OTHER_PREFIX : prefix.toString();
+    }
+
+    private PrefixMeters forKey(String key) {
+        String prefix = prefixOf(key);
+        PrefixMeters existing = meters.get(prefix);
+        if (existing != null) {
+            return existing;
+        }
+        // Bound tag cardinality if someone caches under unexpected key shapes
+        if (meters.size() >= MAX_PREFIXES) {
+            prefix = OTHER_PREFIX;
+        }
+        return meters.computeIfAbsent(prefix, PrefixMeters::new);
+    }
+
+    private final class PrefixMeters {
+        private final String prefix;
+        private final Counter l1Hits;
+        private final Counter l1Misses;
+        private final Counter l2Hits;
+        private final Counter l2Misses;
+        private final Timer loads;
+        private final DistributionSummary valueSize;
+        private final Counter evictions;
+        private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+        private PrefixMeters(String prefix) {
+            this.prefix = prefix;
+            this.l1Hits = requests(prefix, "l1", "hit");
+            this.l1Misses = requests(prefix, "l1", "miss");
+            this.l2Hits = requests(prefix, "l2", "hit");
+            this.l2Misses = requests(prefix, "l2", "miss");
+            this.loads = Timer.builder("cache.load")
+                .description("Time to load a missing value from the source of truth")
+                .tag("prefix", prefix)
+                .register(meterRegistry);
+            this.valueSize = DistributionSummary.builder("cache.value.size")
+                .description("Serialized size of cached values (sampled)")
+                .baseUnit("bytes")
+                .tag("prefix", prefix)
+                .register(meterRegistry);
+            this.evictions = Counter.builder("cache.evictions")
+                .description("Entries evicted from the in-process cache for size")
+                .tag("prefix", prefix)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        }
+
+        private Counter requests(String prefix, String tier, String result) {
+            return Counter.builder("cache.requests")
+                .description("Cache lookups per tier")
+                .tag("prefix", prefix)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+        }
+
+        private PrefixStats toStats() {
+            long hits = (long) (l1Hits.count() + l2Hits.count());
+            long lookups = (long) (l1Hits.count() + l1Misses.count());
+            return PrefixStats.builder()
+                .prefix(prefix)
+                .l1Hits((long) l1Hits.count())
+                .l1Misses((long) l1Misses.count())
+                .l2Hits((long) l2Hits.count())
+                .l2Misses((long) l2Misses.count())
+                .hitRatio(lookups > 0 ? (double) hits / lookups : 0.0)
+                .loads(loads.count())
+                .meanLoadMillis(loads.mean(TimeUnit.MILLISECONDS))
+                .maxLoadMillis(loads.max(TimeUnit.MILLISECONDS))
+                .meanValueBytes(valueSize.mean())
+                .errors(errors.values().stream().mapToLong(counter -> (long) counter.count()).sum())
+                .evictions((long) evictions.count())
+                .build();
+        }
+    }
+
+    /**
+     * Per-prefix cache statistics.
+     */
+    @lombok.Data
+    @lombok.Builder
+    public static class PrefixStats {
+        private String prefix;
+        private long l1Hits;
+        private long l1Misses;
+        private long l2Hits;
+        private long l2Misses;
+        private double hitRatio;
+        private long loads;
+        private double meanLoadMillis;
+        private double maxLoadMillis;
+        private double meanValueBytes;
+        private long errors;
+        private long evictions;
+    }
+}
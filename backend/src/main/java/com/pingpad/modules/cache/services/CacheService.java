@@ -1,33 +1,189 @@
 package com.pingpad.modules.cache.services;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 /**
  * Service for managing Redis cache operations.
  * Implements a hybrid caching pattern:
  * - Cache-Aside (Lazy Loading) for reads: Check cache first, if miss, load from DB and populate cache
  * - Write-Through for writes: Update DB, then immediately update cache with new data
- * 
+ *
  * This hybrid approach provides:
  * - Fast reads for frequently accessed data (Cache-Aside)
  * - Immediate cache updates after writes, eliminating cache misses on subsequent reads (Write-Through)
  * - Better performance than pure Cache-Aside with invalidation-only strategy
+ *
+ * Reads go through two tiers: a bounded in-process Caffeine cache (L1) in front of
+ * Redis (L2), so hot keys are served without a network round trip or deserialisation.
+ * Writes and deletes are broadcast over Redis pub/sub so other nodes drop their L1 copy.
+ *
+ * Groups of keys are invalidated through tags: a key written with tags is added to one
+ * Redis set per tag, and {@link #invalidateTag} removes the members of that set in
+ * batches. Nothing here uses KEYS; the legacy {@link #deleteByPattern} walks the
+ * keyspace incrementally with SCAN.
+ *
+ * {@link #getOrLoad} protects hot keys against stampedes: concurrent misses for a key
+ * share one load (optionally across nodes via a short Redis lock), entries are refreshed
+ * probabilistically shortly before they expire, and an expired entry is still served
+ * for a grace period while a single background load replaces it.
+ *
+ * Redis calls go through a {@link RedisCircuitBreaker}. While it is open the cache works
+ * from the in-process tier only and remembers the invalidations it could not apply,
+ * which are replayed once Redis is reachable again.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
-public class CacheService {
+public class CacheService implements MessageListener {
 
     private final RedisTemplate<String, Object> redisTemplate;
+    private final ObjectProvider<RedisMessageListenerContainer> listenerContainerProvider;
+    private final CacheMetrics metrics;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final String invalidationChannel;
     private static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    private static final String TAG_KEY_PREFIX = "tag:";
+    private static final int INVALIDATION_BATCH_SIZE = 1000;
+    private static final String LOCK_KEY_PREFIX = "lock:";
+    private static final long LOCK_POLL_MILLIS = 50;
+
+    // Tag sets outlive their members so an entry never loses its tag before it expires
+    private final Duration tagTtl;
+
+    // Near-cache (L1) in front of Redis
+    private final Cache<String, Object> localCache;
+
+    // Identifies this node so it ignores its own invalidation messages
+    private final String instanceId = UUID.randomUUID().toString();
+
+    // Loads currently running on this node, so concurrent misses share one
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor refreshExecutor;
+    private final double earlyRefreshBeta;
+    private final Duration staleWindow;
+    private final boolean distributedLock;
+    private final Duration lockTimeout;
+
+    private final double sizeSampleRate;
+
+    // Invalidations that could not reach Redis while the circuit breaker was open, replayed on recovery
+    private static final int MAX_PENDING_INVALIDATIONS = 10_000;
+    private final Set<String> pendingKeys = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingTags = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingPatterns = ConcurrentHashMap.newKeySet();
+    private volatile boolean pendingOverflowed;
+
+    // Told about invalidations from other nodes, for in-process state derived from cached values
+    private final List<Consumer<InvalidationMessage>> invalidationListeners = new CopyOnWriteArrayList<>();
+
+    public CacheService(RedisTemplate<String, Object> redisTemplate,
+                        ObjectProvider<RedisMessageListenerContainer> listenerContainerProvider,
+                        CacheMetrics metrics,
+                        RedisCircuitBreaker circuitBreaker,
+                        @Value("${cache.l1.maximum-size:10000}") long l1MaximumSize,
+                        @Value("${cache.l1.ttl:PT30S}") Duration l1Ttl,
+                        @Value("${cache.invalidation-channel:pingpad:cache-invalidation}") String invalidationChannel,
+                        @Value("${cache.tags.ttl:PT2H}") Duration tagTtl,
+                        @Value("${cache.stampede.early-refresh-beta:1.0}") double earlyRefreshBeta,
+                        @Value("${cache.stampede.stale-window:PT5M}") Duration staleWindow,
+                        @Value("${cache.stampede.redis-lock.enabled:false}") boolean distributedLock,
+                        @Value("${cache.stampede.redis-lock.timeout:PT5S}") Duration lockTimeout,
+                        @Value("${cache.metrics.size-sample-rate:0.1}") double sizeSampleRate) {
+        this.redisTemplate = redisTemplate;
+        this.tagTtl = tagTtl;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.staleWindow = staleWindow;
+        this.distributedLock = distributedLock;
+        this.lockTimeout = lockTimeout;
+        this.listenerContainerProvider = listenerContainerProvider;
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreaker;
+        this.sizeSampleRate = sizeSampleRate;
+        this.invalidationChannel = invalidationChannel;
+        this.localCache = Caffeine.newBuilder()
+            .maximumSize(l1MaximumSize)
+            .expireAfterWrite(l1Ttl)
+            .recordStats()
+            .removalListener((String key, Object value, RemovalCause cause) -> {
+                if (cause == RemovalCause.SIZE) {
+                    metrics.eviction(key);
+                }
+            })
+            .build();
+
+        // Background refreshes are best effort; when the queue is full the stale value is served a bit longer
+        this.refreshExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(256),
+            runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @PostConstruct
+    public void init() {
+        circuitBreaker.addRecoveryListener(this::replayPendingInvalidations);
+        CaffeineCacheMetrics.monitor(metrics.registry(), localCache, "l1");
+        RedisMessageListenerContainer container = listenerContainerProvider.getIfAvailable();
+        if (container != null) {
+            container.addMessageListener(this, new ChannelTopic(invalidationChannel));
+        } else {
+            log.info("Redis pub/sub disabled; L1 cache invalidation is local to this node");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+        RedisMessageListenerContainer container = listenerContainerProvider.getIfAvailable();
+        if (container != null) {
+            container.removeMessageListener(this);
+        }
+    }
 
     /**
      * Get a value from cache by key.
@@ -38,18 +194,301 @@ public class CacheService {
      */
     @SuppressWarnings("unchecked")
     public <T> Optional<T> get(String key, Class<T> type) {
+        return Optional.ofNullable((T) unwrap(lookup(key)));
+    }
+
+    /**
+     * Get several values at once: L1 first, then one MGET for the rest.
+     *
+     * @param keys Cache keys
+     * @param type Expected type of the cached values
+     * @return Hits by key plus the keys that missed, so callers can bulk-load only those
+     */
+    @SuppressWarnings("unchecked")
+    public <T> MultiGetResult<T> getAll(Collection<String> keys, Class<T> type) {
+        Map<String, T> hits = new LinkedHashMap<>();
+        List<String> remote = new ArrayList<>();
+        for (String key : new LinkedHashSet<>(keys)) {
+            Object local = localCache.getIfPresent(key);
+            if (local != null) {
+                metrics.hit(key, "l1");
+                hits.put(key, (T) unwrap(local));
+            } else {
+                metrics.miss(key, "l1");
+                remote.add(key);
+            }
+        }
+        if (remote.isEmpty()) {
+            return new MultiGetResult<>(hits, List.of());
+        }
+
+        if (!circuitBreaker.allowRequest()) {
+            remote.forEach(key -> metrics.miss(key, "l2"));
+            return new MultiGetResult<>(hits, remote);
+        }
+
+        List<String> misses = new ArrayList<>();
+        try {
+            List<Object> values = redis("mget", () -> redisTemplate.opsForValue().multiGet(remote));
+            for (int i = 0; i < remote.size(); i++) {
+                Object value = values != null ? values.get(i) : null;
+                if (value != null) {
+                    metrics.hit(remote.get(i), "l2");
+                    localCache.put(remote.get(i), value);
+                    hits.put(remote.get(i), (T) unwrap(value));
+                } else {
+                    metrics.miss(remote.get(i), "l2");
+                    misses.add(remote.get(i));
+                }
+            }
+        } catch (Exception e) {
+            remote.forEach(key -> metrics.error(key, "get"));
+            log.warn("Error reading {} keys from cache", remote.size(), e);
+            misses.addAll(remote);
+        }
+        return new MultiGetResult<>(hits, misses);
+    }
+
+    /**
+     * Get a value from cache, loading it on a miss.
+     * Uses Cache-Aside with stampede protection; see the class comment.
+     *
+     * @param key Cache key
+     * @param type Expected type of the cached value
+     * @param loader Loads the value from the source of truth; exceptions propagate to all waiting callers
+     * @return The cached or freshly loaded value
+     */
+    public <T> T getOrLoad(String key, Class<T> type, Supplier<T> loader) {
+        return getOrLoad(key, type, DEFAULT_TTL, loader, value -> List.of());
+    }
+
+    /**
+     * Get a value from cache, loading it on a miss and tagging it with the tags derived from it.
+     *
+     * @param key Cache key
+     * @param type Expected type of the cached value
+     * @param loader Loads the value from the source of truth
+     * @param tags Tags to register a freshly loaded value under
+     * @return The cached or freshly loaded value
+     */
+    public <T> T getOrLoad(String key, Class<T> type, Supplier<T> loader, Function<? super T, List<String>> tags) {
+        return getOrLoad(key, type, DEFAULT_TTL, loader, tags);
+    }
+
+    /**
+     * Get a list from cache, loading it on a miss.
+     *
+     * @param key Cache key
+     * @param elementType Type of list elements
+     * @param loader Loads the list from the source of truth
+     * @return The cached or freshly loaded list
+     */
+    public <T> List<T> getOrLoadList(String key, Class<T> elementType, Supplier<List<T>> loader) {
+        return getOrLoadList(key, elementType, loader, List.of());
+    }
+
+    /**
+     * Get a list from cache, loading it on a miss.
+     *
+     * @param key Cache key
+     * @param elementType Type of list elements
+     * @param loader Loads the list from the source of truth
+     * @param tags Tags to register a freshly loaded list under
+     * @return The cached or freshly loaded list
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> getOrLoadList(String key, Class<T> elementType, Supplier<List<T>> loader, List<String> tags) {
+        Supplier<List> listLoader = (Supplier<List>) (Supplier<?>) loader;
+        return (List<T>) getOrLoad(key, List.class, DEFAULT_TTL, listLoader, value -> tags);
+    }
+
+    /**
+     * Get a value from cache, loading it on a miss.
+     *
+     * @param key Cache key
+     * @param type Expected type of the cached value
+     * @param ttl How long a loaded value is considered fresh
+     * @param loader Loads the value from the source of truth
+     * @param tags Tags to register a freshly loaded value under
+     * @return The cached or freshly loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(String key, Class<T> type, Duration ttl, Supplier<T> loader,
+                           Function<? super T, List<String>> tags) {
+        Object cached = lookup(key);
+        if (cached instanceof CacheEntry entry) {
+            long now = System.currentTimeMillis();
+            if (now >= entry.getSoftExpiresAt() || shouldRefreshEarly(entry, now)) {
+                // Serve what we have and let one background load replace it
+                refreshAsync(key, ttl, loader, tags);
+            }
+            return (T) entry.getValue();
+        }
+        if (cached != null) {
+            // Written with put() (write-through), no freshness metadata
+            return (T) cached;
+        }
+        return loadCoalesced(key, ttl, loader, tags);
+    }
+
+    /**
+     * Read the raw cached object from L1, then Redis.
+     */
+    private Object lookup(String key) {
+        Object local = localCache.getIfPresent(key);
+        if (local != null) {
+            metrics.hit(key, "l1");
+            return local;
+        }
+        metrics.miss(key, "l1");
+        if (!circuitBreaker.allowRequest()) {
+            metrics.miss(key, "l2");
+            return null;
+        }
+
         try {
-            Object value = redisTemplate.opsForValue().get(key);
+            Object value = redis("get", () -> redisTemplate.opsForValue().get(key));
             if (value != null) {
                 log.debug("Cache hit for key: {}", key);
-                return Optional.of((T) value);
+                metrics.hit(key, "l2");
+                localCache.put(key, value);
+                return value;
             }
             log.debug("Cache miss for key: {}", key);
-            return Optional.empty();
+            metrics.miss(key, "l2");
+            return null;
         } catch (Exception e) {
+            metrics.error(key, "get");
             log.warn("Error reading from cache for key: {}", key, e);
-            return Optional.empty();
+            return null;
+        }
+    }
+
+    private static Object unwrap(Object cached) {
+        return cached instanceof CacheEntry entry ? entry.getValue() : cached;
+    }
+
+    /**
+     * Probabilistic early expiration (XFetch): the closer an entry is to its expiry and
+     * the longer it took to load, the more likely a read triggers the refresh early.
+     */
+    private boolean shouldRefreshEarly(CacheEntry entry, long now) {
+        if (earlyRefreshBeta <= 0 || entry.getLoadMillis() <= 0) {
+            return false;
+        }
+        double random = Math.max(ThreadLocalRandom.current().nextDouble(), Double.MIN_VALUE);
+        return now - entry.getLoadMillis() * earlyRefreshBeta * Math.log(random) >= entry.getSoftExpiresAt();
+    }
+
+    private <T> void refreshAsync(String key, Duration ttl, Supplier<T> loader, Function<? super T, List<String>> tags) {
+        if (inFlightLoads.containsKey(key)) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                loadCoalesced(key, ttl, loader, tags);
+            } catch (Exception e) {
+                metrics.error(key, "refresh");
+                log.warn("Background refresh failed for key: {}", key, e);
+            }
+        });
+    }
+
+    /**
+     * Load a value once per key on this node; concurrent callers wait for the same result.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T loadCoalesced(String key, Duration ttl, Supplier<T> loader, Function<? super T, List<String>> tags) {
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlightLoads.putIfAbsent(key, load);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        try {
+            T value = distributedLock && circuitBreaker.allowRequest()
+                ? loadWithLock(key, ttl, loader, tags)
+                : loadAndStore(key, ttl, loader, tags);
+            load.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, load);
+        }
+    }
+
+    /**
+     * Load under a short Redis lock so only one node hits the database for a key.
+     * Nodes that don't get the lock poll Redis for the result and load themselves if
+     * it doesn't show up within the lock timeout.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> T loadWithLock(String key, Duration ttl, Supplier<T> loader, Function<? super T, List<String>> tags) {
+        String lockKey = LOCK_KEY_PREFIX + key;
+        boolean acquired;
+        try {
+            acquired = Boolean.TRUE.equals(redis("lock",
+                () -> redisTemplate.opsForValue().setIfAbsent(lockKey, instanceId, lockTimeout)));
+        } catch (Exception e) {
+            metrics.error(key, "lock");
+            log.warn("Error acquiring cache lock for key: {}", key, e);
+            acquired = true;
+        }
+
+        if (acquired) {
+            try {
+                return loadAndStore(key, ttl, loader, tags);
+            } finally {
+                // The lock expires on its own if this fails
+                try {
+                    redis("delete", () -> redisTemplate.delete(lockKey));
+                } catch (Exception e) {
+                    log.debug("Error releasing cache lock for key: {}", key);
+                }
+            }
         }
+
+        long deadline = System.currentTimeMillis() + lockTimeout.toMillis();
+        while (System.currentTimeMillis() < deadline && circuitBreaker.allowRequest()) {
+            try {
+                Thread.sleep(LOCK_POLL_MILLIS);
+                Object value = redis("get", () -> redisTemplate.opsForValue().get(key));
+                if (value instanceof CacheEntry entry && entry.getSoftExpiresAt() > System.currentTimeMillis()) {
+                    localCache.put(key, entry);
+                    return (T) entry.getValue();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Error waiting for cache load of key: {}", key, e);
+                break;
+            }
+        }
+        return loadAndStore(key, ttl, loader, tags);
+    }
+
+    private <T> T loadAndStore(String key, Duration ttl, Supplier<T> loader, Function<? super T, List<String>> tags) {
+        long start = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        T value = loader.get();
+        metrics.load(key, System.nanoTime() - startNanos);
+        long now = System.currentTimeMillis();
+        if (value != null) {
+            // Kept in Redis past its soft expiry so it can be served while being refreshed
+            CacheEntry entry = new CacheEntry(value, now + ttl.toMillis(), now - start);
+            put(key, entry, ttl.plus(staleWindow), tags.apply(value).toArray(String[]::new));
+        }
+        return value;
     }
 
     /**
@@ -62,6 +501,17 @@ public class CacheService {
         put(key, value, DEFAULT_TTL);
     }
 
+    /**
+     * Put a value into cache with default TTL and register it under the given tags.
+     *
+     * @param key Cache key
+     * @param value Value to cache
+     * @param tags Tags to register the key under (e.g. "user:123")
+     */
+    public void put(String key, Object value, String... tags) {
+        put(key, value, DEFAULT_TTL, tags);
+    }
+
     /**
      * Put a value into cache with custom TTL.
      *
@@ -70,12 +520,105 @@ public class CacheService {
      * @param ttl Time to live
      */
     public void put(String key, Object value, Duration ttl) {
+        put(key, value, ttl, new String[0]);
+    }
+
+    /**
+     * Put a value into cache with custom TTL and register it under the given tags,
+     * so it can later be removed with {@link #invalidateTag(String)}.
+     * The value and its tag memberships are written in one pipeline.
+     *
+     * @param key Cache key
+     * @param value Value to cache
+     * @param ttl Time to live
+     * @param tags Tags to register the key under (e.g. "user:123")
+     */
+    public void put(String key, Object value, Duration ttl, String... tags) {
+        if (!circuitBreaker.allowRequest()) {
+            // Serve the new value locally; the stale copy in Redis is dropped once it is reachable again
+            localCache.put(key, value);
+            addPendingInvalidation(pendingKeys, key);
+            return;
+        }
         try {
-            redisTemplate.opsForValue().set(key, value, ttl.toSeconds(), TimeUnit.SECONDS);
+            if (tags.length == 0) {
+                redis("set", () -> {
+                    redisTemplate.opsForValue().set(key, value, ttl.toSeconds(), TimeUnit.SECONDS);
+                    return null;
+                });
+            } else {
+                Duration setTtl = ttl.compareTo(tagTtl) > 0 ? ttl : tagTtl;
+                redis("set", () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Object execute(RedisOperations operations) throws DataAccessException {
+                        operations.opsForValue().set(key, value, ttl.toSeconds(), TimeUnit.SECONDS);
+                        for (String tag : tags) {
+                            operations.opsForSet().add(TAG_KEY_PREFIX + tag, key);
+                            operations.expire(TAG_KEY_PREFIX + tag, setTtl);
+                        }
+                        return null;
+                    }
+                }));
+            }
+            localCache.put(key, value);
+            sampleValueSize(key, value);
             log.debug("Cached value for key: {} with TTL: {}", key, ttl);
         } catch (Exception e) {
+            // Don't keep a local copy Redis doesn't have, and make sure its old copy goes too
+            localCache.invalidate(key);
+            addPendingInvalidation(pendingKeys, key);
+            metrics.error(key, "put");
             log.warn("Error writing to cache for key: {}", key, e);
         }
+        broadcastInvalidation(List.of(key), null);
+    }
+
+    /**
+     * Put several values into cache with default TTL, in one pipelined round trip.
+     *
+     * @param values Values to cache by key
+     */
+    public void putAll(Map<String, ?> values) {
+        putAll(values, DEFAULT_TTL);
+    }
+
+    /**
+     * Put several values into cache with the same TTL, in one pipelined round trip.
+     *
+     * @param values Values to cache by key
+     * @param ttl Time to live
+     */
+    public void putAll(Map<String, ?> values, Duration ttl) {
+        if (values.isEmpty()) {
+            return;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            localCache.putAll(values);
+            values.keySet().forEach(key -> addPendingInvalidation(pendingKeys, key));
+            return;
+        }
+        try {
+            redis("set", () -> redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    values.forEach((key, value) ->
+                        operations.opsForValue().set(key, value, ttl.toSeconds(), TimeUnit.SECONDS));
+                    return null;
+                }
+            }));
+            localCache.putAll(values);
+            log.debug("Cached {} values with TTL: {}", values.size(), ttl);
+        } catch (Exception e) {
+            localCache.invalidateAll(values.keySet());
+            values.keySet().forEach(key -> {
+                addPendingInvalidation(pendingKeys, key);
+                metrics.error(key, "put");
+            });
+            log.warn("Error writing {} values to cache", values.size(), e);
+        }
+        broadcastInvalidation(new ArrayList<>(values.keySet()), null);
     }
 
     /**
@@ -84,27 +627,136 @@ public class CacheService {
      * @param key Cache key
      */
     public void delete(String key) {
+        localCache.invalidate(key);
+        if (!circuitBreaker.allowRequest()) {
+            addPendingInvalidation(pendingKeys, key);
+            return;
+        }
         try {
-            redisTemplate.delete(key);
+            redis("delete", () -> redisTemplate.delete(key));
             log.debug("Deleted cache key: {}", key);
         } catch (Exception e) {
+            addPendingInvalidation(pendingKeys, key);
+            metrics.error(key, "delete");
             log.warn("Error deleting from cache for key: {}", key, e);
         }
+        broadcastInvalidation(List.of(key), null);
+    }
+
+    /**
+     * Delete all keys registered under a tag, then the tag itself.
+     * Members are read with SSCAN and removed with UNLINK in fixed-size batches, so
+     * neither side blocks Redis regardless of how many keys carry the tag.
+     *
+     * @param tag Tag to invalidate (e.g. "user:123")
+     */
+    public void invalidateTag(String tag) {
+        if (!circuitBreaker.allowRequest()) {
+            // The tag's members are only known to Redis, so drop every local copy instead
+            localCache.invalidateAll();
+            addPendingInvalidation(pendingTags, tag);
+            return;
+        }
+        String tagKey = TAG_KEY_PREFIX + tag;
+        long deleted = 0;
+        try (Cursor<Object> members = redis("sscan", () -> redisTemplate.opsForSet().scan(tagKey,
+                ScanOptions.scanOptions().count(INVALIDATION_BATCH_SIZE).build()))) {
+            List<String> batch;
+            while (!(batch = redis("sscan", () -> nextBatch(members))).isEmpty()) {
+                deleted += unlinkBatch(batch, true);
+            }
+            redis("unlink", () -> redisTemplate.unlink(tagKey));
+            log.debug("Invalidated {} cache keys tagged {}", deleted, tag);
+        } catch (Exception e) {
+            localCache.invalidateAll();
+            addPendingInvalidation(pendingTags, tag);
+            metrics.error(TAG_KEY_PREFIX + tag, "delete");
+            log.warn("Error invalidating cache tag: {}", tag, e);
+        }
     }
 
     /**
      * Delete multiple values from cache by pattern.
-     * Useful for invalidating all cache entries matching a pattern (e.g., all endpoints for a user).
+     * Prefer {@link #invalidateTag(String)}; this is kept for keys that were written
+     * without tags. The keyspace is walked with SCAN rather than KEYS, so Redis keeps
+     * serving other clients while a large pattern is being deleted.
      *
      * @param pattern Pattern to match (e.g., "endpoint:user:123:*")
      */
     public void deleteByPattern(String pattern) {
-        try {
-            redisTemplate.delete(redisTemplate.keys(pattern));
-            log.debug("Deleted cache keys matching pattern: {}", pattern);
+        invalidateLocalPattern(pattern);
+        if (!circuitBreaker.allowRequest()) {
+            addPendingInvalidation(pendingPatterns, pattern);
+            return;
+        }
+        long deleted = 0;
+        try (Cursor<String> keys = redis("scan", () -> redisTemplate.scan(
+                ScanOptions.scanOptions().match(pattern).count(INVALIDATION_BATCH_SIZE).build()))) {
+            List<String> batch;
+            while (!(batch = redis("scan", () -> nextBatch(keys))).isEmpty()) {
+                deleted += unlinkBatch(batch, false);
+            }
+            log.debug("Deleted {} cache keys matching pattern: {}", deleted, pattern);
         } catch (Exception e) {
+            addPendingInvalidation(pendingPatterns, pattern);
+            metrics.error(pattern, "delete");
             log.warn("Error deleting from cache by pattern: {}", pattern, e);
         }
+        broadcastInvalidation(null, pattern);
+    }
+
+    /**
+     * Record the serialized size of a sample of written values. Serializing twice is only
+     * paid for the sampled writes, and writes are rare compared to reads.
+     */
+    private void sampleValueSize(String key, Object value) {
+        if (ThreadLocalRandom.current().nextDouble() >= sizeSampleRate) {
+            return;
+        }
+        try {
+            @SuppressWarnings("unchecked")
+            RedisSerializer<Object> serializer = (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+            byte[] bytes = serializer.serialize(value);
+            if (bytes != null) {
+                metrics.valueSize(key, bytes.length);
+            }
+        } catch (Exception e) {
+            log.debug("Could not measure cached value size for key: {}", key);
+        }
+    }
+
+    /**
+     * Approximate number of entries in the in-process (L1) cache.
+     */
+    public long localCacheSize() {
+        return localCache.estimatedSize();
+    }
+
+    /**
+     * Read up to one batch of keys from a SCAN/SSCAN cursor. The cursor only goes to
+     * Redis when its current page is used up, so a batch is roughly one round trip.
+     */
+    private static List<String> nextBatch(Cursor<?> cursor) {
+        List<String> batch = new ArrayList<>(INVALIDATION_BATCH_SIZE);
+        while (batch.size() < INVALIDATION_BATCH_SIZE && cursor.hasNext()) {
+            batch.add(String.valueOf(cursor.next()));
+        }
+        return batch;
+    }
+
+    /**
+     * Remove a batch of keys from both tiers, optionally telling other nodes to drop them.
+     */
+    private long unlinkBatch(List<String> keys, boolean broadcast) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        localCache.invalidateAll(keys);
+        Long removed = redis("unlink", () -> redisTemplate.unlink(keys));
+        if (broadcast) {
+            broadcastInvalidation(keys, null);
+        }
+        return removed != null ? removed : 0;
     }
 
     /**
@@ -114,10 +766,17 @@ public class CacheService {
      * @return true if key exists, false otherwise
      */
     public boolean exists(String key) {
+        if (localCache.getIfPresent(key) != null) {
+            return true;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            return false;
+        }
         try {
-            Boolean exists = redisTemplate.hasKey(key);
+            Boolean exists = redis("exists", () -> redisTemplate.hasKey(key));
             return Boolean.TRUE.equals(exists);
         } catch (Exception e) {
+            metrics.error(key, "exists");
             log.warn("Error checking cache existence for key: {}", key, e);
             return false;
         }
@@ -133,6 +792,17 @@ public class CacheService {
         put(key, values);
     }
 
+    /**
+     * Cache a list of values under the given tags.
+     *
+     * @param key Cache key
+     * @param values List of values to cache
+     * @param tags Tags to register the key under
+     */
+    public void putList(String key, List<?> values, String... tags) {
+        put(key, values, DEFAULT_TTL, tags);
+    }
+
     /**
      * Get a list of values from cache.
      *
@@ -145,4 +815,168 @@ public class CacheService {
         Optional<List> cachedList = get(key, List.class);
         return cachedList.map(list -> (List<T>) list);
     }
+
+    /**
+     * Run for every invalidation broadcast received from another node, after the L1 copies are dropped.
+     */
+    public void addInvalidationListener(Consumer<InvalidationMessage> listener) {
+        invalidationListeners.add(listener);
+    }
+
+    /**
+     * Handle an invalidation broadcast from another node.
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object payload = redisTemplate.getValueSerializer().deserialize(message.getBody());
+            if (payload instanceof InvalidationMessage invalidation && !instanceId.equals(invalidation.getOrigin())) {
+                if (invalidation.getKeys() != null) {
+                    localCache.invalidateAll(invalidation.getKeys());
+                }
+                if (invalidation.getPattern() != null) {
+                    invalidateLocalPattern(invalidation.getPattern());
+                }
+                for (Consumer<InvalidationMessage> listener : invalidationListeners) {
+                    listener.accept(invalidation);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Error handling cache invalidation message: {}", e.getMessage());
+        }
+    }
+
+    private void broadcastInvalidation(List<String> keys, String pattern) {
+        if (listenerContainerProvider.getIfAvailable() == null || !circuitBreaker.allowRequest()) {
+            return;
+        }
+        try {
+            InvalidationMessage message = new InvalidationMessage(
+                instanceId, keys != null ? new ArrayList<>(keys) : null, pattern);
+            redis("publish", () -> redisTemplate.convertAndSend(invalidationChannel, message));
+        } catch (Exception e) {
+            log.warn("Error broadcasting cache invalidation: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Run a Redis command, recording its latency and outcome for metrics and the circuit breaker.
+     */
+    private <T> T redis(String operation, Supplier<T> command) {
+        long start = System.nanoTime();
+        try {
+            T result = command.get();
+            long elapsed = System.nanoTime() - start;
+            metrics.redisCall(operation, elapsed);
+            circuitBreaker.onSuccess(elapsed);
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+    }
+
+    private void addPendingInvalidation(Set<String> pending, String value) {
+        if (pendingKeys.size() + pendingTags.size() + pendingPatterns.size() >= MAX_PENDING_INVALIDATIONS) {
+            pendingOverflowed = true;
+            return;
+        }
+        pending.add(value);
+    }
+
+    /**
+     * Apply the invalidations that were skipped while Redis was unavailable.
+     */
+    private void replayPendingInvalidations() {
+        List<String> keys = drain(pendingKeys);
+        List<String> tags = drain(pendingTags);
+        List<String> patterns = drain(pendingPatterns);
+        if (pendingOverflowed) {
+            pendingOverflowed = false;
+            log.warn("Some cache invalidations were dropped while Redis was unavailable; "
+                + "affected entries are served until their TTL expires");
+        }
+        if (keys.isEmpty() && tags.isEmpty() && patterns.isEmpty()) {
+            return;
+        }
+        log.info("Replaying {} key, {} tag and {} pattern invalidation(s) after Redis recovery",
+            keys.size(), tags.size(), patterns.size());
+        for (int i = 0; i < keys.size(); i += INVALIDATION_BATCH_SIZE) {
+            unlinkBatch(keys.subList(i, Math.min(i + INVALIDATION_BATCH_SIZE, keys.size())), true);
+        }
+        tags.forEach(this::invalidateTag);
+        patterns.forEach(this::deleteByPattern);
+    }
+
+    private static List<String> drain(Set<String> pending) {
+        List<String> drained = new ArrayList<>(pending);
+        pending.removeAll(drained);
+        return drained;
+    }
+
+    private void invalidateLocalPattern(String pattern) {
+        Pattern regex = globToRegex(pattern);
+        localCache.asMap().keySet().removeIf(key -> regex.matcher(key).matches());
+    }
+
+    /**
+     * Convert a Redis glob-style pattern (*, ?, [...]) into a regex.
+     */
+    static Pattern globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inClass = false;
+        for (char c : glob.toCharArray()) {
+            if (inClass) {
+                regex.append(c);
+                if (c == ']') {
+                    inClass = false;
+                }
+                continue;
+            }
+            switch (c) {
+                case '*' -> regex.append(".*");
+                case '?' -> regex.append('.');
+                case '[' -> {
+                    regex.append('[');
+                    inClass = true;
+                }
+                default -> regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    /**
+     * Result of {@link #getAll}: the values found and the keys that were not cached.
+     */
+    @lombok.Getter
+    @lombok.AllArgsConstructor
+    public static class MultiGetResult<T> {
+        private final Map<String, T> hits;
+        private final List<String> misses;
+    }
+
+    /**
+     * Value written by {@link #getOrLoad} together with its freshness metadata.
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class CacheEntry {
+        private Object value;
+        private long softExpiresAt;
+        private long loadMillis;
+    }
+
+    /**
+     * Cross-node L1 invalidation message.
+     */
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class InvalidationMessage {
+        private String origin;
+        private List<String> keys;
+        private String pattern;
+    }
 }
@@ -0,0 +1,162 @@
+package com.pingpad.modules.cache.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Circuit breaker for Redis cache calls.
+ *
+ * Outcomes of the last calls are kept in a ring buffer. Once enough calls were seen and
+ * either the failure rate or the share of slow calls crosses its threshold, the breaker
+ * opens and the cache stops calling Redis: reads are served from the in-process tier or
+ * go straight to the database. While open, a background probe pings Redis; the first
+ * successful ping after the open duration closes the breaker again and notifies the
+ * recovery listeners. Requests themselves never wait on a broken Redis.
+ */
+@Component
+@Slf4j
+public class RedisCircuitBreaker {
+
+    public enum State { CLOSED, OPEN }
+
+    private final RedisConnectionFactory connectionFactory;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openDurationMillis;
+
+    // Ring buffer of recent outcomes: 0 = ok, 1 = slow, 2 = failed
+    private final byte[] outcomes;
+    private int next;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAtMillis;
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+
+    public RedisCircuitBreaker(RedisConnectionFactory connectionFactory,
+                               @Value("${cache.circuit-breaker.window-size:50}") int windowSize,
+                               @Value("${cache.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                               @Value("${cache.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                               @Value("${cache.circuit-breaker.slow-call-duration:PT0.25S}") Duration slowCallDuration,
+                               @Value("${cache.circuit-breaker.slow-call-rate-threshold:0.8}") double slowCallRateThreshold,
+                               @Value("${cache.circuit-breaker.open-duration:PT5S}") Duration openDuration) {
+        this.connectionFactory = connectionFactory;
+        this.outcomes = new byte[windowSize];
+        this.minimumCalls = Math.min(minimumCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallDuration.toNanos();
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationMillis = openDuration.toMillis();
+    }
+
+    /**
+     * Whether a Redis call may be attempted right now.
+     */
+    public boolean allowRequest() {
+        return state == State.CLOSED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void onSuccess(long elapsedNanos) {
+        record(elapsedNanos >= slowCallNanos ? (byte) 1 : (byte) 0);
+    }
+
+    public void onFailure() {
+        record((byte) 2);
+    }
+
+    /**
+     * Run when Redis becomes reachable again after the breaker was open.
+     */
+    public void addRecoveryListener(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    private void record(byte outcome) {
+        boolean open;
+        synchronized (this) {
+            if (state == State.OPEN) {
+                return;
+            }
+            if (recorded == outcomes.length) {
+                forget(outcomes[next]);
+            } else {
+                recorded++;
+            }
+            outcomes[next] = outcome;
+            next = (next + 1) % outcomes.length;
+            if (outcome == 1) {
+                slowCalls++;
+            } else if (outcome == 2) {
+                failures++;
+            }
+            open = recorded >= minimumCalls
+                && ((double) failures / recorded >= failureRateThreshold
+                    || (double) slowCalls / recorded >= slowCallRateThreshold);
+            if (open) {
+                state = State.OPEN;
+                openedAtMillis = System.currentTimeMillis();
+            }
+        }
+        if (open) {
+            log.warn("Redis circuit breaker opened ({} failed, {} slow of last {} calls); serving without Redis",
+                failures, slowCalls, recorded);
+        }
+    }
+
+    private void forget(byte outcome) {
+        if (outcome == 1) {
+            slowCalls--;
+        } else if (outcome == 2) {
+            failures--;
+        }
+    }
+
+    /**
+     * Background recovery probe; does nothing while the breaker is closed.
+     */
+    @Scheduled(fixedDelayString = "${cache.circuit-breaker.probe-interval:PT2S}")
+    public void probe() {
+        if (state != State.OPEN || System.currentTimeMillis() - openedAtMillis < openDurationMillis) {
+            return;
+        }
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.ping();
+        } catch (Exception e) {
+            // Still down; try again after another open period
+            openedAtMillis = System.currentTimeMillis();
+            log.debug("Redis still unavailable: {}", e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            next = 0;
+            recorded = 0;
+            failures = 0;
+            slowCalls = 0;
+            state = State.CLOSED;
+        }
+        log.info("Redis reachable again; circuit breaker closed");
+        for (Runnable listener : recoveryListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                log.warn("Redis recovery listener failed", e);
+            }
+        }
+    }
+}
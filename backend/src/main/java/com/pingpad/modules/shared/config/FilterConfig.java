@@ -1,6 +1,8 @@
 package com.pingpad.modules.shared.config;
 
 import com.pingpad.modules.shared.filters.CorrelationIdFilter;
+import com.pingpad.modules.shared.filters.RateLimitFilter;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -13,6 +15,7 @@ import org.springframework.core.Ordered;
  * 
  * By explicitly registering the filter here, we ensure it runs before Spring Security
  * filters and any other servlet filters.
+ * RateLimitFilter runs right after Spring Security, so it can limit per authenticated user.
  */
 @Configuration
 public class FilterConfig {
@@ -28,4 +31,14 @@ public class FilterConfig {
         registration.setEnabled(true);
         return registration;
     }
+
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter filter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>();
+        registration.setFilter(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1); // Run after the security filter chain
+        registration.setName("rateLimitFilter");
+        return registration;
+    }
 }
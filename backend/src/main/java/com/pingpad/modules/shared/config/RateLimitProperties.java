@@ -0,0 +1,103 @@
+package com.pingpad.modules.shared.config;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * API rate limits.
+ *
+ * Every caller (authenticated user, otherwise client IP) gets a token bucket per route.
+ * The first route whose method and path pattern match a request applies; requests
+ * matching no route share the default limit.
+ *
+ * <pre>
+ * rate-limit.routes[0].method=POST
+ * rate-limit.routes[0].pattern=/api/endpoints/&#42;/test
+ * rate-limit.routes[0].capacity=20
+ * rate-limit.routes[0].refill-period=PT1M
+ * rate-limit.user-multipliers.42=5
+ * </pre>
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Limit for requests that match no route.
+     */
+    private Limit defaultLimit = new Limit(300, Duration.ofMinutes(1));
+
+    private List<Route> routes = new ArrayList<>(List.of(
+        // Each test holds a request thread and a gRPC call for up to 30 seconds
+        new Route("POST", "/api/endpoints/*/test", 20, Duration.ofMinutes(1))
+    ));
+
+    /**
+     * Capacity multiplier per user ID, for users that need higher (or lower) limits.
+     */
+    private Map<Long, Double> userMultipliers = new HashMap<>();
+
+    /**
+     * Maximum number of buckets kept in memory.
+     */
+    private long maxBuckets = 100_000;
+
+    private Redis redis = new Redis();
+
+    @Data
+    public static class Limit {
+        /**
+         * Maximum burst, and the number of requests allowed per refill period.
+         */
+        private int capacity;
+        private Duration refillPeriod;
+
+        public Limit() {}
+
+        public Limit(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillPeriod = refillPeriod;
+        }
+    }
+
+    @Data
+    @EqualsAndHashCode(callSuper = true)
+    public static class Route extends Limit {
+        /**
+         * HTTP method, or null for any method.
+         */
+        private String method;
+        /**
+         * Ant-style path pattern.
+         */
+        private String pattern;
+
+        public Route() {}
+
+        public Route(String method, String pattern, int capacity, Duration refillPeriod) {
+            super(capacity, refillPeriod);
+            this.method = method;
+            this.pattern = pattern;
+        }
+    }
+
+    @Data
+    public static class Redis {
+        /**
+         * Share consumption with other instances through Redis.
+         */
+        private boolean enabled = true;
+        private Duration reconcileInterval = Duration.ofSeconds(1);
+    }
+}
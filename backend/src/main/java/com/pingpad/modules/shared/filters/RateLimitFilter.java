@@ -0,0 +1,93 @@
+package com.pingpad.modules.shared.filters;
+
+import com.pingpad.modules.auth.models.AuthenticatedUser;
+import com.pingpad.modules.shared.config.RateLimitProperties;
+import com.pingpad.modules.shared.ratelimit.TokenBucketRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Filter applying per-user API rate limits.
+ *
+ * Runs after Spring Security, so authenticated requests are limited per user and
+ * anonymous ones per client IP. The client IP is the request's remote address, which
+ * the servlet container only takes from X-Forwarded-For when the request came through
+ * a trusted proxy (server.forward-headers-strategy), so clients can't pick their own
+ * bucket by sending the header themselves. Every response carries the RateLimit-Limit,
+ * RateLimit-Remaining and RateLimit-Reset headers; rejected requests get a 429
+ * with Retry-After.
+ *
+ * Note: This filter is registered via FilterConfig to ensure it runs after Spring Security.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String DEFAULT_ROUTE = "default";
+
+    private final RateLimitProperties properties;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitProperties properties, TokenBucketRateLimiter rateLimiter) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String routeName = DEFAULT_ROUTE;
+        RateLimitProperties.Limit limit = properties.getDefaultLimit();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if ((route.getMethod() == null || route.getMethod().equalsIgnoreCase(request.getMethod()))
+                    && pathMatcher.match(route.getPattern(), path)) {
+                routeName = route.getMethod() + " " + route.getPattern();
+                limit = route;
+                break;
+            }
+        }
+
+        String caller;
+        double multiplier = 1.0;
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            caller = "user:" + user.getId();
+            multiplier = properties.getUserMultipliers().getOrDefault(user.getId(), 1.0);
+        } else {
+            caller = "ip:" + request.getRemoteAddr();
+        }
+
+        TokenBucketRateLimiter.Decision decision = rateLimiter.tryConsume(routeName, caller, limit, multiplier);
+        response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+        response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+        response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+
+        if (!decision.allowed()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(decision.retryAfterSeconds()));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\",\"retryAfter\":"
+                + decision.retryAfterSeconds() + "}");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,195 @@
+package com.pingpad.modules.shared.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pingpad.modules.cache.services.RedisCircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Approximate sliding-window rate limiter.
+ *
+ * Each key has a counter for the current fixed window and one for the previous window.
+ * The count over the sliding window is estimated by weighting the previous counter by
+ * how much of it still overlaps the sliding window, so memory per key is constant no
+ * matter how many events are recorded.
+ *
+ * With a Redis template the counters are shared by all instances and updated by a Lua
+ * script in one round trip. Without Redis, or while the Redis circuit breaker is open,
+ * the counters are kept in memory. In-memory keys are bounded and idle keys are evicted,
+ * so a flood of distinct keys can't grow the heap without limit.
+ */
+@Slf4j
+public class SlidingWindowRateLimiter {
+
+    // Adds ARGV[1] to the current window counter (0 only reads it), returns {current, previous}
+    private static final RedisScript<List> COUNT_SCRIPT = new DefaultRedisScript<>("""
+        local current
+        if tonumber(ARGV[1]) > 0 then
+          current = redis.call('INCRBY', KEYS[1], ARGV[1])
+          redis.call('PEXPIRE', KEYS[1], ARGV[2])
+        else
+          current = tonumber(redis.call('GET', KEYS[1]) or '0')
+        end
+        local previous = tonumber(redis.call('GET', KEYS[2]) or '0')
+        return {current, previous}
+        """, List.class);
+
+    private final String name;
+    private final int limit;
+    private final long windowMillis;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final LongSupplier clock;
+
+    // Key -> {window index, previous window count, current window count}
+    private final Cache<String, long[]> localCounters;
+
+    public SlidingWindowRateLimiter(String name, int limit, Duration window, long maxTrackedKeys,
+                                    StringRedisTemplate redisTemplate, RedisCircuitBreaker circuitBreaker) {
+        this(name, limit, window, maxTrackedKeys, redisTemplate, circuitBreaker, System::currentTimeMillis);
+    }
+
+    public SlidingWindowRateLimiter(String name, int limit, Duration window, long maxTrackedKeys,
+                                    StringRedisTemplate redisTemplate, RedisCircuitBreaker circuitBreaker,
+                                    LongSupplier clock) {
+        this.name = name;
+        this.limit = limit;
+        this.windowMillis = window.toMillis();
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+        this.clock = clock;
+        this.localCounters = Caffeine.newBuilder()
+            .maximumSize(maxTrackedKeys)
+            // A key idle for two windows has nothing left to count
+            .expireAfterAccess(window.multipliedBy(2))
+            .build();
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Estimated number of events for the key within the last window.
+     */
+    public double count(String key) {
+        return estimate(counters(key, 0));
+    }
+
+    /**
+     * Record an event for the key.
+     *
+     * @return Estimated number of events within the last window, including this one
+     */
+    public double record(String key) {
+        return estimate(counters(key, 1));
+    }
+
+    public boolean isLimited(String key) {
+        return count(key) >= limit;
+    }
+
+    public int getRemaining(String key) {
+        return Math.max(0, limit - (int) Math.ceil(count(key)));
+    }
+
+    /**
+     * Seconds until the key drops back below the limit, or 0 if it isn't limited.
+     */
+    public long getSecondsUntilReset(String key) {
+        long now = clock.getAsLong();
+        long[] counters = counters(key, 0);
+        if (estimate(counters) < limit) {
+            return 0;
+        }
+        long elapsed = now % windowMillis;
+        double previous = counters[1];
+        double current = counters[2];
+        double waitMillis;
+        if (current < limit) {
+            // The previous window's weight has to decay far enough within this window
+            waitMillis = windowMillis * (1 - (limit - current) / previous) - elapsed;
+        } else {
+            // Only after this window rolls over and its count decays in turn
+            waitMillis = (windowMillis - elapsed) + windowMillis * (1 - limit / current);
+        }
+        return Math.max(1, (long) Math.ceil(waitMillis / 1000));
+    }
+
+    public void reset(String key) {
+        localCounters.invalidate(key);
+        if (useRedis()) {
+            long window = clock.getAsLong() / windowMillis;
+            try {
+                redisTemplate.delete(List.of(redisKey(key, window), redisKey(key, window - 1)));
+            } catch (Exception e) {
+                onRedisFailure();
+                log.debug("Could not reset rate limit {} for {}: {}", name, key, e.getMessage());
+            }
+        }
+    }
+
+    private double estimate(long[] counters) {
+        double previousWeight = 1.0 - (double) (clock.getAsLong() % windowMillis) / windowMillis;
+        return counters[1] * previousWeight + counters[2];
+    }
+
+    private long[] counters(String key, long increment) {
+        long window = clock.getAsLong() / windowMillis;
+        if (useRedis()) {
+            long start = System.nanoTime();
+            try {
+                List<?> result = redisTemplate.execute(COUNT_SCRIPT,
+                    List.of(redisKey(key, window), redisKey(key, window - 1)),
+                    String.valueOf(increment), String.valueOf(windowMillis * 2));
+                if (circuitBreaker != null) {
+                    circuitBreaker.onSuccess(System.nanoTime() - start);
+                }
+                return new long[] {window, ((Number) result.get(1)).longValue(), ((Number) result.get(0)).longValue()};
+            } catch (Exception e) {
+                onRedisFailure();
+                log.debug("Rate limit {} falling back to local counters: {}", name, e.getMessage());
+            }
+        }
+        return localCounters(key, window, increment);
+    }
+
+    private long[] localCounters(String key, long window, long increment) {
+        long[] counters = increment > 0 ? localCounters.get(key, k -> new long[] {window, 0, 0}) : localCounters.getIfPresent(key);
+        if (counters == null) {
+            return new long[] {window, 0, 0};
+        }
+        synchronized (counters) {
+            if (counters[0] != window) {
+                // Roll over: the current window becomes the previous one if they're adjacent
+                counters[1] = counters[0] == window - 1 ? counters[2] : 0;
+                counters[2] = 0;
+                counters[0] = window;
+            }
+            counters[2] += increment;
+            return counters.clone();
+        }
+    }
+
+    private boolean useRedis() {
+        return redisTemplate != null && (circuitBreaker == null || circuitBreaker.allowRequest());
+    }
+
+    private void onRedisFailure() {
+        if (circuitBreaker != null) {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    private String redisKey(String key, long window) {
+        // Hash tag keeps both windows of a key in the same cluster slot
+        return "ratelimit:{" + name + ":" + key + "}:" + window;
+    }
+}
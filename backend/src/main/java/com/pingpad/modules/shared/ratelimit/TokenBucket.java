@@ -0,0 +1,103 @@
+package com.pingpad.modules.shared.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Instead of a token count and a refill timestamp, the bucket keeps a single value: the
+ * time at which it will be full again. Taking a token pushes that time one refill
+ * interval further; a token is available as long as it stays within one full bucket of
+ * now. That makes every operation a single compare-and-set.
+ */
+public class TokenBucket {
+
+    private final long capacity;
+    private final long nanosPerToken;
+
+    // Time (System.nanoTime) at which the bucket is full again
+    private final AtomicLong fullAt;
+
+    // Tokens taken on this instance that haven't been shared with other instances yet
+    private final AtomicLong unsynced = new AtomicLong();
+    // Last cluster-wide consumption counter seen while reconciling
+    private volatile long lastGlobalCount = -1;
+
+    public TokenBucket(long capacity, long nanosPerToken, long now) {
+        this.capacity = capacity;
+        this.nanosPerToken = nanosPerToken;
+        this.fullAt = new AtomicLong(now);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Take one token if available.
+     */
+    public boolean tryConsume(long now) {
+        long limit = now + capacity * nanosPerToken;
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerToken;
+            if (next > limit) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                unsynced.incrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    public long getAvailableTokens(long now) {
+        long debt = Math.max(fullAt.get(), now) - now;
+        return Math.max(0, (capacity * nanosPerToken - debt) / nanosPerToken);
+    }
+
+    /**
+     * Nanoseconds until the next token is available.
+     */
+    public long getNanosUntilAvailable(long now) {
+        long next = Math.max(fullAt.get(), now) + nanosPerToken;
+        return Math.max(0, next - now - capacity * nanosPerToken);
+    }
+
+    /**
+     * Nanoseconds until the bucket is full again.
+     */
+    public long getNanosUntilFull(long now) {
+        return Math.max(0, fullAt.get() - now);
+    }
+
+    /**
+     * Remove tokens taken elsewhere, never leaving the bucket more than empty.
+     */
+    public void drain(long tokens, long now) {
+        if (tokens <= 0) {
+            return;
+        }
+        long limit = now + capacity * nanosPerToken;
+        fullAt.getAndUpdate(current -> Math.min(limit, Math.max(current, now) + tokens * nanosPerToken));
+    }
+
+    long takeUnsynced() {
+        return unsynced.getAndSet(0);
+    }
+
+    /**
+     * Put back consumption taken by {@link #takeUnsynced} that couldn't be shared.
+     */
+    void restoreUnsynced(long tokens) {
+        unsynced.addAndGet(tokens);
+    }
+
+    long getLastGlobalCount() {
+        return lastGlobalCount;
+    }
+
+    void setLastGlobalCount(long lastGlobalCount) {
+        this.lastGlobalCount = lastGlobalCount;
+    }
+}
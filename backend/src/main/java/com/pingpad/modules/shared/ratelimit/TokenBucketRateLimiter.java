@@ -0,0 +1,149 @@
+package com.pingpad.modules.shared.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pingpad.modules.cache.services.RedisCircuitBreaker;
+import com.pingpad.modules.shared.config.RateLimitProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token-bucket rate limiter for API requests.
+ *
+ * Decisions are made against in-memory buckets only, so a request never waits on Redis.
+ * Instances share consumption by periodically adding their local usage to a per-bucket
+ * counter in Redis and draining whatever the other instances used from their own bucket.
+ * Between reconciliations the cluster can overshoot a limit by at most what the other
+ * instances consumed in one interval.
+ */
+@Component
+@Slf4j
+public class TokenBucketRateLimiter {
+
+    private final RateLimitProperties properties;
+    private final StringRedisTemplate redisTemplate;
+    private final RedisCircuitBreaker circuitBreaker;
+
+    private final Cache<String, TokenBucket> buckets;
+
+    public TokenBucketRateLimiter(RateLimitProperties properties,
+                                  ObjectProvider<StringRedisTemplate> redisTemplate,
+                                  ObjectProvider<RedisCircuitBreaker> circuitBreaker) {
+        this.properties = properties;
+        this.redisTemplate = properties.getRedis().isEnabled() ? redisTemplate.getIfAvailable() : null;
+        this.circuitBreaker = circuitBreaker.getIfAvailable();
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxBuckets())
+            // An idle bucket has refilled by then and is no different from a new one
+            .expireAfterAccess(longestRefillPeriod(properties))
+            .build();
+    }
+
+    /**
+     * Take a token for the caller on the given route.
+     *
+     * @param route Name of the route the limit belongs to
+     * @param caller Key of the caller (user or client address)
+     */
+    public Decision tryConsume(String route, String caller, RateLimitProperties.Limit limit, double multiplier) {
+        long capacity = Math.max(1, Math.round(limit.getCapacity() * multiplier));
+        long nanosPerToken = Math.max(1, limit.getRefillPeriod().toNanos() / capacity);
+        long now = System.nanoTime();
+
+        TokenBucket bucket = buckets.get(route + "|" + caller, key -> new TokenBucket(capacity, nanosPerToken, now));
+        boolean allowed = bucket.tryConsume(now);
+        return new Decision(allowed, bucket.getCapacity(), bucket.getAvailableTokens(now),
+            toSeconds(bucket.getNanosUntilFull(now)),
+            allowed ? 0 : Math.max(1, toSeconds(bucket.getNanosUntilAvailable(now))));
+    }
+
+    /**
+     * Share local consumption with other instances and apply theirs.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.redis.reconcile-interval:PT1S}")
+    public void reconcile() {
+        if (redisTemplate == null || (circuitBreaker != null && !circuitBreaker.allowRequest())) {
+            return;
+        }
+        List<Map.Entry<String, TokenBucket>> entries = new ArrayList<>(buckets.asMap().entrySet());
+        if (entries.isEmpty()) {
+            return;
+        }
+        long[] sent = new long[entries.size()];
+        for (int i = 0; i < sent.length; i++) {
+            sent[i] = entries.get(i).getValue().takeUnsynced();
+        }
+        long ttlMillis = longestRefillPeriod(properties).multipliedBy(2).toMillis();
+
+        List<Object> results;
+        long start = System.nanoTime();
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                for (int i = 0; i < sent.length; i++) {
+                    String key = "ratelimit:{" + entries.get(i).getKey() + "}:used";
+                    redis.incrBy(key, sent[i]);
+                    redis.pExpire(key, ttlMillis);
+                }
+                return null;
+            });
+            if (circuitBreaker != null) {
+                circuitBreaker.onSuccess(System.nanoTime() - start);
+            }
+        } catch (Exception e) {
+            if (circuitBreaker != null) {
+                circuitBreaker.onFailure();
+            }
+            // Send this round's consumption with the next one instead of losing it
+            for (int i = 0; i < sent.length; i++) {
+                entries.get(i).getValue().restoreUnsynced(sent[i]);
+            }
+            log.debug("Could not reconcile rate limits: {}", e.getMessage());
+            return;
+        }
+
+        long now = System.nanoTime();
+        for (int i = 0; i < sent.length; i++) {
+            TokenBucket bucket = entries.get(i).getValue();
+            long global = ((Number) results.get(i * 2)).longValue();
+            long previous = bucket.getLastGlobalCount();
+            // A counter that went backwards expired in Redis; there's nothing to apply then
+            if (previous >= 0 && global >= previous + sent[i]) {
+                bucket.drain(global - previous - sent[i], now);
+            }
+            bucket.setLastGlobalCount(global);
+        }
+    }
+
+    private static long toSeconds(long nanos) {
+        return (nanos + 999_999_999L) / 1_000_000_000L;
+    }
+
+    private static Duration longestRefillPeriod(RateLimitProperties properties) {
+        Duration longest = properties.getDefaultLimit().getRefillPeriod();
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            if (route.getRefillPeriod().compareTo(longest) > 0) {
+                longest = route.getRefillPeriod();
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Outcome of a rate limit check.
+     *
+     * @param resetSeconds Seconds until the bucket is full again
+     * @param retryAfterSeconds Seconds until the next request is allowed, 0 if this one was
+     */
+    public record Decision(boolean allowed, long limit, long remaining, long resetSeconds, long retryAfterSeconds) {}
+}
@@ -0,0 +1,5 @@
+-- Index backing keyset pagination of test results per endpoint
+-- Matches the (timestamp DESC, id DESC) ordering used by the results API
+
+CREATE INDEX IF NOT EXISTS idx_api_test_results_endpoint_timestamp_id
+    ON api_test_results(endpoint_uuid_id, timestamp DESC, id DESC);
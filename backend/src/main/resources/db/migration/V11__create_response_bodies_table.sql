@@ -0,0 +1,36 @@
+-- Content-addressed storage for test result response bodies
+-- Bodies are keyed by the SHA-256 of their (captured) bytes so identical payloads
+-- returned by recurring probes are stored once. Content is deflate-compressed
+-- unless compression doesn't pay off ('identity').
+
+CREATE TABLE IF NOT EXISTS response_bodies (
+    hash VARCHAR(64) PRIMARY KEY,
+    encoding VARCHAR(16) NOT NULL,
+    original_size INTEGER NOT NULL,
+    content BYTEA NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER TABLE api_test_results ADD COLUMN IF NOT EXISTS response_body_hash VARCHAR(64);
+ALTER TABLE api_test_results ADD COLUMN IF NOT EXISTS response_body_size INTEGER;
+ALTER TABLE api_test_results ADD COLUMN IF NOT EXISTS response_body_truncated BOOLEAN;
+
+CREATE INDEX IF NOT EXISTS idx_api_test_results_response_body_hash ON api_test_results(response_body_hash);
+
+-- Move existing inline bodies into the store (uncompressed) and drop the inline copies
+INSERT INTO response_bodies (hash, encoding, original_size, content)
+SELECT DISTINCT ON (hash) hash, 'identity', octet_length(bytes), bytes
+FROM (
+    SELECT encode(sha256(convert_to(response_body, 'UTF8')), 'hex') AS hash,
+           convert_to(response_body, 'UTF8') AS bytes
+    FROM api_test_results
+    WHERE response_body IS NOT NULL
+) bodies
+ON CONFLICT (hash) DO NOTHING;
+
+UPDATE api_test_results
+SET response_body_hash = encode(sha256(convert_to(response_body, 'UTF8')), 'hex'),
+    response_body_size = octet_length(convert_to(response_body, 'UTF8')),
+    response_body_truncated = FALSE,
+    response_body = NULL
+WHERE response_body IS NOT NULL;
@@ -0,0 +1,42 @@
+-- Materialised index of unacknowledged alarms
+-- A row is inserted when a failed test result is written and removed when the alarm
+-- is acknowledged (or ages out), so listing and counting alarms no longer scans
+-- test results. open_alarm_counts keeps a per-user count for O(1) badge lookups.
+
+CREATE TABLE IF NOT EXISTS open_alarms (
+    test_result_id BIGINT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    endpoint_id UUID NOT NULL,
+    status_code INTEGER,
+    error TEXT,
+    occurred_at TIMESTAMP NOT NULL,
+    CONSTRAINT fk_open_alarm_test_result FOREIGN KEY (test_result_id) REFERENCES api_test_results(id) ON DELETE CASCADE,
+    CONSTRAINT fk_open_alarm_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_open_alarms_user_occurred ON open_alarms(user_id, occurred_at DESC, test_result_id DESC);
+CREATE INDEX IF NOT EXISTS idx_open_alarms_endpoint_id ON open_alarms(endpoint_id);
+CREATE INDEX IF NOT EXISTS idx_open_alarms_occurred_at ON open_alarms(occurred_at);
+
+CREATE TABLE IF NOT EXISTS open_alarm_counts (
+    user_id BIGINT PRIMARY KEY,
+    open_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT fk_open_alarm_count_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Backfill: failed results from the last 7 days that the endpoint owner hasn't acknowledged
+INSERT INTO open_alarms (test_result_id, user_id, endpoint_id, status_code, error, occurred_at)
+SELECT r.id, e.user_id, r.endpoint_uuid_id, r.status_code, r.error, r.timestamp
+FROM api_test_results r
+JOIN api_endpoints e ON e.uuid_id = r.endpoint_uuid_id
+WHERE r.success = FALSE
+  AND r.timestamp >= CURRENT_TIMESTAMP - INTERVAL '7 days'
+  AND NOT EXISTS (
+      SELECT 1 FROM acknowledged_alarms a
+      WHERE a.user_id = e.user_id AND a.test_result_id = r.id
+  )
+ON CONFLICT (test_result_id) DO NOTHING;
+
+INSERT INTO open_alarm_counts (user_id, open_count)
+SELECT user_id, COUNT(*) FROM open_alarms GROUP BY user_id
+ON CONFLICT (user_id) DO UPDATE SET open_count = EXCLUDED.open_count;
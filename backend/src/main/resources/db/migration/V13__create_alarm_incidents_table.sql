@@ -0,0 +1,24 @@
+-- Alarm incidents: consecutive failures of an endpoint folded into one incident
+-- An incident opens on the first failure, counts subsequent failures and is resolved
+-- by the next successful result. At most one incident per endpoint can be open.
+
+CREATE TABLE IF NOT EXISTS alarm_incidents (
+    id BIGSERIAL PRIMARY KEY,
+    endpoint_id UUID NOT NULL,
+    user_id BIGINT NOT NULL,
+    first_seen TIMESTAMP NOT NULL,
+    last_seen TIMESTAMP NOT NULL,
+    failure_count BIGINT NOT NULL DEFAULT 1,
+    first_result_id BIGINT,
+    last_result_id BIGINT,
+    last_status_code INTEGER,
+    last_error TEXT,
+    resolved_at TIMESTAMP,
+    acknowledged_at TIMESTAMP,
+    CONSTRAINT fk_alarm_incident_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Only one open incident per endpoint (also guards against concurrent openers)
+CREATE UNIQUE INDEX IF NOT EXISTS idx_alarm_incidents_open_endpoint ON alarm_incidents(endpoint_id) WHERE resolved_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_alarm_incidents_user_last_seen ON alarm_incidents(user_id, last_seen DESC);
@@ -0,0 +1,19 @@
+-- Response headers as a JSON map per test result instead of newline-joined "Name: value" lines,
+-- so they are stored as received from the engine and can be queried with jsonb operators.
+
+ALTER TABLE api_test_results ADD COLUMN IF NOT EXISTS response_header_map JSONB;
+
+-- Move existing header lines into the map and drop the text copies
+UPDATE api_test_results r
+SET response_header_map = h.header_map,
+    response_headers = NULL
+FROM (
+    SELECT t.id,
+           jsonb_object_agg(trim(split_part(line, ':', 1)), trim(substr(line, strpos(line, ':') + 1))) AS header_map
+    FROM api_test_results t,
+         regexp_split_to_table(t.response_headers, E'\n') AS line
+    WHERE t.response_headers IS NOT NULL
+      AND strpos(line, ':') > 0
+    GROUP BY t.id
+) h
+WHERE r.id = h.id;
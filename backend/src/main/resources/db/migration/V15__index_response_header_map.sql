@@ -0,0 +1,4 @@
+-- Index response_header_map for header lookups
+-- Containment lookups (response_header_map @> '{"Name": "value"}'); jsonb_path_ops keeps the index small
+CREATE INDEX IF NOT EXISTS idx_api_test_results_response_header_map
+    ON api_test_results USING GIN (response_header_map jsonb_path_ops);
@@ -0,0 +1,15 @@
+-- Hourly latency rollups per endpoint
+-- Each row holds a serialised, mergeable latency histogram so percentile
+-- queries over long ranges don't need to scan api_test_results
+
+CREATE TABLE IF NOT EXISTS latency_rollups (
+    id BIGSERIAL PRIMARY KEY,
+    endpoint_id UUID NOT NULL,
+    bucket_start TIMESTAMP NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    histogram BYTEA NOT NULL,
+    CONSTRAINT fk_latency_rollup_endpoint FOREIGN KEY (endpoint_id) REFERENCES api_endpoints(uuid_id) ON DELETE CASCADE,
+    CONSTRAINT uk_latency_rollups_endpoint_bucket UNIQUE (endpoint_id, bucket_start)
+);
+
+CREATE INDEX IF NOT EXISTS idx_latency_rollups_bucket_start ON latency_rollups(bucket_start);
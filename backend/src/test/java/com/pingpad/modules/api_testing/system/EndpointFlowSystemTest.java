@@ -5,18 +5,25 @@ import com.pingpad.modules.api_testing.models.ApiTestResult;
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjectionRepository;
 import com.pingpad.modules.api_testing.repositories.ApiTestResultRepository;
+import com.pingpad.modules.auth.models.AuthenticatedUser;
 import com.pingpad.modules.user_management.models.User;
 import com.pingpad.modules.user_management.repositories.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -49,6 +56,9 @@ class EndpointFlowSystemTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private EntityManager entityManager;
+
     private ObjectMapper objectMapper;
     private User testUser;
 
@@ -62,6 +72,15 @@ class EndpointFlowSystemTest {
         testUser.setEmail("systemtest@example.com");
         testUser.setGithubLogin("systemtest");
         testUser = userRepository.save(testUser);
+
+        AuthenticatedUser principal = new AuthenticatedUser(testUser.getId(), testUser.getEmail(), null, List.of("ROLE_USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -154,4 +173,27 @@ class EndpointFlowSystemTest {
         mockMvc.perform(delete("/api/endpoints/" + nonExistentId))
                 .andExpect(status().isOk()); // Controller processes request
     }
+
+    @Test
+    void testResultHeadersAreStoredAsMap() {
+        // Arrange
+        ApiTestResult result = ApiTestResult.builder()
+                .endpointId(UUID.randomUUID())
+                .user(testUser)
+                .statusCode(200)
+                .responseHeaders(Map.of("Content-Type", "application/json", "Link", "<https://api.example.com/page/2>; rel=next"))
+                .success(true)
+                .timestamp(LocalDateTime.now())
+                .build();
+
+        // Act
+        Long id = testResultRepository.saveAndFlush(result).getId();
+        entityManager.clear();
+        ApiTestResult loaded = testResultRepository.findById(id).orElseThrow();
+
+        // Assert - values containing colons survive, nothing is re-split
+        assertEquals("application/json", loaded.getResponseHeaders().get("Content-Type"));
+        assertEquals("<https://api.example.com/page/2>; rel=next", loaded.getResponseHeaders().get("Link"));
+        assertEquals(2, loaded.getResponseHeaders().size());
+    }
 }
@@ -0,0 +1,164 @@
+package com.pingpad.modules.api_testing.system;
+
+import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjectionRepository;
+import com.pingpad.modules.api_testing.repositories.ApiTestResultRepository;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmCountRepository;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmRepository;
+import com.pingpad.modules.user_management.models.User;
+import com.pingpad.modules.user_management.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * System tests for the bulk alarm acknowledgement statements, which use PostgreSQL-only
+ * features (data-modifying CTEs, ON CONFLICT) and so cannot run against H2.
+ *
+ * Runs against the database in PINGPAD_TEST_POSTGRES_URL (migrated by Flyway), and is
+ * skipped when it isn't set. Each test rolls back its own data.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@EnabledIfEnvironmentVariable(named = "PINGPAD_TEST_POSTGRES_URL", matches = ".+")
+class OpenAlarmAcknowledgeSystemTest {
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> System.getenv("PINGPAD_TEST_POSTGRES_URL"));
+        registry.add("spring.datasource.username", () -> System.getenv().getOrDefault("PINGPAD_TEST_POSTGRES_USER", "postgres"));
+        registry.add("spring.datasource.password", () -> System.getenv().getOrDefault("PINGPAD_TEST_POSTGRES_PASSWORD", ""));
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.datasource.driverClassName", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.flyway.enabled", () -> "true");
+        registry.add("spring.flyway.baseline-on-migrate", () -> "true");
+    }
+
+    @Autowired
+    private OpenAlarmRepository openAlarmRepository;
+
+    @Autowired
+    private OpenAlarmCountRepository openAlarmCountRepository;
+
+    @Autowired
+    private ApiEndpointProjectionRepository projectionRepository;
+
+    @Autowired
+    private ApiTestResultRepository testResultRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long userId;
+    private UUID endpointId;
+    private UUID otherEndpointId;
+    private Long firstResultId;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString();
+        User user = new User();
+        user.setName("Alarm Test User");
+        user.setEmail("alarmtest-" + suffix + "@example.com");
+        user.setGithubLogin("alarmtest-" + suffix);
+        User testUser = userRepository.saveAndFlush(user);
+        userId = testUser.getId();
+
+        endpointId = saveEndpoint();
+        otherEndpointId = saveEndpoint();
+        LocalDateTime now = LocalDateTime.now();
+        firstResultId = openAlarm(testUser, endpointId, now.minusHours(2));
+        openAlarm(testUser, endpointId, now.minusHours(1));
+        openAlarm(testUser, otherEndpointId, now);
+        openAlarmCountRepository.increment(userId, 3);
+    }
+
+    @Test
+    void testAcknowledgeByEndpoint_MovesAlarmsAndUpdatesCount() {
+        // Act
+        int acknowledged = openAlarmRepository.acknowledgeByEndpoint(userId, endpointId);
+
+        // Assert
+        assertEquals(2, acknowledged);
+        assertEquals(1L, openCount());
+        assertEquals(2, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM acknowledged_alarms WHERE user_id = ?", Integer.class, userId));
+        assertEquals(1, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM open_alarms WHERE user_id = ? AND endpoint_id = ?", Integer.class, userId, otherEndpointId));
+    }
+
+    @Test
+    void testAcknowledgeByIds_SecondCallAcknowledgesNothing() {
+        // Act
+        int first = openAlarmRepository.acknowledgeByIds(userId, List.of(firstResultId));
+        int second = openAlarmRepository.acknowledgeByIds(userId, List.of(firstResultId));
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals(2L, openCount());
+    }
+
+    @Test
+    void testAcknowledgeBeforeAndRange_OnlyCoverTheirWindow() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now();
+
+        // Act
+        int before = openAlarmRepository.acknowledgeBefore(userId, now.minusMinutes(90));
+        int range = openAlarmRepository.acknowledgeEndpointRange(userId, endpointId, now.minusHours(3), now);
+
+        // Assert
+        assertEquals(1, before);
+        assertEquals(1, range);
+        assertEquals(1L, openCount());
+    }
+
+    private UUID saveEndpoint() {
+        return projectionRepository.saveAndFlush(ApiEndpointProjection.builder()
+            .id(UUID.randomUUID())
+            .name("Alarm Test Endpoint")
+            .url("https://example.com/health")
+            .method("GET")
+            .userId(userId)
+            .build()).getId();
+    }
+
+    private Long openAlarm(User user, UUID endpoint, LocalDateTime occurredAt) {
+        ApiTestResult result = testResultRepository.saveAndFlush(ApiTestResult.builder()
+            .endpointId(endpoint)
+            .user(user)
+            .statusCode(500)
+            .success(false)
+            .timestamp(occurredAt)
+            .build());
+        openAlarmRepository.insertIfAbsent(result.getId(), userId, endpoint, 500, null, occurredAt);
+        return result.getId();
+    }
+
+    private Long openCount() {
+        return jdbcTemplate.queryForObject(
+            "SELECT open_count FROM open_alarm_counts WHERE user_id = ?", Long.class, userId);
+    }
+}
@@ -0,0 +1,226 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.models.OpenAlarm;
+import com.pingpad.modules.api_testing.models.OpenAlarmCount;
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.api_testing.repositories.AcknowledgedAlarmRepository;
+import com.pingpad.modules.api_testing.repositories.AlarmIncidentRepository;
+import com.pingpad.modules.api_testing.repositories.ApiTestResultRepository;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmCountRepository;
+import com.pingpad.modules.api_testing.repositories.OpenAlarmRepository;
+import com.pingpad.modules.api_testing.services.AlarmService;
+import com.pingpad.modules.api_testing.services.ApiEndpointService;
+import com.pingpad.modules.api_testing.services.ResultStreamService;
+import com.pingpad.modules.user_management.models.User;
+import com.pingpad.modules.user_management.repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AlarmServiceUnitTest {
+
+    @Mock
+    private ApiTestResultRepository testResultRepository;
+
+    @Mock
+    private AcknowledgedAlarmRepository acknowledgedAlarmRepository;
+
+    @Mock
+    private OpenAlarmRepository openAlarmRepository;
+
+    @Mock
+    private OpenAlarmCountRepository openAlarmCountRepository;
+
+    @Mock
+    private AlarmIncidentRepository incidentRepository;
+
+    @Mock
+    private ApiEndpointService apiEndpointService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ResultStreamService resultStreamService;
+
+    @InjectMocks
+    private AlarmService alarmService;
+
+    private UUID endpointId;
+    private Long userId;
+
+    @BeforeEach
+    void setUp() {
+        endpointId = UUID.randomUUID();
+        userId = 1L;
+    }
+
+    @Test
+    void testRecordFailure_IncrementsCountOnlyForNewAlarms() {
+        // Arrange
+        ApiTestResult result = ApiTestResult.builder()
+            .id(10L)
+            .endpointId(endpointId)
+            .statusCode(500)
+            .error("Internal Server Error")
+            .success(false)
+            .timestamp(LocalDateTime.now())
+            .build();
+        when(openAlarmRepository.insertIfAbsent(eq(10L), eq(userId), eq(endpointId), eq(500), anyString(), any()))
+            .thenReturn(1, 0);
+
+        // Act
+        alarmService.recordFailure(result, userId);
+        alarmService.recordFailure(result, userId);
+
+        // Assert
+        verify(openAlarmCountRepository, times(1)).increment(userId, 1);
+        verify(resultStreamService, times(1)).publishAlarmDelta(userId, 1);
+    }
+
+    @Test
+    void testAlarmDeltas_PublishedOnlyAfterCommit() {
+        // Arrange
+        ApiTestResult result = ApiTestResult.builder()
+            .id(10L)
+            .endpointId(endpointId)
+            .statusCode(500)
+            .error("Internal Server Error")
+            .success(false)
+            .timestamp(LocalDateTime.now())
+            .build();
+        when(openAlarmRepository.insertIfAbsent(eq(10L), eq(userId), eq(endpointId), eq(500), anyString(), any()))
+            .thenReturn(1);
+        when(openAlarmRepository.acknowledgeByEndpoint(userId, endpointId)).thenReturn(3);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act - one transaction commits, the next rolls back
+            alarmService.recordFailure(result, userId);
+            verify(resultStreamService, never()).publishAlarmDelta(anyLong(), anyLong());
+            completeTransaction(TransactionSynchronization.STATUS_COMMITTED);
+
+            alarmService.acknowledgeEndpointAlarms(userId, endpointId);
+            completeTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        // Assert
+        verify(resultStreamService).publishAlarmDelta(userId, 1);
+        verify(resultStreamService, never()).publishAlarmDelta(userId, -3);
+    }
+
+    @Test
+    void testGetUnacknowledgedAlarmCount_ReadsCounter() {
+        // Arrange
+        when(openAlarmCountRepository.findById(userId)).thenReturn(Optional.of(new OpenAlarmCount(userId, 42L)));
+        when(openAlarmCountRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertEquals(42L, alarmService.getUnacknowledgedAlarmCount(userId));
+        assertEquals(0L, alarmService.getUnacknowledgedAlarmCount(2L));
+        verifyNoInteractions(testResultRepository);
+    }
+
+    @Test
+    void testAcknowledgeAlarm_OpenAlarmUsesSingleStatement() {
+        // Arrange
+        when(openAlarmRepository.acknowledgeByIds(userId, List.of(10L))).thenReturn(1);
+
+        // Act
+        alarmService.acknowledgeAlarm(userId, 10L);
+
+        // Assert - no per-alarm lookups or inserts
+        verifyNoInteractions(testResultRepository, userRepository);
+        verify(acknowledgedAlarmRepository, never()).save(any());
+        verify(resultStreamService).publishAlarmDelta(userId, -1);
+    }
+
+    @Test
+    void testAcknowledgeAlarm_FallsBackForResultsOutsideOpenAlarms() {
+        // Arrange
+        User user = new User();
+        user.setId(userId);
+        ApiTestResult result = ApiTestResult.builder().id(10L).endpointId(endpointId).success(false).build();
+        when(openAlarmRepository.acknowledgeByIds(userId, List.of(10L))).thenReturn(0);
+        when(acknowledgedAlarmRepository.existsByUserIdAndTestResultId(userId, 10L)).thenReturn(false);
+        when(testResultRepository.findById(10L)).thenReturn(Optional.of(result));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+
+        // Act
+        alarmService.acknowledgeAlarm(userId, 10L);
+
+        // Assert
+        verify(acknowledgedAlarmRepository).save(any());
+        verify(resultStreamService, never()).publishAlarmDelta(anyLong(), anyLong());
+    }
+
+    @Test
+    void testAcknowledgeAlarms_BatchesLargeIdLists() {
+        // Arrange
+        List<Long> ids = java.util.stream.LongStream.rangeClosed(1, 2500).boxed().toList();
+        when(openAlarmRepository.acknowledgeByIds(eq(userId), anyCollection())).thenReturn(1000, 1000, 500);
+
+        // Act
+        long acknowledged = alarmService.acknowledgeAlarms(userId, ids);
+
+        // Assert
+        assertEquals(2500L, acknowledged);
+        verify(openAlarmRepository, times(3)).acknowledgeByIds(eq(userId), anyCollection());
+        verify(resultStreamService).publishAlarmDelta(userId, -2500L);
+    }
+
+    @Test
+    void testGetUnacknowledgedAlarmPage_ReturnsCursorWhenMoreRemain() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        List<OpenAlarm> rows = List.of(
+            OpenAlarm.builder().testResultId(3L).userId(userId).endpointId(endpointId).occurredAt(now).build(),
+            OpenAlarm.builder().testResultId(2L).userId(userId).endpointId(endpointId).occurredAt(now.minusSeconds(30)).build(),
+            OpenAlarm.builder().testResultId(1L).userId(userId).endpointId(endpointId).occurredAt(now.minusSeconds(60)).build()
+        );
+        when(openAlarmRepository.findPage(eq(userId), any(Pageable.class))).thenReturn(rows);
+        when(apiEndpointService.getEndpoints(Set.of(endpointId))).thenReturn(Map.of(endpointId, ApiEndpointProjection.builder()
+            .id(endpointId).name("Health").url("https://example.com/health").build()));
+
+        // Act
+        AlarmService.AlarmPage page = alarmService.getUnacknowledgedAlarmPage(userId, null, 2);
+
+        // Assert
+        assertEquals(2, page.getItems().size());
+        assertEquals("Health", page.getItems().get(0).getEndpointName());
+        assertNotNull(page.getNextCursor());
+        verify(apiEndpointService, times(1)).getEndpoints(Set.of(endpointId));
+        verify(apiEndpointService, never()).getEndpoint(any());
+    }
+
+    private static void completeTransaction(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        if (status == TransactionSynchronization.STATUS_COMMITTED) {
+            synchronizations.forEach(TransactionSynchronization::afterCommit);
+        }
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
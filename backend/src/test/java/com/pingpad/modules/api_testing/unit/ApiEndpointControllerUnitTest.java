@@ -6,6 +6,9 @@ import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
 import com.pingpad.modules.api_testing.services.ApiEndpointService;
 import com.pingpad.modules.api_testing.services.ApiTestService;
 import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.auth.models.AuthenticatedUser;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,11 +16,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AuthenticationCredentialsNotFoundException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
 import java.util.*;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -42,6 +49,27 @@ class ApiEndpointControllerUnitTest {
     void setUp() {
         mockMvc = MockMvcBuilders.standaloneSetup(apiEndpointController).build();
         objectMapper = new ObjectMapper();
+
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com", null, List.of("ROLE_USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testGetAllEndpoints_Unauthenticated() {
+        // Arrange
+        SecurityContextHolder.clearContext();
+
+        // Act & Assert - no fallback user, the request is rejected before any lookup
+        ServletException exception = assertThrows(ServletException.class,
+                () -> mockMvc.perform(get("/api/endpoints")));
+        assertInstanceOf(AuthenticationCredentialsNotFoundException.class, exception.getCause());
+        verifyNoInteractions(apiEndpointService);
     }
 
     @Test
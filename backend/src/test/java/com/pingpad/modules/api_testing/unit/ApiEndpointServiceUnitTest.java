@@ -19,6 +19,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -152,8 +153,8 @@ class ApiEndpointServiceUnitTest {
                 .userId(testUserId)
                 .build();
 
-        when(cacheService.get(anyString(), eq(ApiEndpointProjection.class)))
-                .thenReturn(Optional.of(cachedProjection));
+        when(cacheService.getOrLoad(anyString(), eq(ApiEndpointProjection.class), any()))
+                .thenReturn(cachedProjection);
 
         // Act
         ApiEndpointProjection result = apiEndpointService.getEndpoint(testEndpointId);
@@ -162,7 +163,7 @@ class ApiEndpointServiceUnitTest {
         assertNotNull(result);
         assertEquals(cachedProjection, result);
         assertEquals("Cached Endpoint", result.getName());
-        verify(cacheService).get("endpoint:" + testEndpointId, ApiEndpointProjection.class);
+        verify(cacheService).getOrLoad(eq("endpoint:" + testEndpointId), eq(ApiEndpointProjection.class), any());
         verify(projectionRepository, never()).findById(any());
     }
 
@@ -177,11 +178,10 @@ class ApiEndpointServiceUnitTest {
                 .userId(testUserId)
                 .build();
 
-        when(cacheService.get(anyString(), eq(ApiEndpointProjection.class)))
-                .thenReturn(Optional.empty());
+        when(cacheService.getOrLoad(anyString(), eq(ApiEndpointProjection.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ApiEndpointProjection>>getArgument(2).get());
         when(projectionRepository.findById(testEndpointId))
                 .thenReturn(Optional.of(dbProjection));
-        doNothing().when(cacheService).put(anyString(), any(ApiEndpointProjection.class));
 
         // Act
         ApiEndpointProjection result = apiEndpointService.getEndpoint(testEndpointId);
@@ -191,14 +191,13 @@ class ApiEndpointServiceUnitTest {
         assertEquals(dbProjection, result);
         assertEquals("DB Endpoint", result.getName());
         verify(projectionRepository).findById(testEndpointId);
-        verify(cacheService).put("endpoint:" + testEndpointId, dbProjection);
     }
 
     @Test
     void testGetEndpoint_NotFound() {
         // Arrange
-        when(cacheService.get(anyString(), eq(ApiEndpointProjection.class)))
-                .thenReturn(Optional.empty());
+        when(cacheService.getOrLoad(anyString(), eq(ApiEndpointProjection.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ApiEndpointProjection>>getArgument(2).get());
         when(projectionRepository.findById(testEndpointId))
                 .thenReturn(Optional.empty());
 
@@ -230,8 +229,8 @@ class ApiEndpointServiceUnitTest {
                         .build()
         );
 
-        when(cacheService.getList(anyString(), eq(ApiEndpointProjection.class)))
-                .thenReturn(Optional.of(cachedEndpoints));
+        when(cacheService.getOrLoadList(anyString(), eq(ApiEndpointProjection.class), any()))
+                .thenReturn(cachedEndpoints);
 
         // Act
         List<ApiEndpointProjection> result = apiEndpointService.getEndpointsByUser(testUserId);
@@ -239,7 +238,7 @@ class ApiEndpointServiceUnitTest {
         // Assert
         assertNotNull(result);
         assertEquals(2, result.size());
-        verify(cacheService).getList("endpoint:user:" + testUserId, ApiEndpointProjection.class);
+        verify(cacheService).getOrLoadList(eq("endpoint:user:" + testUserId), eq(ApiEndpointProjection.class), any());
         verify(projectionRepository, never()).findByUserId(any());
     }
 
@@ -256,11 +255,10 @@ class ApiEndpointServiceUnitTest {
                         .build()
         );
 
-        when(cacheService.getList(anyString(), eq(ApiEndpointProjection.class)))
-                .thenReturn(Optional.empty());
+        when(cacheService.getOrLoadList(anyString(), eq(ApiEndpointProjection.class), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<List<ApiEndpointProjection>>>getArgument(2).get());
         when(projectionRepository.findByUserId(testUserId))
                 .thenReturn(dbEndpoints);
-        doNothing().when(cacheService).putList(anyString(), anyList());
 
         // Act
         List<ApiEndpointProjection> result = apiEndpointService.getEndpointsByUser(testUserId);
@@ -269,6 +267,32 @@ class ApiEndpointServiceUnitTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         verify(projectionRepository).findByUserId(testUserId);
-        verify(cacheService).putList("endpoint:user:" + testUserId, dbEndpoints);
+        verify(cacheService).getOrLoadList(eq("endpoint:user:" + testUserId), eq(ApiEndpointProjection.class), any());
+    }
+
+    @Test
+    void testGetEndpoints_LoadsOnlyCacheMisses() {
+        // Arrange
+        UUID cachedId = UUID.randomUUID();
+        ApiEndpointProjection cachedProjection = ApiEndpointProjection.builder()
+                .id(cachedId).name("Cached").userId(testUserId).build();
+        ApiEndpointProjection dbProjection = ApiEndpointProjection.builder()
+                .id(testEndpointId).name("DB").userId(testUserId).build();
+
+        when(cacheService.getAll(anyCollection(), eq(ApiEndpointProjection.class)))
+                .thenReturn(new CacheService.MultiGetResult<>(
+                        Map.of("endpoint:" + cachedId, cachedProjection),
+                        List.of("endpoint:" + testEndpointId)));
+        when(projectionRepository.findAllById(List.of(testEndpointId)))
+                .thenReturn(List.of(dbProjection));
+
+        // Act
+        Map<UUID, ApiEndpointProjection> result = apiEndpointService.getEndpoints(List.of(cachedId, testEndpointId));
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("Cached", result.get(cachedId).getName());
+        assertEquals("DB", result.get(testEndpointId).getName());
+        verify(cacheService).putAll(Map.of("endpoint:" + testEndpointId, dbProjection));
     }
 }
@@ -1,11 +1,21 @@
 package com.pingpad.modules.api_testing.unit;
 
 import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.models.ApiTestResultSummary;
 import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
 import com.pingpad.modules.api_testing.repositories.ApiTestResultRepository;
+import com.pingpad.modules.api_testing.services.AlarmService;
 import com.pingpad.modules.api_testing.services.ApiEndpointService;
 import com.pingpad.modules.api_testing.services.ApiTestService;
+import com.pingpad.modules.api_testing.services.EngineAdmissionController;
+import com.pingpad.modules.api_testing.services.IncidentDetector;
+import com.pingpad.modules.api_testing.services.LatencyRollupService;
+import com.pingpad.modules.api_testing.services.RequestTemplateCache;
+import com.pingpad.modules.api_testing.services.ResponseBodyStore;
+import com.pingpad.modules.api_testing.services.ResultPersistenceLimiter;
+import com.pingpad.modules.api_testing.services.ResultStreamService;
 import com.pingpad.modules.user_management.models.User;
+import com.pingpad.modules.cache.services.CacheService;
 import com.pingpad.modules.user_management.repositories.UserRepository;
 import io.grpc.ManagedChannel;
 import io.grpc.Status;
@@ -14,13 +24,16 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import testing.ApiTestingServiceGrpc;
 import testing.Testing;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -43,6 +56,30 @@ class ApiTestServiceUnitTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private LatencyRollupService latencyRollupService;
+
+    @Mock
+    private ResponseBodyStore responseBodyStore;
+
+    @Mock
+    private ResultStreamService resultStreamService;
+
+    @Mock
+    private AlarmService alarmService;
+
+    @Mock
+    private IncidentDetector incidentDetector;
+
+    @Mock
+    private EngineAdmissionController admissionController;
+
+    @Spy
+    private RequestTemplateCache requestTemplates = new RequestTemplateCache(mock(CacheService.class), 100, Duration.ofMinutes(5));
+
+    @Spy
+    private ResultPersistenceLimiter persistenceLimiter = new ResultPersistenceLimiter(4);
+
     @InjectMocks
     private ApiTestService apiTestService;
 
@@ -87,6 +124,8 @@ class ApiTestServiceUnitTest {
                 .setRetryCount(0)
                 .build();
 
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE))
+            .thenReturn(new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime()));
         ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
         when(stub.testEndpoint(any(Testing.TestRequest.class))).thenReturn(grpcResult);
 
@@ -122,9 +161,122 @@ class ApiTestServiceUnitTest {
             verify(userRepository).findById(testUserId);
             verify(stub).testEndpoint(any(Testing.TestRequest.class));
             verify(testResultRepository).save(any(ApiTestResult.class));
+            verify(resultStreamService).publishResult(any(ApiTestResult.class), eq(testUserId));
+        }
+    }
+
+    @Test
+    void testTestEndpoint_ReusesCompiledRequest() {
+        // Arrange
+        Testing.TestResult grpcResult = Testing.TestResult.newBuilder()
+                .setStatusCode(200)
+                .setResponseTimeNanos(100_000_000L)
+                .setSuccess(true)
+                .build();
+
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE))
+            .thenReturn(new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime()));
+        ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
+        when(stub.testEndpoint(any(Testing.TestRequest.class))).thenReturn(grpcResult);
+
+        when(apiEndpointService.getEndpoint(testEndpointId)).thenReturn(testEndpoint);
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(testUserId)).thenReturn(testUser);
+        when(testResultRepository.save(any(ApiTestResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        try (MockedStatic<ApiTestingServiceGrpc> mockedGrpc = mockStatic(ApiTestingServiceGrpc.class)) {
+            mockedGrpc.when(() -> ApiTestingServiceGrpc.newBlockingStub(grpcChannel)).thenReturn(stub);
+
+            apiTestService.testEndpoint(testEndpointId, testUserId);
+            apiTestService.testEndpoint(testEndpointId, testUserId);
+
+            // Assert - the endpoint is re-read to validate the template, its owner only for the first test
+            ArgumentCaptor<Testing.TestRequest> requestCaptor = ArgumentCaptor.forClass(Testing.TestRequest.class);
+            verify(stub, times(2)).testEndpoint(requestCaptor.capture());
+            verify(apiEndpointService, times(2)).getEndpoint(testEndpointId);
+            verify(userRepository, times(1)).findById(testUserId);
+            verify(userRepository, times(1)).getReferenceById(testUserId);
+
+            Testing.TestRequest first = requestCaptor.getAllValues().get(0);
+            Testing.TestRequest second = requestCaptor.getAllValues().get(1);
+            assertNotEquals(first.getId(), second.getId());
+            assertEquals("Bearer token", second.getHeadersMap().get("Authorization"));
+            assertEquals(testUserId.toString(), second.getUserId());
         }
     }
 
+    @Test
+    void testTestEndpoint_OnlyInteractiveCallersGetDecodedBody() {
+        // Arrange
+        com.google.protobuf.ByteString body = com.google.protobuf.ByteString.copyFromUtf8("{\"ok\":true}");
+        Testing.TestResult grpcResult = Testing.TestResult.newBuilder()
+                .setStatusCode(200)
+                .setResponseBody(body)
+                .setSuccess(true)
+                .build();
+
+        for (EngineAdmissionController.Priority priority : EngineAdmissionController.Priority.values()) {
+            when(admissionController.acquire(priority))
+                .thenReturn(new EngineAdmissionController.Permit(priority, System.nanoTime()));
+        }
+        ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
+        when(stub.testEndpoint(any(Testing.TestRequest.class))).thenReturn(grpcResult);
+        when(apiEndpointService.getEndpoint(testEndpointId)).thenReturn(testEndpoint);
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(userRepository.getReferenceById(testUserId)).thenReturn(testUser);
+        when(responseBodyStore.store(body)).thenReturn(Optional.of(new ResponseBodyStore.StoredBody("hash", body, false)));
+        when(testResultRepository.save(any(ApiTestResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        try (MockedStatic<ApiTestingServiceGrpc> mockedGrpc = mockStatic(ApiTestingServiceGrpc.class)) {
+            mockedGrpc.when(() -> ApiTestingServiceGrpc.newBlockingStub(grpcChannel)).thenReturn(stub);
+
+            ApiTestResult background = apiTestService.testEndpoint(testEndpointId, testUserId,
+                EngineAdmissionController.Priority.BACKGROUND);
+            ApiTestResult interactive = apiTestService.testEndpoint(testEndpointId, testUserId);
+
+            // Assert - both store the body, only the interactive result carries it decoded
+            assertEquals("hash", background.getResponseBodyHash());
+            assertNull(background.getResponseBody());
+            assertEquals("{\"ok\":true}", interactive.getResponseBody());
+        }
+    }
+
+    @Test
+    void testTestEndpoint_ReleasesEngineSlotBeforeDatabaseWork() {
+        // Arrange
+        com.google.protobuf.ByteString body = com.google.protobuf.ByteString.copyFromUtf8("{\"ok\":true}");
+        Testing.TestResult grpcResult = Testing.TestResult.newBuilder()
+                .setStatusCode(200)
+                .setResponseBody(body)
+                .setSuccess(true)
+                .build();
+
+        EngineAdmissionController.Permit permit =
+            new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime());
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE)).thenReturn(permit);
+        ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
+        when(stub.testEndpoint(any(Testing.TestRequest.class))).thenReturn(grpcResult);
+        when(apiEndpointService.getEndpoint(testEndpointId)).thenReturn(testEndpoint);
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(responseBodyStore.store(body)).thenReturn(Optional.of(new ResponseBodyStore.StoredBody("hash", body, false)));
+        when(testResultRepository.save(any(ApiTestResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        try (MockedStatic<ApiTestingServiceGrpc> mockedGrpc = mockStatic(ApiTestingServiceGrpc.class)) {
+            mockedGrpc.when(() -> ApiTestingServiceGrpc.newBlockingStub(grpcChannel)).thenReturn(stub);
+
+            apiTestService.testEndpoint(testEndpointId, testUserId);
+        }
+
+        // Assert - waiting for a connection never holds an engine slot
+        InOrder inOrder = inOrder(admissionController, responseBodyStore, testResultRepository);
+        inOrder.verify(admissionController).release(eq(permit), anyLong(), eq(false));
+        inOrder.verify(responseBodyStore).store(body);
+        inOrder.verify(testResultRepository).save(any(ApiTestResult.class));
+    }
+
     @Test
     void testTestEndpoint_WithPostMethod() {
         // Arrange
@@ -148,6 +300,8 @@ class ApiTestServiceUnitTest {
                 .setRetryCount(0)
                 .build();
 
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE))
+            .thenReturn(new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime()));
         ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
         when(stub.testEndpoint(any(Testing.TestRequest.class))).thenReturn(grpcResult);
 
@@ -182,6 +336,8 @@ class ApiTestServiceUnitTest {
                 Status.UNAVAILABLE.withDescription("Service unavailable")
         );
 
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE))
+            .thenReturn(new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime()));
         ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
         when(stub.testEndpoint(any(Testing.TestRequest.class))).thenThrow(grpcException);
 
@@ -205,6 +361,34 @@ class ApiTestServiceUnitTest {
         }
     }
 
+    @Test
+    void testTestEndpoint_FailuresOfOpenIncidentRaiseOneAlarm() {
+        // Arrange
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE))
+            .thenAnswer(invocation -> new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime()));
+        ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
+        when(stub.testEndpoint(any(Testing.TestRequest.class)))
+            .thenThrow(new StatusRuntimeException(Status.UNAVAILABLE.withDescription("Service unavailable")));
+
+        when(apiEndpointService.getEndpoint(testEndpointId)).thenReturn(testEndpoint);
+        when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
+        when(testResultRepository.save(any(ApiTestResult.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        // The first failure opens the incident, the following ones extend it
+        when(incidentDetector.onResult(any(ApiTestResult.class), eq(testUserId))).thenReturn(true, false, false);
+
+        // Act
+        try (MockedStatic<ApiTestingServiceGrpc> mockedGrpc = mockStatic(ApiTestingServiceGrpc.class)) {
+            mockedGrpc.when(() -> ApiTestingServiceGrpc.newBlockingStub(grpcChannel)).thenReturn(stub);
+            for (int i = 0; i < 3; i++) {
+                apiTestService.testEndpoint(testEndpointId, testUserId);
+            }
+        }
+
+        // Assert - the outage counts as one open alarm
+        verify(incidentDetector, times(3)).onResult(any(ApiTestResult.class), eq(testUserId));
+        verify(alarmService, times(1)).recordFailure(any(ApiTestResult.class), eq(testUserId));
+    }
+
     @Test
     void testTestEndpoint_EndpointNotFound() {
         // Arrange
@@ -258,6 +442,8 @@ class ApiTestServiceUnitTest {
                 .setRetryCount(0)
                 .build();
 
+        when(admissionController.acquire(EngineAdmissionController.Priority.INTERACTIVE))
+            .thenReturn(new EngineAdmissionController.Permit(EngineAdmissionController.Priority.INTERACTIVE, System.nanoTime()));
         ApiTestingServiceGrpc.ApiTestingServiceBlockingStub stub = mock(ApiTestingServiceGrpc.ApiTestingServiceBlockingStub.class);
         when(stub.testEndpoint(any(Testing.TestRequest.class))).thenReturn(grpcResult);
 
@@ -282,4 +468,56 @@ class ApiTestServiceUnitTest {
             assertTrue(capturedRequest.getHeadersMap().containsKey("X-Custom-Header"));
         }
     }
+
+    @Test
+    void testGetTestResultPage_KeysetPagination() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime start = now.minusHours(24);
+        List<ApiTestResultSummary> firstRows = List.of(
+                new ApiTestResultSummary(3L, now, 200, 120L, true),
+                new ApiTestResultSummary(2L, now.minusMinutes(1), 500, 80L, false),
+                new ApiTestResultSummary(1L, now.minusMinutes(2), 200, 95L, true)
+        );
+        when(testResultRepository.findSummaries(eq(testEndpointId), eq(start), eq(now), any()))
+                .thenReturn(firstRows);
+        when(testResultRepository.findSummariesBefore(eq(testEndpointId), eq(start), eq(now.minusMinutes(1)), eq(2L), any()))
+                .thenReturn(List.of(firstRows.get(2)));
+
+        // Act
+        ApiTestService.ResultPage firstPage = apiTestService.getTestResultPage(testEndpointId, start, now, null, 2);
+        ApiTestService.ResultPage secondPage = apiTestService.getTestResultPage(
+                testEndpointId, start, now, firstPage.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, firstPage.getItems().size());
+        assertNotNull(firstPage.getNextCursor());
+        assertEquals(1, secondPage.getItems().size());
+        assertEquals(1L, secondPage.getItems().get(0).getId());
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void testGetTestResults_ReturnsSummariesWithoutLoadingBodies() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        LocalDateTime start = now.minusHours(24);
+        List<ApiTestResultSummary> rows = List.of(new ApiTestResultSummary(1L, now, 200, 95L, true));
+        when(testResultRepository.findSummaries(testEndpointId, start, now, org.springframework.data.domain.Pageable.unpaged()))
+                .thenReturn(rows);
+
+        // Act
+        List<ApiTestResultSummary> results = apiTestService.getTestResults(testEndpointId, start, now);
+
+        // Assert
+        assertEquals(rows, results);
+        verifyNoInteractions(responseBodyStore);
+    }
+
+    @Test
+    void testGetTestResultPage_InvalidCursor() {
+        LocalDateTime now = LocalDateTime.now();
+        assertThrows(IllegalArgumentException.class, () ->
+                apiTestService.getTestResultPage(testEndpointId, now.minusHours(1), now, "not-a-cursor", 10));
+    }
 }
@@ -0,0 +1,97 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.services.EngineAdmissionController;
+import com.pingpad.modules.api_testing.services.EngineAdmissionController.Permit;
+import com.pingpad.modules.api_testing.services.EngineAdmissionController.Priority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EngineAdmissionControllerUnitTest {
+
+    private EngineAdmissionController controller(int initialLimit) {
+        return new EngineAdmissionController(null, new SimpleMeterRegistry(), initialLimit, 2, 100, 0.5, 0.5,
+            Duration.ZERO, Duration.ofSeconds(1), Duration.ZERO, Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testBackgroundTestsAreShedBeforeInteractiveOnes() {
+        // Arrange
+        EngineAdmissionController controller = controller(4);
+        List<Permit> permits = new ArrayList<>();
+        permits.add(controller.acquire(Priority.BACKGROUND));
+        permits.add(controller.acquire(Priority.BACKGROUND));
+
+        // Act & Assert - background tests only get half the limit, interactive ones the rest
+        assertThrows(RejectedExecutionException.class, () -> controller.acquire(Priority.BACKGROUND));
+        permits.add(controller.acquire(Priority.INTERACTIVE));
+        permits.add(controller.acquire(Priority.INTERACTIVE));
+        assertThrows(RejectedExecutionException.class, () -> controller.acquire(Priority.INTERACTIVE));
+        assertEquals(4, controller.getInFlight());
+
+        permits.forEach(permit -> controller.release(permit, 0, false));
+        assertEquals(0, controller.getInFlight());
+    }
+
+    @Test
+    void testLimitShrinksOnOverloadAndGrowsBackOnSuccess() {
+        // Arrange
+        EngineAdmissionController controller = controller(40);
+
+        // Act
+        controller.release(controller.acquire(Priority.INTERACTIVE), 0, true);
+        int afterOverload = controller.getLimit();
+        controller.release(controller.acquire(Priority.INTERACTIVE), Duration.ofSeconds(5).toNanos(), false);
+        int afterSlowCall = controller.getLimit();
+
+        for (int round = 0; round < 5; round++) {
+            List<Permit> permits = new ArrayList<>();
+            for (int i = 0; i < controller.getLimit(); i++) {
+                permits.add(controller.acquire(Priority.INTERACTIVE));
+            }
+            permits.forEach(permit -> controller.release(permit, 0, false));
+        }
+
+        // Assert
+        assertEquals(20, afterOverload);
+        assertEquals(10, afterSlowCall);
+        assertTrue(controller.getLimit() > afterSlowCall, "a busy, healthy engine earns a higher limit");
+    }
+
+    @Test
+    void testEngineQueueingShrinksLimitDownToMinimum() {
+        // Arrange
+        EngineAdmissionController controller = controller(8);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            controller.onEngineMetrics(Map.of("waiting_tests", 3L));
+        }
+        controller.onEngineMetrics(Map.of("waiting_tests", 0L));
+
+        // Assert
+        assertEquals(2, controller.getLimit());
+    }
+
+    @Test
+    void testOneQueueingEngineInstanceShrinksLimit() {
+        // Arrange
+        EngineAdmissionController controller = controller(8);
+
+        // Act - two idle instances, one with tests waiting
+        controller.onEngineMetrics(List.of(
+            Map.of("waiting_tests", 0L),
+            Map.of("waiting_tests", 5L),
+            Map.of("waiting_tests", 0L)));
+
+        // Assert
+        assertEquals(4, controller.getLimit());
+    }
+}
@@ -0,0 +1,156 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.grpc.EngineChannelPool;
+import io.grpc.CallOptions;
+import io.grpc.ClientCall;
+import io.grpc.ManagedChannel;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import testing.ApiTestingServiceGrpc;
+import testing.Testing;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EngineChannelPoolUnitTest {
+
+    @Mock
+    private ManagedChannel first;
+
+    @Mock
+    private ManagedChannel second;
+
+    @Mock
+    private ClientCall<Object, Object> call;
+
+    @Test
+    void testRoundRobinSpreadsCallsOverChannels() {
+        // Arrange
+        stubCalls(first);
+        stubCalls(second);
+        EngineChannelPool pool = new EngineChannelPool(List.of(
+            new EngineChannelPool.Member("engine-a:9090", first),
+            new EngineChannelPool.Member("engine-b:9090", second)), EngineChannelPool.Balancing.ROUND_ROBIN);
+
+        // Act
+        for (int i = 0; i < 4; i++) {
+            pool.newCall(ApiTestingServiceGrpc.getTestEndpointMethod(), CallOptions.DEFAULT);
+        }
+
+        // Assert
+        verify(first, times(2)).newCall(any(), any());
+        verify(second, times(2)).newCall(any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLeastRequestPrefersIdleChannelUntilCallsComplete() {
+        // Arrange
+        stubCalls(first);
+        stubCalls(second);
+        EngineChannelPool pool = new EngineChannelPool(List.of(
+            new EngineChannelPool.Member("engine-a:9090", first),
+            new EngineChannelPool.Member("engine-b:9090", second)), EngineChannelPool.Balancing.LEAST_REQUEST);
+        ClientCall<Object, Object> inFlight = (ClientCall<Object, Object>) (ClientCall<?, ?>)
+            pool.newCall(ApiTestingServiceGrpc.getTestEndpointMethod(), CallOptions.DEFAULT);
+        inFlight.start(mock(ClientCall.Listener.class), new Metadata());
+
+        // Act - the first channel is busy, so the next call goes to the second
+        pool.newCall(ApiTestingServiceGrpc.getTestEndpointMethod(), CallOptions.DEFAULT);
+
+        // Assert
+        verify(second, times(1)).newCall(any(), any());
+        assertEquals(1, pool.getMembers().get(0).getInFlight());
+
+        // Completing the call frees the first channel again
+        ArgumentCaptor<ClientCall.Listener<Object>> listener = ArgumentCaptor.forClass(ClientCall.Listener.class);
+        verify(call).start(listener.capture(), any());
+        listener.getValue().onClose(Status.OK, new Metadata());
+        assertEquals(0, pool.getMembers().get(0).getInFlight());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testUnhealthyAndRemovedChannelsAreSkipped() {
+        // Arrange - the second pod answers health checks, the first doesn't
+        ClientCall<Object, Object> healthCall = mock(ClientCall.class);
+        doAnswer(invocation -> {
+            ClientCall.Listener<Object> listener = invocation.getArgument(0);
+            listener.onMessage(Testing.HealthResponse.newBuilder().setStatus("healthy").build());
+            listener.onClose(Status.OK, new Metadata());
+            return null;
+        }).when(healthCall).start(any(), any());
+        when(second.newCall(eq(ApiTestingServiceGrpc.getGetHealthMethod()), any())).thenReturn((ClientCall) healthCall);
+        when(second.newCall(eq(ApiTestingServiceGrpc.getTestEndpointMethod()), any())).thenReturn((ClientCall) call);
+        EngineChannelPool pool = new EngineChannelPool(List.of(
+            new EngineChannelPool.Member("engine:9090", "10.0.0.1:9090", first),
+            new EngineChannelPool.Member("engine:9090", "10.0.0.2:9090", second)), EngineChannelPool.Balancing.ROUND_ROBIN);
+        when(first.newCall(any(), any())).thenThrow(new StatusRuntimeException(Status.UNAVAILABLE));
+
+        // Act
+        pool.checkHealth(100);
+        for (int i = 0; i < 3; i++) {
+            pool.newCall(ApiTestingServiceGrpc.getTestEndpointMethod(), CallOptions.DEFAULT);
+        }
+
+        // Assert
+        assertFalse(pool.getMembers().get(0).isHealthy());
+        verify(second, times(3)).newCall(eq(ApiTestingServiceGrpc.getTestEndpointMethod()), any());
+
+        // The pod going away shuts its channel down
+        pool.replaceMembers(List.of(pool.getMembers().get(1)));
+        verify(first).shutdown();
+        verify(second, never()).shutdown();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void testMetricsCollectedFromEveryEngineInstance() {
+        // Arrange - two channels to the first pod, one to the second
+        ManagedChannel third = mock(ManagedChannel.class);
+        ClientCall<Object, Object> idleCall = metricsCall(0);
+        ClientCall<Object, Object> queueingCall = metricsCall(7);
+        when(first.newCall(eq(ApiTestingServiceGrpc.getGetMetricsMethod()), any())).thenReturn((ClientCall) idleCall);
+        when(third.newCall(eq(ApiTestingServiceGrpc.getGetMetricsMethod()), any())).thenReturn((ClientCall) queueingCall);
+        EngineChannelPool pool = new EngineChannelPool(List.of(
+            new EngineChannelPool.Member("engine:9090", "10.0.0.1:9090", first),
+            new EngineChannelPool.Member("engine:9090", "10.0.0.1:9090", second),
+            new EngineChannelPool.Member("engine:9090", "10.0.0.2:9090", third)), EngineChannelPool.Balancing.ROUND_ROBIN);
+
+        // Act
+        List<Map<String, Long>> metrics = pool.collectMetrics(100);
+
+        // Assert - each pod polled once, through its first channel
+        assertEquals(List.of(Map.of("waiting_tests", 0L), Map.of("waiting_tests", 7L)), metrics);
+        verifyNoInteractions(second);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClientCall<Object, Object> metricsCall(long waitingTests) {
+        ClientCall<Object, Object> metricsCall = mock(ClientCall.class);
+        doAnswer(invocation -> {
+            ClientCall.Listener<Object> listener = invocation.getArgument(0);
+            listener.onMessage(Testing.MetricsResponse.newBuilder().putMetrics("waiting_tests", waitingTests).build());
+            listener.onClose(Status.OK, new Metadata());
+            return null;
+        }).when(metricsCall).start(any(), any());
+        return metricsCall;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void stubCalls(ManagedChannel channel) {
+        when(channel.newCall(any(), any())).thenReturn((ClientCall) call);
+    }
+}
@@ -0,0 +1,92 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.models.AlarmIncident;
+import com.pingpad.modules.api_testing.models.ApiTestResult;
+import com.pingpad.modules.api_testing.repositories.AlarmIncidentRepository;
+import com.pingpad.modules.api_testing.services.IncidentDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IncidentDetectorUnitTest {
+
+    @Mock
+    private AlarmIncidentRepository incidentRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IncidentDetector incidentDetector;
+    private UUID endpointId;
+    private Long ownerId;
+
+    @BeforeEach
+    void setUp() {
+        incidentDetector = new IncidentDetector(incidentRepository, transactionManager, Duration.ofMinutes(1));
+        endpointId = UUID.randomUUID();
+        ownerId = 1L;
+    }
+
+    @Test
+    void testConsecutiveFailures_FoldIntoOneIncident() {
+        // Arrange
+        when(incidentRepository.findOpenByEndpointId(endpointId)).thenReturn(Optional.empty());
+        when(incidentRepository.save(any(AlarmIncident.class))).thenAnswer(invocation -> {
+            AlarmIncident incident = invocation.getArgument(0);
+            incident.setId(7L);
+            return incident;
+        });
+        when(incidentRepository.recordFailure(eq(7L), any(), anyLong(), any(), any())).thenReturn(1);
+
+        // Act
+        boolean[] opened = new boolean[3];
+        for (int i = 0; i < 3; i++) {
+            opened[i] = incidentDetector.onResult(result(i + 1, false), ownerId);
+        }
+
+        // Assert - one incident opened, extended twice, open state looked up only once
+        assertArrayEquals(new boolean[] {true, false, false}, opened);
+        verify(incidentRepository, times(1)).save(any(AlarmIncident.class));
+        verify(incidentRepository, times(2)).recordFailure(eq(7L), any(), anyLong(), any(), any());
+        verify(incidentRepository, times(1)).findOpenByEndpointId(endpointId);
+    }
+
+    @Test
+    void testRecovery_ResolvesOnceThenSkipsDatabase() {
+        // Arrange
+        when(incidentRepository.resolveOpen(eq(endpointId), any())).thenReturn(1);
+
+        // Act
+        incidentDetector.onResult(result(1, true), ownerId);
+        incidentDetector.onResult(result(2, true), ownerId);
+        incidentDetector.onResult(result(3, true), ownerId);
+
+        // Assert - healthy endpoints don't touch the database after the first check
+        verify(incidentRepository, times(1)).resolveOpen(eq(endpointId), any());
+        verify(incidentRepository, never()).save(any());
+    }
+
+    private ApiTestResult result(long id, boolean success) {
+        return ApiTestResult.builder()
+            .id(id)
+            .endpointId(endpointId)
+            .statusCode(success ? 200 : 503)
+            .error(success ? null : "Service Unavailable")
+            .success(success)
+            .timestamp(LocalDateTime.now())
+            .build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.models.LatencyHistogram;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramUnitTest {
+
+    @Test
+    void testPercentiles_ExactForSmallValues() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        // Assert
+        assertEquals(100, histogram.getTotalCount());
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(90, histogram.getValueAtPercentile(90));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 0.0001);
+    }
+
+    @Test
+    void testPercentiles_BoundedRelativeErrorForLargeValues() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 10_000; i++) {
+            histogram.record(i);
+        }
+
+        // Assert - reported values are never below the true value and within ~1.6%
+        long p99 = histogram.getValueAtPercentile(99);
+        assertTrue(p99 >= 9_900, "p99 should not be under-reported: " + p99);
+        assertTrue(p99 <= 9_900 * 1.016, "p99 should be within relative error bound: " + p99);
+        assertEquals(10_000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    void testMerge_EquivalentToRecordingAllValues() {
+        // Arrange
+        LatencyHistogram first = new LatencyHistogram();
+        LatencyHistogram second = new LatencyHistogram();
+        LatencyHistogram combined = new LatencyHistogram();
+        for (long i = 0; i < 500; i++) {
+            first.record(i * 3);
+            second.record(i * 7 + 1000);
+            combined.record(i * 3);
+            combined.record(i * 7 + 1000);
+        }
+
+        // Act
+        first.merge(second);
+
+        // Assert
+        assertEquals(combined.getTotalCount(), first.getTotalCount());
+        assertEquals(combined.getValueAtPercentile(50), first.getValueAtPercentile(50));
+        assertEquals(combined.getValueAtPercentile(99), first.getValueAtPercentile(99));
+        assertEquals(combined.getMin(), first.getMin());
+        assertEquals(combined.getMax(), first.getMax());
+    }
+
+    @Test
+    void testSerialization_RoundTrip() {
+        // Arrange
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(12);
+        histogram.record(250);
+        histogram.record(250);
+        histogram.record(30_000);
+
+        // Act
+        byte[] bytes = histogram.toBytes();
+        LatencyHistogram restored = LatencyHistogram.fromBytes(bytes);
+
+        // Assert
+        assertTrue(bytes.length < 32, "Serialised histogram should be compact");
+        assertEquals(histogram.getTotalCount(), restored.getTotalCount());
+        assertEquals(histogram.getValueAtPercentile(50), restored.getValueAtPercentile(50));
+        assertEquals(histogram.getMax(), restored.getMax());
+        assertEquals(histogram.getMean(), restored.getMean(), 0.0001);
+    }
+
+    @Test
+    void testEmptyHistogram() {
+        // Arrange
+        LatencyHistogram histogram = LatencyHistogram.fromBytes(new LatencyHistogram().toBytes());
+
+        // Assert
+        assertTrue(histogram.isEmpty());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0, histogram.getMin());
+    }
+}
@@ -0,0 +1,82 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.models.LatencyHistogram;
+import com.pingpad.modules.api_testing.models.LatencyRollup;
+import com.pingpad.modules.api_testing.repositories.LatencyRollupRepository;
+import com.pingpad.modules.api_testing.services.LatencyRollupService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyRollupServiceUnitTest {
+
+    @Mock
+    private LatencyRollupRepository rollupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LatencyRollupService latencyRollupService;
+    private final LocalDateTime now = LocalDateTime.now();
+    private final LocalDateTime bucket = now.truncatedTo(ChronoUnit.HOURS);
+
+    @BeforeEach
+    void setUp() {
+        latencyRollupService = new LatencyRollupService(rollupRepository, transactionManager);
+    }
+
+    @Test
+    void testFlush_DeletedEndpointDoesNotBlockOthers() {
+        // Arrange
+        UUID deletedEndpoint = UUID.randomUUID();
+        UUID liveEndpoint = UUID.randomUUID();
+        latencyRollupService.record(deletedEndpoint, now, 120L);
+        latencyRollupService.record(liveEndpoint, now, 80L);
+
+        doThrow(new DataIntegrityViolationException("fk_latency_rollup_endpoint"))
+            .when(rollupRepository).insertIfAbsent(eq(deletedEndpoint), any(), any());
+        when(rollupRepository.findForUpdate(liveEndpoint, bucket)).thenReturn(Optional.of(LatencyRollup.builder()
+            .endpointId(liveEndpoint)
+            .bucketStart(bucket)
+            .histogram(new LatencyHistogram().toBytes())
+            .build()));
+
+        // Act
+        latencyRollupService.flush();
+        latencyRollupService.flush();
+
+        // Assert - the live bucket is written, the orphaned one dropped instead of retried forever
+        verify(rollupRepository, times(1)).save(argThat(rollup -> liveEndpoint.equals(rollup.getEndpointId())));
+        verify(rollupRepository, times(1)).insertIfAbsent(eq(deletedEndpoint), any(), any());
+    }
+
+    @Test
+    void testEvict_DropsPendingSamplesOfEndpoint() {
+        // Arrange
+        UUID endpointId = UUID.randomUUID();
+        latencyRollupService.record(endpointId, now, 50L);
+
+        // Act
+        latencyRollupService.evict(endpointId);
+        latencyRollupService.flush();
+
+        // Assert
+        verifyNoInteractions(rollupRepository);
+        assertEquals(0, latencyRollupService.getLatencySummary(List.of(endpointId), bucket, now.plusHours(1)).getCount());
+    }
+}
@@ -0,0 +1,118 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.api_testing.services.RequestTemplateCache;
+import com.pingpad.modules.cache.services.CacheService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import testing.Testing;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RequestTemplateCacheUnitTest {
+
+    @Mock
+    private CacheService cacheService;
+
+    private RequestTemplateCache requestTemplates;
+    private Consumer<CacheService.InvalidationMessage> invalidationListener;
+    private final UUID endpointId = UUID.randomUUID();
+    private final AtomicReference<String> url = new AtomicReference<>("https://api.example.com/orders");
+    private Function<UUID, ApiEndpointProjection> loader;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        requestTemplates = new RequestTemplateCache(cacheService, 100, Duration.ofMinutes(5));
+        ArgumentCaptor<Consumer<CacheService.InvalidationMessage>> listener = ArgumentCaptor.forClass(Consumer.class);
+        verify(cacheService).addInvalidationListener(listener.capture());
+        invalidationListener = listener.getValue();
+
+        loader = id -> ApiEndpointProjection.builder()
+            .id(id)
+            .name("Create order")
+            .url(url.get())
+            .method("post")
+            .headers("Content-Type: application/json\nX-Trace: a:b\nmalformed")
+            .body("{\"qty\":1}")
+            .userId(7L)
+            .build();
+    }
+
+    @Test
+    void testTemplateIsCompiledOnceAndStampedPerRun() {
+        // Act
+        RequestTemplateCache.RequestTemplate template = requestTemplates.get(endpointId, loader);
+        Testing.TestRequest first = requestTemplates.get(endpointId, loader).stamp(7L, "2026-01-01T00:00:00Z");
+        Testing.TestRequest second = template.stamp(8L, "2026-01-01T00:00:01Z");
+
+        // Assert
+        assertSame(template, requestTemplates.get(endpointId, loader));
+        assertEquals(2, first.getHeadersCount());
+        assertEquals("a:b", first.getHeadersMap().get("X-Trace"));
+        assertEquals("{\"qty\":1}", first.getBody().toStringUtf8());
+        assertEquals(endpointId.toString(), first.getEndpointId());
+        assertNotEquals(first.getId(), second.getId());
+        assertEquals("8", second.getUserId());
+        assertEquals("2026-01-01T00:00:01Z", second.getCreatedAt());
+    }
+
+    @Test
+    void testOwnerIsOnlyTrustedOnceFound() {
+        // Arrange
+        RequestTemplateCache.RequestTemplate template = requestTemplates.get(endpointId, loader);
+
+        // Act & Assert
+        assertFalse(template.isVerifiedOwner(7L));
+        template.ownerFound(8L);
+        assertFalse(template.isVerifiedOwner(8L), "only the endpoint's owner is remembered");
+        template.ownerFound(7L);
+        assertTrue(template.isVerifiedOwner(7L));
+    }
+
+    @Test
+    void testTemplatesAreDroppedOnEndpointInvalidation() {
+        // Arrange
+        RequestTemplateCache.RequestTemplate original = requestTemplates.get(endpointId, loader);
+
+        // Act - another node updated the endpoint, then this node edited it itself
+        invalidationListener.accept(new CacheService.InvalidationMessage("other-node",
+            List.of("endpoint:user:7", "endpoint:" + endpointId), null));
+        RequestTemplateCache.RequestTemplate afterBroadcast = requestTemplates.get(endpointId, loader);
+        requestTemplates.evict(endpointId);
+        RequestTemplateCache.RequestTemplate afterEvict = requestTemplates.get(endpointId, loader);
+
+        // Assert
+        assertNotSame(original, afterBroadcast);
+        assertNotSame(afterBroadcast, afterEvict);
+    }
+
+    @Test
+    void testChangedEndpointIsRecompiledWithoutEviction() {
+        // Arrange
+        RequestTemplateCache.RequestTemplate original = requestTemplates.get(endpointId, loader);
+        original.ownerFound(7L);
+
+        // Act - the endpoint was edited but the eviction never arrived
+        url.set("https://api.example.com/v2/orders");
+        RequestTemplateCache.RequestTemplate current = requestTemplates.get(endpointId, loader);
+
+        // Assert
+        assertNotSame(original, current);
+        assertEquals("https://api.example.com/v2/orders", current.getRequest().getUrl());
+        assertFalse(current.isVerifiedOwner(7L));
+    }
+}
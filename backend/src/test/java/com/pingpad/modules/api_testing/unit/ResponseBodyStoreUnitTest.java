@@ -0,0 +1,116 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.models.ResponseBody;
+import com.pingpad.modules.api_testing.repositories.ResponseBodyRepository;
+import com.pingpad.modules.api_testing.services.ResponseBodyStore;
+import com.google.protobuf.ByteString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResponseBodyStoreUnitTest {
+
+    @Mock
+    private ResponseBodyRepository responseBodyRepository;
+
+    private ResponseBodyStore responseBodyStore;
+
+    @BeforeEach
+    void setUp() {
+        responseBodyStore = new ResponseBodyStore(responseBodyRepository, 1024, 64, 1);
+    }
+
+    @Test
+    void testStore_CompressesAndRoundTrips() {
+        // Arrange
+        String json = "{\"status\":\"ok\",\"items\":[" + "{\"id\":1,\"name\":\"item\"},".repeat(20) + "{}]}";
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        ResponseBodyStore.StoredBody stored = responseBodyStore.store(body).orElseThrow();
+
+        // Assert
+        ArgumentCaptor<String> encoding = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<byte[]> content = ArgumentCaptor.forClass(byte[].class);
+        verify(responseBodyRepository).insertIfAbsent(eq(stored.hash()), encoding.capture(), eq(body.length), content.capture());
+        assertEquals(ResponseBody.ENCODING_DEFLATE, encoding.getValue());
+        assertTrue(content.getValue().length < body.length);
+        assertEquals(64, stored.hash().length());
+        assertFalse(stored.truncated());
+
+        when(responseBodyRepository.findById(stored.hash())).thenReturn(Optional.of(ResponseBody.builder()
+            .hash(stored.hash())
+            .encoding(encoding.getValue())
+            .originalSize(body.length)
+            .content(content.getValue())
+            .build()));
+        assertEquals(json, responseBodyStore.load(stored.hash()).orElseThrow());
+    }
+
+    @Test
+    void testStore_DeduplicatesAndTruncates() {
+        // Arrange
+        byte[] body = "x".repeat(2048).getBytes(StandardCharsets.UTF_8);
+
+        // Act
+        ResponseBodyStore.StoredBody first = responseBodyStore.store(body).orElseThrow();
+        ResponseBodyStore.StoredBody second = responseBodyStore.store(body.clone()).orElseThrow();
+
+        // Assert - captured at the limit, and only written once
+        assertTrue(first.truncated());
+        assertEquals(1024, first.size());
+        assertEquals(first.hash(), second.hash());
+        verify(responseBodyRepository, times(1)).insertIfAbsent(anyString(), anyString(), anyInt(), any());
+        assertTrue(responseBodyStore.store(new byte[0]).isEmpty());
+    }
+
+    @Test
+    void testStore_ByteStringChunksAreCapturedAtLimit() {
+        // Arrange - a multi-chunk body like one read off the wire, larger than the capture limit
+        ByteString head = ByteString.copyFromUtf8("{\"items\":[" + "{\"id\":1},".repeat(60));
+        ByteString body = head.concat(ByteString.copyFromUtf8("{\"id\":2},".repeat(200) + "{}]}"));
+
+        // Act
+        ResponseBodyStore.StoredBody stored = responseBodyStore.store(body).orElseThrow();
+
+        // Assert
+        ArgumentCaptor<byte[]> content = ArgumentCaptor.forClass(byte[].class);
+        verify(responseBodyRepository).insertIfAbsent(eq(stored.hash()), eq(ResponseBody.ENCODING_DEFLATE), eq(1024), content.capture());
+        assertTrue(stored.truncated());
+        assertEquals(body.substring(0, 1024), stored.captured());
+
+        when(responseBodyRepository.findById(stored.hash())).thenReturn(Optional.of(ResponseBody.builder()
+            .hash(stored.hash())
+            .encoding(ResponseBody.ENCODING_DEFLATE)
+            .originalSize(1024)
+            .content(content.getValue())
+            .build()));
+        assertEquals(body.substring(0, 1024).toStringUtf8(), responseBodyStore.load(stored.hash()).orElseThrow());
+    }
+
+    @Test
+    void testStore_IncompressibleBodyIsStoredAsIs() {
+        // Arrange
+        byte[] body = new byte[512];
+        new Random(42).nextBytes(body);
+
+        // Act
+        responseBodyStore.store(ByteString.copyFrom(body));
+
+        // Assert
+        verify(responseBodyRepository).insertIfAbsent(anyString(), eq(ResponseBody.ENCODING_IDENTITY), eq(512), aryEq(body));
+    }
+}
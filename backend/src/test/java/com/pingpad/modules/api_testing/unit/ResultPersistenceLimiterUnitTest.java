@@ -0,0 +1,67 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.services.ResultPersistenceLimiter;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultPersistenceLimiterUnitTest {
+
+    @Test
+    void testLimitFollowsConnectionPoolSize() {
+        // Arrange
+        try (HikariDataSource pool = new HikariDataSource(); HikariDataSource tinyPool = new HikariDataSource()) {
+            pool.setMaximumPoolSize(20);
+            tinyPool.setMaximumPoolSize(2);
+
+            // Act & Assert - a few connections stay free for requests, but tests always get one
+            assertEquals(16, new ResultPersistenceLimiter(pool, 4).getLimit());
+            assertEquals(1, new ResultPersistenceLimiter(tinyPool, 4).getLimit());
+        }
+    }
+
+    @Test
+    void testWorkBeyondLimitWaitsForSlot() throws Exception {
+        // Arrange
+        ResultPersistenceLimiter limiter = new ResultPersistenceLimiter(1);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            Future<String> first = executor.submit(() -> limiter.call(() -> {
+                holding.countDown();
+                awaitQuietly(release);
+                return "first";
+            }));
+            assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+            // Act
+            Future<String> second = executor.submit(() -> limiter.call(() -> "second"));
+
+            // Assert
+            assertThrows(TimeoutException.class, () -> second.get(100, TimeUnit.MILLISECONDS));
+            release.countDown();
+            assertEquals("first", first.get(5, TimeUnit.SECONDS));
+            assertEquals("second", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, limiter.getAvailable());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
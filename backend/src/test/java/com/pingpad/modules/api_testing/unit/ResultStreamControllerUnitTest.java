@@ -0,0 +1,77 @@
+package com.pingpad.modules.api_testing.unit;
+
+import com.pingpad.modules.api_testing.controllers.ResultStreamController;
+import com.pingpad.modules.api_testing.services.AlarmService;
+import com.pingpad.modules.api_testing.services.ResultStreamService;
+import com.pingpad.modules.auth.models.AuthenticatedUser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResultStreamControllerUnitTest {
+
+    @Mock
+    private ResultStreamService resultStreamService;
+
+    @Mock
+    private AlarmService alarmService;
+
+    @InjectMocks
+    private ResultStreamController resultStreamController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(resultStreamController).build();
+
+        AuthenticatedUser user = new AuthenticatedUser(1L, "test@example.com", null, List.of("ROLE_USER"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testStream_InvalidEndpointId() throws Exception {
+        // Act & Assert
+        mockMvc.perform(get("/api/stream").param("endpointId", "not-a-uuid"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(resultStreamService);
+    }
+
+    @Test
+    void testStream_SubscribesWithEndpointFilter() throws Exception {
+        // Arrange
+        UUID endpointId = UUID.randomUUID();
+        when(alarmService.getUnacknowledgedAlarmCount(1L)).thenReturn(3L);
+        when(resultStreamService.subscribe(eq(1L), eq(endpointId), any())).thenReturn(new SseEmitter());
+
+        // Act & Assert
+        mockMvc.perform(get("/api/stream").param("endpointId", endpointId.toString()))
+                .andExpect(request().asyncStarted());
+        verify(resultStreamService).subscribe(eq(1L), eq(endpointId),
+                argThat(snapshot -> snapshot.getAlarmCount() == 3L));
+    }
+}
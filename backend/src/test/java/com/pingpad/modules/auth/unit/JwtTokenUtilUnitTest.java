@@ -0,0 +1,76 @@
+package com.pingpad.modules.auth.unit;
+
+import com.pingpad.modules.auth.models.AuthenticatedUser;
+import com.pingpad.modules.auth.utils.JwtTokenUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtTokenUtilUnitTest {
+
+    private JwtTokenUtil jwtTokenUtil;
+    private UserDetails userDetails;
+
+    @BeforeEach
+    void setUp() {
+        jwtTokenUtil = new JwtTokenUtil();
+        ReflectionTestUtils.setField(jwtTokenUtil, "secret", "test-secret-key-that-is-at-least-32-characters-long");
+        ReflectionTestUtils.setField(jwtTokenUtil, "expiration", 60_000L);
+        ReflectionTestUtils.setField(jwtTokenUtil, "claimsCacheSize", 100L);
+        jwtTokenUtil.init();
+        userDetails = User.withUsername("alice@example.com").password("secret").roles("USER").build();
+    }
+
+    @Test
+    void testVerifiedTokenIsServedFromCache() {
+        // Arrange
+        String token = jwtTokenUtil.generateToken(userDetails);
+
+        // Act
+        Claims first = jwtTokenUtil.getAllClaimsFromToken(token);
+        Claims second = jwtTokenUtil.getAllClaimsFromToken(token);
+
+        // Assert
+        assertSame(first, second);
+        assertEquals("alice@example.com", jwtTokenUtil.getUsernameFromToken(token));
+        assertTrue(jwtTokenUtil.validateToken(token, userDetails));
+    }
+
+    @Test
+    void testTamperedTokenIsRejected() {
+        // Arrange
+        String token = jwtTokenUtil.generateToken(userDetails);
+        jwtTokenUtil.getAllClaimsFromToken(token);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // Act & Assert - a cached sibling token doesn't let a modified one through
+        assertThrows(JwtException.class, () -> jwtTokenUtil.getAllClaimsFromToken(tampered));
+    }
+
+    @Test
+    void testPrincipalIsBuiltFromClaims() {
+        // Arrange
+        AuthenticatedUser user = new AuthenticatedUser(42L, "bob@example.com", "hash", List.of("ROLE_USER"));
+        String token = jwtTokenUtil.generateToken(user);
+
+        // Act
+        AuthenticatedUser principal = jwtTokenUtil.getPrincipalFromClaims(jwtTokenUtil.getAllClaimsFromToken(token));
+        AuthenticatedUser legacy = jwtTokenUtil.getPrincipalFromClaims(jwtTokenUtil.getAllClaimsFromToken(
+            jwtTokenUtil.generateToken(userDetails)));
+
+        // Assert
+        assertEquals(42L, principal.getId());
+        assertEquals("bob@example.com", principal.getUsername());
+        assertEquals(List.of("ROLE_USER"), principal.getRoles());
+        assertNull(principal.getPassword());
+        assertNull(legacy, "tokens without a user ID claim need the lookup fallback");
+    }
+}
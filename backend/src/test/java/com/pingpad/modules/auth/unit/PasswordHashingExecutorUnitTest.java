@@ -0,0 +1,76 @@
+package com.pingpad.modules.auth.unit;
+
+import com.pingpad.modules.auth.services.PasswordHashingExecutor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHashingExecutorUnitTest {
+
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void testRejectsWorkBeyondQueueCapacity() throws Exception {
+        // Arrange - occupy the only thread and the only queue slot
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = executor.submit(() -> {
+            awaitQuietly(release);
+            return "first";
+        });
+        CompletableFuture<String> queued = executor.submit(() -> "second");
+
+        // Act
+        CompletableFuture<String> rejected = executor.submit(() -> "third");
+
+        // Assert
+        ExecutionException error = assertThrows(ExecutionException.class, rejected::get);
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        release.countDown();
+        assertEquals("first", running.get());
+        assertEquals("second", queued.get());
+    }
+
+    @Test
+    void testRunFromHashingThreadDoesNotWaitOnItself() throws Exception {
+        // Act - with a single thread, queueing the nested hash would wait forever
+        CompletableFuture<String> outer = executor.submit(() -> executor.run(() -> "nested"));
+
+        // Assert
+        assertEquals("nested", outer.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testRunSurfacesRejection() {
+        // Arrange - occupy the only thread and the only queue slot
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            awaitQuietly(release);
+            return "first";
+        });
+        executor.submit(() -> "second");
+
+        // Act & Assert - callers such as the password encoder see the rejection itself
+        assertThrows(RejectedExecutionException.class, () -> executor.run(() -> "third"));
+        release.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,212 @@
+package com.pingpad.modules.cache.unit;
+
+import com.pingpad.modules.cache.services.CacheService;
+import com.pingpad.modules.cache.services.CacheMetrics;
+import com.pingpad.modules.cache.services.RedisCircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CacheServiceUnitTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private ObjectProvider<RedisMessageListenerContainer> listenerContainerProvider;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    private RedisCircuitBreaker circuitBreaker;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private CacheService cacheService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(listenerContainerProvider.getIfAvailable()).thenReturn(null);
+        circuitBreaker = new RedisCircuitBreaker(connectionFactory, 10, 5, 0.5, Duration.ofMillis(250), 0.8, Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        cacheService = new CacheService(redisTemplate, listenerContainerProvider, new CacheMetrics(meterRegistry),
+            circuitBreaker,
+            1000, Duration.ofSeconds(30), "test:invalidation", Duration.ofHours(2),
+            1.0, Duration.ofMinutes(5), false, Duration.ofSeconds(5), 0.0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheService.shutdown();
+    }
+
+    @Test
+    void testGetOrLoad_ConcurrentMissesShareOneLoad() throws Exception {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+
+        // Act
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return cacheService.getOrLoad("endpoint:1", String.class, () -> {
+                    loads.incrementAndGet();
+                    sleep(200);
+                    return "value";
+                });
+            }));
+        }
+        start.countDown();
+
+        // Assert
+        for (Future<String> result : results) {
+            assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        }
+        callers.shutdown();
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).set(eq("endpoint:1"), any(CacheService.CacheEntry.class), anyLong(), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testGetOrLoad_ServesStaleValueWhileRefreshing() throws Exception {
+        // Arrange - a zero TTL makes the loaded value stale immediately
+        AtomicInteger loads = new AtomicInteger();
+        cacheService.getOrLoad("endpoint:1", String.class, Duration.ZERO,
+            () -> "v" + loads.incrementAndGet(), value -> List.of());
+
+        // Act
+        String served = cacheService.getOrLoad("endpoint:1", String.class, Duration.ZERO,
+            () -> "v" + loads.incrementAndGet(), value -> List.of());
+
+        // Assert - the stale value is returned without waiting, the refresh happens in the background
+        assertEquals("v1", served);
+        long deadline = System.currentTimeMillis() + 5000;
+        while (loads.get() < 2 && System.currentTimeMillis() < deadline) {
+            sleep(10);
+        }
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testCircuitBreaker_StopsCallingRedisAndReplaysDeletesOnRecovery() {
+        // Arrange
+        cacheService.init();
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Connection refused"));
+        when(connectionFactory.getConnection()).thenReturn(mock(RedisConnection.class));
+
+        // Act - enough failures to open the breaker, then more reads and a delete
+        for (int i = 0; i < 5; i++) {
+            cacheService.get("endpoint:" + i, String.class);
+        }
+        for (int i = 0; i < 20; i++) {
+            cacheService.get("endpoint:1", String.class);
+        }
+        cacheService.delete("endpoint:1");
+
+        // Assert - no Redis calls while open, the delete is applied once Redis is back
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        verify(valueOperations, times(5)).get(anyString());
+        verify(redisTemplate, never()).unlink(anyCollection());
+
+        circuitBreaker.probe();
+
+        assertEquals(RedisCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        verify(redisTemplate).unlink(List.of("endpoint:1"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidateTag_UnlinksMembersThroughTimedRedisCalls() {
+        // Arrange
+        SetOperations<String, Object> setOperations = mock(SetOperations.class);
+        Cursor<Object> members = mock(Cursor.class);
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.scan(eq("tag:user:1"), any(ScanOptions.class))).thenReturn(members);
+        when(members.hasNext()).thenReturn(true, true, false);
+        when(members.next()).thenReturn("endpoint:1", "endpoint:2");
+
+        // Act
+        cacheService.invalidateTag("user:1");
+
+        // Assert
+        verify(redisTemplate).unlink(List.of("endpoint:1", "endpoint:2"));
+        verify(redisTemplate).unlink("tag:user:1");
+        verify(members).close();
+        assertTrue(meterRegistry.get("cache.redis").tag("operation", "sscan").timer().count() >= 2,
+            "opening the cursor and reading each batch are timed");
+    }
+
+    @Test
+    void testInvalidateTag_BreakerOpenDropsLocalCopies() {
+        // Arrange
+        cacheService.put("endpoint:1", "cached");
+        when(valueOperations.get(anyString())).thenThrow(new RuntimeException("Connection refused"));
+        for (int i = 0; i < 5; i++) {
+            cacheService.get("other:" + i, String.class);
+        }
+        assertEquals(RedisCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(java.util.Optional.of("cached"), cacheService.get("endpoint:1", String.class));
+
+        // Act
+        cacheService.invalidateTag("user:1");
+
+        // Assert - the tag's members are unknown without Redis, so no local copy survives
+        assertTrue(cacheService.get("endpoint:1", String.class).isEmpty());
+        verify(redisTemplate, never()).opsForSet();
+    }
+
+    @Test
+    void testMetricsPrefix_DropsIdSegments() {
+        // Act & Assert
+        assertEquals("endpoint", CacheMetrics.prefixOf("endpoint:" + java.util.UUID.randomUUID()));
+        assertEquals("endpoint:user", CacheMetrics.prefixOf("endpoint:user:42"));
+        assertEquals("apikey:user", CacheMetrics.prefixOf("apikey:user:7"));
+        assertEquals("other", CacheMetrics.prefixOf("42"));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.pingpad.modules.cache.unit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pingpad.modules.api_testing.cache.ApiEndpointProjectionCodec;
+import com.pingpad.modules.api_testing.cache.ApiKeyCodec;
+import com.pingpad.modules.api_testing.models.ApiKey;
+import com.pingpad.modules.api_testing.projections.ApiEndpointProjection;
+import com.pingpad.modules.cache.codec.CacheValueSerializer;
+import com.pingpad.modules.cache.services.CacheService;
+import com.pingpad.modules.user_management.models.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheValueSerializerUnitTest {
+
+    private GenericJackson2JsonRedisSerializer jsonSerializer;
+    private CacheValueSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
+        jsonSerializer = new GenericJackson2JsonRedisSerializer(objectMapper);
+        serializer = new CacheValueSerializer(List.of(new ApiEndpointProjectionCodec(), new ApiKeyCodec()),
+            jsonSerializer, 1024);
+    }
+
+    @Test
+    void testRoundTrip_CacheEntryWithProjectionList() {
+        // Arrange
+        List<ApiEndpointProjection> endpoints = List.of(projection("a"), projection("b"));
+        CacheService.CacheEntry entry = new CacheService.CacheEntry(endpoints, 1234L, 12L);
+
+        // Act
+        byte[] bytes = serializer.serialize(entry);
+        Object decoded = serializer.deserialize(bytes);
+
+        // Assert - much smaller than the default-typed JSON
+        assertEquals(entry, decoded);
+        assertTrue(bytes.length < jsonSerializer.serialize(entry).length / 2);
+    }
+
+    @Test
+    void testRoundTrip_ApiKeyKeepsOnlyOwnerId() {
+        // Arrange
+        User user = new User();
+        user.setId(7L);
+        ApiKey apiKey = ApiKey.builder().id(3L).user(user).name("Stripe").keyValue("sk_test")
+            .createdAt(LocalDateTime.now()).updatedAt(LocalDateTime.now()).build();
+
+        // Act
+        ApiKey decoded = (ApiKey) serializer.deserialize(serializer.serialize(apiKey));
+
+        // Assert
+        assertEquals(7L, decoded.getUser().getId());
+        assertEquals("Stripe", decoded.getName());
+        assertEquals(apiKey.getCreatedAt(), decoded.getCreatedAt());
+    }
+
+    @Test
+    void testLargeValuesAreCompressed_AndLegacyJsonStillReadable() {
+        // Arrange
+        ApiEndpointProjection large = projection("x".repeat(10_000));
+
+        // Act
+        byte[] bytes = serializer.serialize(large);
+        Object legacy = serializer.deserialize(jsonSerializer.serialize(projection("legacy")));
+
+        // Assert
+        assertTrue(bytes.length < 1000);
+        assertEquals(large, serializer.deserialize(bytes));
+        assertEquals(projection("legacy"), legacy);
+    }
+
+    private ApiEndpointProjection projection(String body) {
+        return ApiEndpointProjection.builder()
+            .id(UUID.nameUUIDFromBytes(body.getBytes()))
+            .name("Health")
+            .url("https://example.com/health")
+            .method("POST")
+            .body(body)
+            .userId(1L)
+            .recurringEnabled(true)
+            .recurringInterval("5m")
+            .lastRunAt(LocalDateTime.of(2026, 1, 2, 3, 4, 5, 600))
+            .build();
+    }
+}
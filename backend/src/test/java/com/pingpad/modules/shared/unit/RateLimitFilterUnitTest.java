@@ -0,0 +1,55 @@
+package com.pingpad.modules.shared.unit;
+
+import com.pingpad.modules.shared.config.RateLimitProperties;
+import com.pingpad.modules.shared.filters.RateLimitFilter;
+import com.pingpad.modules.shared.ratelimit.TokenBucketRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class RateLimitFilterUnitTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.getRedis().setEnabled(false);
+        properties.setDefaultLimit(new RateLimitProperties.Limit(1, Duration.ofMinutes(1)));
+        filter = new RateLimitFilter(properties,
+            new TokenBucketRateLimiter(properties, mock(ObjectProvider.class), mock(ObjectProvider.class)));
+    }
+
+    @Test
+    void testAnonymousCallersCannotChangeBucketWithForwardedFor() throws Exception {
+        // Arrange
+        MockHttpServletRequest first = anonymousRequest("198.51.100.1");
+        MockHttpServletRequest second = anonymousRequest("198.51.100.2");
+
+        // Act
+        MockHttpServletResponse firstResponse = new MockHttpServletResponse();
+        filter.doFilter(first, firstResponse, new MockFilterChain());
+        MockHttpServletResponse secondResponse = new MockHttpServletResponse();
+        filter.doFilter(second, secondResponse, new MockFilterChain());
+
+        // Assert - both requests come from the same socket address and share its bucket
+        assertEquals(200, firstResponse.getStatus());
+        assertEquals(429, secondResponse.getStatus());
+    }
+
+    private MockHttpServletRequest anonymousRequest(String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/endpoints");
+        request.setRemoteAddr("203.0.113.7");
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.pingpad.modules.shared.unit;
+
+import com.pingpad.modules.shared.ratelimit.SlidingWindowRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRateLimiterUnitTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private SlidingWindowRateLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        // Start at the beginning of a window
+        now.set(60_000L * 1_000);
+        limiter = new SlidingWindowRateLimiter("test", 5, Duration.ofMinutes(1), 100, null, null, now::get);
+    }
+
+    @Test
+    void testLimitsAfterMaxEventsAndDecaysOverNextWindow() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            limiter.record("10.0.0.1");
+        }
+
+        // Act & Assert
+        assertTrue(limiter.isLimited("10.0.0.1"));
+        assertEquals(0, limiter.getRemaining("10.0.0.1"));
+        assertFalse(limiter.isLimited("10.0.0.2"));
+        assertEquals(60, limiter.getSecondsUntilReset("10.0.0.1"));
+
+        // Halfway through the next window only half of the previous count still counts
+        now.addAndGet(90_000);
+        assertEquals(2.5, limiter.count("10.0.0.1"), 0.001);
+        assertEquals(2, limiter.getRemaining("10.0.0.1"));
+
+        // Two windows later nothing is left
+        now.addAndGet(60_000);
+        assertEquals(0.0, limiter.count("10.0.0.1"));
+    }
+
+    @Test
+    void testResetClearsCounters() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            limiter.record("10.0.0.1");
+        }
+
+        // Act
+        limiter.reset("10.0.0.1");
+
+        // Assert
+        assertFalse(limiter.isLimited("10.0.0.1"));
+        assertEquals(5, limiter.getRemaining("10.0.0.1"));
+        assertEquals(0, limiter.getSecondsUntilReset("10.0.0.1"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.pingpad.modules.shared.unit;
+
+import com.pingpad.modules.cache.services.RedisCircuitBreaker;
+import com.pingpad.modules.shared.config.RateLimitProperties;
+import com.pingpad.modules.shared.ratelimit.TokenBucket;
+import com.pingpad.modules.shared.ratelimit.TokenBucketRateLimiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenBucketRateLimiterUnitTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Mock
+    private ObjectProvider<RedisCircuitBreaker> circuitBreakerProvider;
+
+    private RateLimitProperties properties;
+    private RateLimitProperties.Limit limit;
+
+    @BeforeEach
+    void setUp() {
+        properties = new RateLimitProperties();
+        limit = new RateLimitProperties.Limit(3, Duration.ofMinutes(1));
+    }
+
+    @Test
+    void testTokenBucketRefillsOverTime() {
+        // Arrange
+        long nanosPerToken = TimeUnit.SECONDS.toNanos(20);
+        TokenBucket bucket = new TokenBucket(3, nanosPerToken, 0);
+
+        // Act & Assert
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertTrue(bucket.tryConsume(0));
+        assertFalse(bucket.tryConsume(0));
+        assertEquals(nanosPerToken, bucket.getNanosUntilAvailable(0));
+        assertTrue(bucket.tryConsume(nanosPerToken));
+        assertEquals(0, bucket.getAvailableTokens(nanosPerToken));
+        assertEquals(3, bucket.getAvailableTokens(nanosPerToken * 4));
+    }
+
+    @Test
+    void testRejectsPerCallerOnceCapacityIsUsed() {
+        // Arrange
+        properties.getRedis().setEnabled(false);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, redisTemplateProvider, circuitBreakerProvider);
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryConsume("test", "user:1", limit, 1.0).allowed());
+        }
+        TokenBucketRateLimiter.Decision rejected = limiter.tryConsume("test", "user:1", limit, 1.0);
+        TokenBucketRateLimiter.Decision otherUser = limiter.tryConsume("test", "user:2", limit, 1.0);
+
+        // Assert
+        assertFalse(rejected.allowed());
+        assertEquals(3, rejected.limit());
+        assertEquals(0, rejected.remaining());
+        assertTrue(rejected.retryAfterSeconds() > 0 && rejected.retryAfterSeconds() <= 20);
+        assertTrue(otherUser.allowed());
+        assertEquals(2, otherUser.remaining());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReconcileDrainsTokensUsedByOtherInstances() {
+        // Arrange
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, redisTemplateProvider, circuitBreakerProvider);
+        limiter.tryConsume("test", "user:1", limit, 1.0);
+        // First round: 1 sent by us; second round: nothing sent, but another instance used 2
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+            .thenReturn(List.of(1L, true), List.of(3L, true));
+
+        // Act
+        limiter.reconcile();
+        limiter.reconcile();
+
+        // Assert
+        assertFalse(limiter.tryConsume("test", "user:1", limit, 1.0).allowed());
+        verify(redisTemplate, times(2)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testReconcileResendsConsumptionAfterFailure() {
+        // Arrange
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(properties, redisTemplateProvider, circuitBreakerProvider);
+        limiter.tryConsume("test", "user:1", limit, 1.0);
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+            .thenThrow(new RedisConnectionFailureException("Connection refused"))
+            .thenAnswer(invocation -> {
+                invocation.<RedisCallback<Object>>getArgument(0).doInRedis(connection);
+                return List.of(1L, true);
+            });
+
+        // Act
+        limiter.reconcile();
+        limiter.reconcile();
+
+        // Assert - the token used before the failed round is sent with the next one
+        verify(connection).incrBy(anyString(), eq(1L));
+    }
+}
@@ -6,6 +6,7 @@ import { Button } from './ui/button';
 import { Checkbox } from './ui/checkbox';
 import type { Alarm } from '../types';
 import { getAuthHeaders } from '../utils/auth';
+import { subscribeToResultStream } from '../utils/stream';
 
 export default function AlarmsView() {
   const [alarms, setAlarms] = useState<Alarm[]>([]);
@@ -15,9 +16,18 @@ export default function AlarmsView() {
 
   useEffect(() => {
     loadAlarms();
-    // Refresh every 10 seconds
-    const interval = setInterval(loadAlarms, 10000);
-    return () => clearInterval(interval);
+    // Reload when the alarm count changes; the first count is the one just loaded
+    let initialCount = true;
+    return subscribeToResultStream({
+      onAlarmCount: () => {
+        if (initialCount) {
+          initialCount = false;
+          return;
+        }
+        loadAlarms();
+      },
+      onResync: loadAlarms
+    });
   }, []);
 
   const loadAlarms = async () => {
@@ -19,6 +19,8 @@ import {
 } from 'recharts';
 import type { ApiEndpoint, ApiTestResult } from '../types';
 import { getAuthHeaders } from '../utils/auth';
+import { fetchResultSummaries } from '../utils/results';
+import { subscribeToResultStream } from '../utils/stream';
 
 // Helper function to format time ago
 const getTimeAgo = (date: Date): string => {
@@ -42,9 +44,14 @@ export default function DashboardView() {
 
   useEffect(() => {
     loadDashboardData();
-    // Refresh every 30 seconds
-    const interval = setInterval(loadDashboardData, 30000);
-    return () => clearInterval(interval);
+    // New results are pushed; only refetch when the stream missed some
+    return subscribeToResultStream({
+      onResult: (result) => {
+        const cutoff = Date.now() - 24 * 3600000;
+        setAllTestResults(prev => [result, ...prev.filter(r => r.timestamp.getTime() >= cutoff)]);
+      },
+      onResync: loadDashboardData
+    });
   }, []);
 
   const loadDashboardData = async () => {
@@ -81,52 +88,13 @@ export default function DashboardView() {
         });
         setEndpoints(parsedEndpoints);
 
-        // Load test results for all endpoints (last 24 hours)
+        // Load result summaries for all endpoints (last 24 hours)
         const allResults: ApiTestResult[] = [];
         for (const endpoint of parsedEndpoints) {
           try {
-            const analyticsResponse = await fetch(
-              `${backendUrl}/api/endpoints/${endpoint.id}/analytics?hours=24`,
-              {
-                headers: getAuthHeaders(),
-                credentials: 'include'
-              }
-            );
-            
-            if (analyticsResponse.ok) {
-              const results = await analyticsResponse.json();
-              const parsedResults = Array.isArray(results) ? results.map((result: any) => {
-                // Parse timestamp
-                let timestamp: Date;
-                if (result.timestamp) {
-                  if (typeof result.timestamp === 'string') {
-                    const isoString = result.timestamp.includes('T') 
-                      ? result.timestamp 
-                      : `${result.timestamp}T00:00:00`;
-                    timestamp = new Date(isoString);
-                  } else {
-                    timestamp = new Date();
-                  }
-                } else {
-                  timestamp = new Date();
-                }
-                
-                if (isNaN(timestamp.getTime())) {
-                  timestamp = new Date();
-                }
-                
-                return {
-                  ...result,
-                  timestamp,
-                  id: result.id?.toString() || String(result.id),
-                  success: result.success !== undefined ? result.success : (result.statusCode ? result.statusCode >= 200 && result.statusCode < 300 : false),
-                  endpointId: endpoint.id
-                };
-              }) : [];
-              allResults.push(...parsedResults);
-            }
+            allResults.push(...await fetchResultSummaries(endpoint.id, 24));
           } catch (error) {
-            console.error(`Error loading analytics for endpoint ${endpoint.id}:`, error);
+            console.error(`Error loading results for endpoint ${endpoint.id}:`, error);
           }
         }
         
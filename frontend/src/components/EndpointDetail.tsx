@@ -18,7 +18,8 @@ import {
   ResponsiveContainer,
 } from 'recharts';
 import type { ApiEndpoint, ApiTestResult } from '../types';
-import { getAuthHeaders } from '../utils/auth';
+import { fetchResultDetail, fetchResultSummaries } from '../utils/results';
+import { subscribeToResultStream } from '../utils/stream';
 
 interface EndpointDetailProps {
   endpoint: ApiEndpoint;
@@ -48,108 +49,14 @@ export default function EndpointDetail({ endpoint, onClose }: EndpointDetailProp
   const [isLoading, setIsLoading] = useState(true);
   const [error, setError] = useState<string | null>(null);
   const [expandedCalls, setExpandedCalls] = useState<Set<string>>(new Set());
+  const [callDetails, setCallDetails] = useState<Record<string, ApiTestResult>>({});
 
-  // Fetch analytics data
+  // Fetch result summaries; bodies and headers are loaded per call when expanded
   const fetchAnalytics = async () => {
     try {
-      const backendUrl = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
       const hours = timeRange === '24h' ? 24 : timeRange === '7d' ? 168 : 720;
-      
-      // Ensure endpoint.id is a string
-      const endpointId = String(endpoint.id);
-      
-      const response = await fetch(
-        `${backendUrl}/api/endpoints/${endpointId}/analytics?hours=${hours}`,
-        {
-          headers: getAuthHeaders(),
-          credentials: 'include'
-        }
-      );
-
-      if (response.ok) {
-        const data = await response.json();
-        // Convert timestamps to Date objects and parse response headers
-        const results = Array.isArray(data) ? data.map((result: any) => {
-          // Parse responseHeaders from string format if needed
-          let responseHeaders: Record<string, string> | undefined = undefined;
-          if (result.responseHeaders) {
-            if (typeof result.responseHeaders === 'string') {
-              const headers: Record<string, string> = {};
-              result.responseHeaders.split('\n').forEach((line: string) => {
-                const [key, ...valueParts] = line.split(':');
-                if (key && valueParts.length > 0) {
-                  headers[key.trim()] = valueParts.join(':').trim();
-                }
-              });
-              responseHeaders = headers;
-            } else {
-              responseHeaders = result.responseHeaders;
-            }
-          }
-          
-          // Parse timestamp - handle ISO string format from LocalDateTime
-          // Format from backend: "2025-12-14T19:36:56" (no timezone, local time)
-          let timestamp: Date;
-          if (result.timestamp) {
-            if (typeof result.timestamp === 'string') {
-              // Handle ISO format: "2025-12-14T19:36:56" or "2025-12-14T19:36:56.123"
-              // LocalDateTime doesn't include timezone, so parse as local time
-              let isoString = result.timestamp.trim();
-              
-              // Ensure it has 'T' separator
-              if (!isoString.includes('T')) {
-                isoString = `${isoString}T00:00:00`;
-              }
-              
-              // Parse as local time (no timezone conversion)
-              // Split date and time, then create Date object
-              const [datePart, timePart] = isoString.split('T');
-              const [year, month, day] = datePart.split('-').map(Number);
-              const timeStr = timePart.split('.')[0]; // Remove milliseconds if present
-              const [hour, minute, second] = timeStr.split(':').map(Number);
-              
-              timestamp = new Date(year, month - 1, day, hour || 0, minute || 0, second || 0);
-            } else if (Array.isArray(result.timestamp)) {
-              // Handle LocalDateTime array format [year, month, day, hour, minute, second, nanosecond]
-              const [year, month, day, hour, minute, second] = result.timestamp;
-              timestamp = new Date(year, month - 1, day, hour || 0, minute || 0, second || 0);
-            } else {
-              timestamp = new Date();
-            }
-          } else {
-            timestamp = new Date();
-          }
-          
-          // Validate the date
-          if (isNaN(timestamp.getTime())) {
-            console.warn('Invalid timestamp:', result.timestamp, 'Using current time');
-            timestamp = new Date();
-          }
-          
-          return {
-            ...result,
-            timestamp,
-            id: result.id?.toString() || String(result.id),
-            success: result.success !== undefined ? result.success : (result.statusCode ? result.statusCode >= 200 && result.statusCode < 300 : false),
-            responseHeaders
-          };
-        }) : [];
-        setTestResults(results);
-        setError(null);
-      } else {
-        // Try to get error message from response
-        let errorMsg = 'Failed to load analytics data';
-        try {
-          const errorData = await response.json();
-          if (errorData.error) {
-            errorMsg = errorData.error;
-          }
-        } catch {
-          errorMsg = `Failed to load analytics data (${response.status} ${response.statusText})`;
-        }
-        setError(errorMsg);
-        console.error('Analytics fetch failed:', response.status, response.statusText);
-      }
+      setTestResults(await fetchResultSummaries(String(endpoint.id), hours));
+      setError(null);
     } catch (err) {
       console.error('Error fetching analytics:', err);
       setError(`Error loading analytics data: ${err instanceof Error ? err.message : String(err)}`);
@@ -158,19 +65,38 @@ export default function EndpointDetail({ endpoint, onClose }: EndpointDetailProp
     }
   };
 
+  // Load the full result (body, headers, error) the first time a call is expanded
+  const loadCallDetail = async (resultId: string) => {
+    if (callDetails[resultId]) {
+      return;
+    }
+    try {
+      const detail = await fetchResultDetail(String(endpoint.id), resultId);
+      setCallDetails(prev => ({ ...prev, [resultId]: detail }));
+    } catch (err) {
+      console.error('Error fetching test result:', err);
+    }
+  };
+
   // Initial fetch and when time range changes
   useEffect(() => {
     setIsLoading(true);
     fetchAnalytics();
   }, [endpoint.id, timeRange]);
 
-  // Poll for updates every 5 seconds when modal is open
+  // Add new results as they are pushed; only refetch when the stream missed some
   useEffect(() => {
-    const interval = setInterval(() => {
-      fetchAnalytics();
-    }, 5000); // Poll every 5 seconds
-
-    return () => clearInterval(interval);
+    const hours = timeRange === '24h' ? 24 : timeRange === '7d' ? 168 : 720;
+    return subscribeToResultStream({
+      onResult: (result) => {
+        if (result.endpointId !== String(endpoint.id)) {
+          return;
+        }
+        const cutoff = Date.now() - hours * 3600000;
+        setTestResults(prev => [result, ...prev.filter(r => r.timestamp.getTime() >= cutoff)]);
+      },
+      onResync: fetchAnalytics
+    });
   }, [endpoint.id, timeRange]);
 
   // Transform test results into hourly chart data
@@ -616,9 +542,13 @@ export default function EndpointDetail({ endpoint, onClose }: EndpointDetailProp
                   </div>
                 ) : (
                   <div className="space-y-2">
-                    {testResults.slice(0, 10).map((result) => {
+                    {testResults.slice(0, 10).map((summary) => {
+                      const result = callDetails[summary.id] || summary;
                       const isExpanded = expandedCalls.has(result.id);
                       const toggleExpand = () => {
+                        if (!isExpanded) {
+                          loadCallDetail(result.id);
+                        }
                         setExpandedCalls(prev => {
                           const newSet = new Set(prev);
                           if (newSet.has(result.id)) {
@@ -4,7 +4,7 @@ import { Button } from './ui/button';
 import { Badge } from './ui/badge';
 import { cn } from '../lib/utils';
 import { useState, useEffect } from 'react';
-import { getAuthHeaders } from '../utils/auth';
+import { subscribeToResultStream } from '../utils/stream';
 
 interface SidebarProps {
   activeView: string;
@@ -27,28 +27,9 @@ export default function Sidebar({
   const [alarmCount, setAlarmCount] = useState(0);
   
   useEffect(() => {
-    loadAlarmCount();
-    // Refresh alarm count every 10 seconds
-    const interval = setInterval(loadAlarmCount, 10000);
-    return () => clearInterval(interval);
+    // The stream sends the current count on connect and again after every change
+    return subscribeToResultStream({ onAlarmCount: setAlarmCount });
   }, []);
-
-  const loadAlarmCount = async () => {
-    try {
-      const backendUrl = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
-      const response = await fetch(`${backendUrl}/api/alarms/count`, {
-        headers: getAuthHeaders(),
-        credentials: 'include'
-      });
-
-      if (response.ok) {
-        const data = await response.json();
-        setAlarmCount(data.count || 0);
-      }
-    } catch (error) {
-      console.error('Error loading alarm count:', error);
-    }
-  };
   
   const menuItems: Array<{
     id: string;
@@ -0,0 +1,107 @@
+import type { ApiTestResult } from '../types';
+import { getAuthHeaders } from './auth';
+
+// Largest page the backend serves
+const RESULT_PAGE_SIZE = 1000;
+
+const getBackendUrl = (): string => {
+  return import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
+};
+
+/**
+ * Parses a backend LocalDateTime ("2025-12-14T19:36:56", no timezone) as local time
+ */
+export const parseTimestamp = (value: unknown): Date => {
+  let timestamp: Date;
+  if (typeof value === 'string') {
+    let isoString = value.trim();
+    if (!isoString.includes('T')) {
+      isoString = `${isoString}T00:00:00`;
+    }
+    const [datePart, timePart] = isoString.split('T');
+    const [year, month, day] = datePart.split('-').map(Number);
+    const timeStr = timePart.split('.')[0]; // Remove milliseconds if present
+    const [hour, minute, second] = timeStr.split(':').map(Number);
+    timestamp = new Date(year, month - 1, day, hour || 0, minute || 0, second || 0);
+  } else if (Array.isArray(value)) {
+    // LocalDateTime array format [year, month, day, hour, minute, second, nanosecond]
+    const [year, month, day, hour, minute, second] = value;
+    timestamp = new Date(year, month - 1, day, hour || 0, minute || 0, second || 0);
+  } else {
+    timestamp = new Date();
+  }
+
+  if (isNaN(timestamp.getTime())) {
+    console.warn('Invalid timestamp:', value, 'Using current time');
+    timestamp = new Date();
+  }
+  return timestamp;
+};
+
+/**
+ * Converts a result summary or full result from the backend into an ApiTestResult
+ */
+export const toTestResult = (result: any, endpointId: string): ApiTestResult => {
+  return {
+    ...result,
+    id: String(result.id),
+    endpointId,
+    timestamp: parseTimestamp(result.timestamp),
+    success: result.success !== undefined && result.success !== null
+      ? result.success
+      : (result.statusCode ? result.statusCode >= 200 && result.statusCode < 300 : false),
+  };
+};
+
+const errorMessage = async (response: Response, fallback: string): Promise<string> => {
+  try {
+    const errorData = await response.json();
+    if (errorData.error) {
+      return errorData.error;
+    }
+  } catch {
+    // Not a JSON error body
+  }
+  return `${fallback} (${response.status} ${response.statusText})`;
+};
+
+/**
+ * Fetches the result summaries (no bodies or headers) of an endpoint for the last `hours`,
+ * newest first, following the keyset cursor until the window is exhausted
+ */
+export const fetchResultSummaries = async (endpointId: string, hours: number): Promise<ApiTestResult[]> => {
+  const results: ApiTestResult[] = [];
+  let cursor: string | null = null;
+  do {
+    const params = new URLSearchParams({ hours: String(hours), limit: String(RESULT_PAGE_SIZE) });
+    if (cursor) {
+      params.set('cursor', cursor);
+    }
+    const response = await fetch(`${getBackendUrl()}/api/endpoints/${endpointId}/results?${params}`, {
+      headers: getAuthHeaders(),
+      credentials: 'include'
+    });
+    if (!response.ok) {
+      throw new Error(await errorMessage(response, 'Failed to load test results'));
+    }
+    const page = await response.json();
+    const items: any[] = Array.isArray(page.items) ? page.items : [];
+    results.push(...items.map(item => toTestResult(item, endpointId)));
+    cursor = page.nextCursor || null;
+  } while (cursor);
+  return results;
+};
+
+/**
+ * Fetches a single full result, including its response body, headers and error
+ */
+export const fetchResultDetail = async (endpointId: string, resultId: string): Promise<ApiTestResult> => {
+  const response = await fetch(`${getBackendUrl()}/api/endpoints/${endpointId}/results/${resultId}`, {
+    headers: getAuthHeaders(),
+    credentials: 'include'
+  });
+  if (!response.ok) {
+    throw new Error(await errorMessage(response, 'Failed to load test result'));
+  }
+  return toTestResult(await response.json(), endpointId);
+};
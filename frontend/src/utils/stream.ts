@@ -0,0 +1,157 @@
+import type { ApiTestResult } from '../types';
+import { getAuthHeaders } from './auth';
+import { toTestResult } from './results';
+
+export interface ResultStreamListener {
+  // A new test result for one of the user's endpoints (summary fields plus error)
+  onResult?: (result: ApiTestResult) => void;
+  // The user's unacknowledged alarm count, sent on connect and after every change
+  onAlarmCount?: (count: number) => void;
+  // Events were missed (dropped by the server or while reconnecting); refetch
+  onResync?: () => void;
+}
+
+const MIN_RETRY_DELAY_MS = 1000;
+const MAX_RETRY_DELAY_MS = 30000;
+
+const listeners = new Set<ResultStreamListener>();
+let connection: AbortController | null = null;
+let alarmCount: number | null = null;
+
+const getBackendUrl = (): string => {
+  return import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
+};
+
+const dispatch = (eventName: string, data: string) => {
+  if (eventName === 'resync') {
+    listeners.forEach(listener => listener.onResync?.());
+    return;
+  }
+
+  let event: any;
+  try {
+    event = JSON.parse(data);
+  } catch {
+    console.warn('Ignoring malformed result stream event:', eventName);
+    return;
+  }
+
+  if (eventName === 'result' && event.result) {
+    const result = toTestResult({ ...event.result, error: event.error }, String(event.endpointId));
+    listeners.forEach(listener => listener.onResult?.(result));
+  } else if (eventName === 'alarms') {
+    if (event.alarmCount !== undefined && event.alarmCount !== null) {
+      alarmCount = event.alarmCount;
+    } else if (alarmCount !== null && event.alarmDelta) {
+      alarmCount = Math.max(0, alarmCount + event.alarmDelta);
+    }
+    if (alarmCount !== null) {
+      const count = alarmCount;
+      listeners.forEach(listener => listener.onAlarmCount?.(count));
+    }
+  }
+};
+
+/**
+ * Reads server-sent events from a response body. EventSource can't be used here
+ * because it can't send the Authorization header.
+ */
+const readEvents = async (body: ReadableStream<Uint8Array>) => {
+  const reader = body.getReader();
+  const decoder = new TextDecoder();
+  let buffer = '';
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) {
+      return;
+    }
+    buffer += decoder.decode(value, { stream: true });
+
+    let separator = buffer.search(/\r?\n\r?\n/);
+    while (separator >= 0) {
+      const block = buffer.slice(0, separator);
+      buffer = buffer.slice(separator).replace(/^\r?\n\r?\n/, '');
+
+      let eventName = 'message';
+      const dataLines: string[] = [];
+      block.split(/\r?\n/).forEach(line => {
+        if (line.startsWith('event:')) {
+          eventName = line.slice(6).trim();
+        } else if (line.startsWith('data:')) {
+          dataLines.push(line.slice(5).replace(/^ /, ''));
+        }
+        // Lines starting with ':' are heartbeats
+      });
+      if (dataLines.length > 0) {
+        dispatch(eventName, dataLines.join('\n'));
+      }
+
+      separator = buffer.search(/\r?\n\r?\n/);
+    }
+  }
+};
+
+const connect = async (controller: AbortController) => {
+  let retryDelay = MIN_RETRY_DELAY_MS;
+  let connectedBefore = false;
+  while (!controller.signal.aborted) {
+    try {
+      const headers = new Headers(getAuthHeaders());
+      headers.set('Accept', 'text/event-stream');
+      const response = await fetch(`${getBackendUrl()}/api/stream`, {
+        headers,
+        credentials: 'include',
+        signal: controller.signal
+      });
+      if (response.status === 401 || response.status === 403) {
+        // Not logged in (anymore); reconnecting won't help until the page reloads
+        console.warn('Result stream rejected:', response.status);
+        return;
+      }
+      if (!response.ok || !response.body) {
+        throw new Error(`Result stream failed (${response.status} ${response.statusText})`);
+      }
+
+      if (connectedBefore) {
+        // Anything published while disconnected was missed
+        listeners.forEach(listener => listener.onResync?.());
+      }
+      connectedBefore = true;
+      retryDelay = MIN_RETRY_DELAY_MS;
+      await readEvents(response.body);
+    } catch (error) {
+      if (controller.signal.aborted) {
+        return;
+      }
+      console.error('Result stream error:', error);
+    }
+
+    await new Promise(resolve => setTimeout(resolve, retryDelay));
+    retryDelay = Math.min(retryDelay * 2, MAX_RETRY_DELAY_MS);
+  }
+};
+
+/**
+ * Subscribes to new test results and alarm count changes for the logged in user.
+ * All subscribers in the page share one connection, which is closed when the last
+ * one unsubscribes. Returns the unsubscribe function.
+ */
+export const subscribeToResultStream = (listener: ResultStreamListener): (() => void) => {
+  listeners.add(listener);
+  if (alarmCount !== null) {
+    listener.onAlarmCount?.(alarmCount);
+  }
+  if (!connection) {
+    connection = new AbortController();
+    connect(connection);
+  }
+
+  return () => {
+    listeners.delete(listener);
+    if (listeners.size === 0 && connection) {
+      connection.abort();
+      connection = null;
+      alarmCount = null;
+    }
+  };
+};